@@ -0,0 +1,90 @@
+package study.querydsl;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberDTO;
+import study.querydsl.dto.QMemberDTO;
+import study.querydsl.repository.support.FastProjections;
+
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * row 하나를 DTO 로 만드는 비용 비교 (쿼리 실행 제외, FactoryExpression.newInstance 만 측정)
+ * 직접 생성 / @QueryProjection / Projections(리플렉션) / FastProjections
+ * 실행 : ./gradlew jmh  (gc 프로파일러의 gc.alloc.rate.norm 이 row 당 할당 바이트)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProjectionBenchmark {
+
+    private final Object[] row = {"member1", 10};
+
+    private FactoryExpression<MemberDTO> queryProjection;
+    private FactoryExpression<MemberDTO> reflectionBean;
+    private FactoryExpression<MemberDTO> reflectionFields;
+    private FactoryExpression<MemberDTO> reflectionConstructor;
+    private FactoryExpression<MemberDTO> fastBean;
+    private FactoryExpression<MemberDTO> fastFields;
+    private FactoryExpression<MemberDTO> fastConstructor;
+
+    @Setup
+    public void setup() {
+        queryProjection = new QMemberDTO(member.username, member.age);
+        reflectionBean = Projections.bean(MemberDTO.class, member.username, member.age);
+        reflectionFields = Projections.fields(MemberDTO.class, member.username, member.age);
+        reflectionConstructor = Projections.constructor(MemberDTO.class, member.username, member.age);
+        fastBean = FastProjections.bean(MemberDTO.class, member.username, member.age);
+        fastFields = FastProjections.fields(MemberDTO.class, member.username, member.age);
+        fastConstructor = FastProjections.constructor(MemberDTO.class, member.username, member.age);
+    }
+
+    @Benchmark
+    public MemberDTO handwritten() {
+        return new MemberDTO((String) row[0], (Integer) row[1]);
+    }
+
+    @Benchmark
+    public MemberDTO queryProjection() {
+        return queryProjection.newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDTO projectionsBean() {
+        return reflectionBean.newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDTO projectionsFields() {
+        return reflectionFields.newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDTO projectionsConstructor() {
+        return reflectionConstructor.newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDTO fastBean() {
+        return fastBean.newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDTO fastFields() {
+        return fastFields.newInstance(row);
+    }
+
+    @Benchmark
+    public MemberDTO fastConstructor() {
+        return fastConstructor.newInstance(row);
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 워커 스레드 하나가 쓰는 응답 시간 기록 (나노초, 스레드 안전하지 않음)
+ * 구간이 끝나면 merge 로 합쳐서 백분위를 계산한다.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    int count() {
+        return size;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    static LatencyRecorder merge(Iterable<LatencyRecorder> recorders) {
+        LatencyRecorder merged = new LatencyRecorder();
+        for (LatencyRecorder recorder : recorders) {
+            for (int i = 0; i < recorder.size; i++) {
+                merged.record(recorder.samples[i]);
+            }
+            merged.errors += recorder.errors;
+        }
+        Arrays.sort(merged.samples, 0, merged.size);
+        return merged;
+    }
+
+    // merge 로 정렬된 기록에서만 호출 (nearest-rank)
+    long percentile(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * size);
+        return samples[Math.max(rank, 1) - 1];
+    }
+}
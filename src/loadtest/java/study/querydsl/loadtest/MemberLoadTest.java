@@ -0,0 +1,210 @@
+package study.querydsl.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.repository.support.UsernameSearch;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberController 부하 테스트 (./gradlew loadTest)
+ * 애플리케이션을 내장 H2(MySQL 모드) 로 띄우고 회원 데이터를 넣은 뒤 /v1, /v2, /v3 를 동시 요청 수를 단계적으로 늘려가며 호출한다.
+ * 단계마다 처리량, p50 / p99 / p999 응답 시간, GC 정지(횟수 / 시간), 요청당 DB statement 수를 출력하고 CSV 로 저장한다.
+ * 부하 발생기와 서버가 같은 JVM 에서 돌기 때문에 GC 수치에는 클라이언트 할당도 포함된다. (변경 전후 비교 용도)
+ *
+ * 설정 (-D 시스템 프로퍼티)
+ * loadtest.rows=100000, loadtest.teams=20, loadtest.endpoints=v1,v2,v3, loadtest.concurrency=1,4,16,64
+ * loadtest.warmup=2s, loadtest.duration=5s, loadtest.seed=42, loadtest.report=build/reports/loadtest/results.csv
+ */
+public class MemberLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("loadtest.rows", 100_000);
+        int teams = Integer.getInteger("loadtest.teams", 20);
+        List<String> endpoints = List.of(System.getProperty("loadtest.endpoints", "v1,v2,v3").split(","));
+        int[] concurrency = Arrays.stream(System.getProperty("loadtest.concurrency", "1,4,16,64").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        Duration warmup = DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "2s"));
+        Duration duration = DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "5s"));
+        long seed = Long.getLong("loadtest.seed", 42L);
+        Path report = Path.of(System.getProperty("loadtest.report", "build/reports/loadtest/results.csv"));
+
+        // 커맨드라인 인자는 application.properties / yml 보다 우선한다. (local 프로파일의 InitMember, SQL 로그 제외)
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class).run(
+                "--spring.profiles.active=loadtest",
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=warn");
+        try {
+            seed(context.getBean(JdbcTemplate.class), rows, teams);
+            context.getBean(UsernameSearch.class).rebuild();
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            StatementCountingDataSource dataSource = context.getBean(DataSource.class).unwrap(StatementCountingDataSource.class);
+            SearchRequestMix mix = new SearchRequestMix(rows, teams);
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            List<String> lines = new ArrayList<>();
+            lines.add("endpoint,concurrency,requests,errors,throughput,p50_ms,p99_ms,p999_ms,gc_count,gc_ms,statements_per_request");
+            System.out.printf("rows=%d, teams=%d, warmup=%s, duration=%s%n", rows, teams, warmup, duration);
+            System.out.printf("%-4s %5s %10s %9s %9s %9s %7s %12s %10s%n",
+                    "api", "conc", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "errors", "gc(n/ms)", "stmt/req");
+
+            for (String endpoint : endpoints) {
+                for (int threads : concurrency) {
+                    run(client, baseUrl + "/" + endpoint + "/members", mix, threads, warmup, seed);
+
+                    long gcCount = gcCount();
+                    long gcMillis = gcMillis();
+                    long statements = dataSource.getStatementCount();
+                    LatencyRecorder result = run(client, baseUrl + "/" + endpoint + "/members", mix, threads, duration, seed);
+                    gcCount = gcCount() - gcCount;
+                    gcMillis = gcMillis() - gcMillis;
+                    statements = dataSource.getStatementCount() - statements;
+
+                    double throughput = result.count() / (duration.toNanos() / 1e9);
+                    double statementsPerRequest = (double) statements / Math.max(result.count() + result.errors(), 1);
+                    System.out.printf("%-4s %5d %10.1f %9.2f %9.2f %9.2f %7d %6d/%-5d %10.2f%n",
+                            endpoint, threads, throughput, millis(result.percentile(50)), millis(result.percentile(99)),
+                            millis(result.percentile(99.9)), result.errors(), gcCount, gcMillis, statementsPerRequest);
+                    lines.add(String.format("%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%d,%d,%.2f",
+                            endpoint, threads, result.count(), result.errors(), throughput, millis(result.percentile(50)),
+                            millis(result.percentile(99)), millis(result.percentile(99.9)), gcCount, gcMillis,
+                            statementsPerRequest));
+                }
+            }
+            write(report, lines);
+            System.out.println("report : " + report.toAbsolutePath());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static LatencyRecorder run(HttpClient client, String url, SearchRequestMix mix,
+                                       int threads, Duration duration, long seed) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<LatencyRecorder>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Random random = new Random(seed + i);
+            futures.add(executor.submit(() -> {
+                LatencyRecorder recorder = new LatencyRecorder();
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(url + mix.next(random))).GET().build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            recorder.record(System.nanoTime() - start);
+                        } else {
+                            recorder.error();
+                        }
+                    } catch (IOException e) {
+                        recorder.error();
+                    }
+                }
+                return recorder;
+            }));
+        }
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        for (Future<LatencyRecorder> future : futures) {
+            recorders.add(future.get());
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return LatencyRecorder.merge(recorders);
+    }
+
+    // team0 ~ team{teams-1}, member0 ~ member{rows-1} (나이 0~99, 50명 중 1명은 팀 없음)
+    private static void seed(JdbcTemplate jdbcTemplate, int rows, int teams) {
+        List<Object[]> teamRows = new ArrayList<>();
+        for (int i = 0; i < teams; i++) {
+            teamRows.add(new Object[]{(long) i + 1, "team" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into team (team_id, name) values (?, ?)", teamRows);
+
+        List<Object[]> memberRows = new ArrayList<>(1_000);
+        for (int i = 0; i < rows; i++) {
+            Long teamId = i % 50 == 0 ? null : (long) (i % teams) + 1;
+            memberRows.add(new Object[]{(long) i + 1, "member" + i, i % 100, teamId});
+            if (memberRows.size() == 1_000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", memberRows);
+                memberRows.clear();
+            }
+        }
+    }
+
+    // 동시 수집기(이름에 Concurrent 포함) 는 애플리케이션을 멈추지 않으므로 제외
+    private static long gcCount() {
+        return stopTheWorldCollectors().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcMillis() {
+        return stopTheWorldCollectors().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static List<GarbageCollectorMXBean> stopTheWorldCollectors() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .filter(gc -> !gc.getName().contains("Concurrent"))
+                .toList();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static void write(Path report, List<String> lines) throws IOException {
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        Files.write(report, lines);
+    }
+
+    // 컴포넌트 스캔(study.querydsl) 으로 등록 : DataSource 를 statement 수를 세는 DataSource 로 감싼다.
+    @Configuration
+    static class LoadTestConfiguration {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)
+                            ? new StatementCountingDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.loadtest;
+
+import java.util.Random;
+
+/**
+ * MemberSearchCondition + Pageable 쿼리 문자열 생성 (MemberLoadTest 의 시드 데이터 기준)
+ * /v1/members 는 페이징이 없으므로 모든 조건이 전체의 수 % 이하만 조회하도록 구성한다.
+ * 비율 : 팀 + 나이 구간 35%, 회원명 일치 25%, 회원명 prefix 15%, 회원명 contains 10%, 나이 구간 15%
+ * 페이지 : 첫 페이지 60%, 2~5 페이지 30%, 깊은 페이지(6~50) 10%, 크기 10 / 20 / 50
+ */
+class SearchRequestMix {
+
+    private static final int[] PAGE_SIZES = {10, 20, 50};
+
+    private final int rows;
+    private final int teams;
+
+    SearchRequestMix(int rows, int teams) {
+        this.rows = rows;
+        this.teams = teams;
+    }
+
+    String next(Random random) {
+        StringBuilder query = new StringBuilder();
+        int kind = random.nextInt(100);
+        if (kind < 35) {
+            int ageGoe = random.nextInt(95);
+            append(query, "teamName", "team" + random.nextInt(teams));
+            append(query, "ageGoe", ageGoe);
+            append(query, "ageLoe", ageGoe + 5);
+        } else if (kind < 60) {
+            append(query, "username", "member" + random.nextInt(rows));
+        } else if (kind < 75) {
+            append(query, "username", "Member" + random.nextInt(Math.max(rows / 100, 1)));
+            append(query, "usernameMatch", "PREFIX");
+        } else if (kind < 85) {
+            append(query, "username", "ber" + (1000 + random.nextInt(Math.max(rows - 1000, 1))));
+            append(query, "usernameMatch", "CONTAINS");
+        } else {
+            int ageGoe = random.nextInt(99);
+            append(query, "ageGoe", ageGoe);
+            append(query, "ageLoe", ageGoe + 1);
+        }
+
+        int page = random.nextInt(100);
+        append(query, "page", page < 60 ? 0 : page < 90 ? 1 + random.nextInt(4) : 5 + random.nextInt(46));
+        append(query, "size", PAGE_SIZES[random.nextInt(PAGE_SIZES.length)]);
+        return query.toString();
+    }
+
+    private static void append(StringBuilder query, String name, Object value) {
+        query.append(query.isEmpty() ? '?' : '&').append(name).append('=').append(value);
+    }
+}
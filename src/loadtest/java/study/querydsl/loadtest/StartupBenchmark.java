@@ -0,0 +1,172 @@
+package study.querydsl.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 기동 시간 측정 (./gradlew startupBenchmark)
+ * bootJar 를 풀어 둔 디렉터리(startup.app) 로 애플리케이션을 별도 프로세스로 띄우고,
+ * 프로세스 시작부터 첫 요청(GET /v3/members?size=1) 이 200 으로 응답할 때까지의 시간을 잰다.
+ * DB 는 파일 H2(MySQL 모드) 를 사용한다. baseline 실행이 스키마를 만들고(ddl-auto: create), fast 계열은 검증만 한다.
+ *
+ * 모드
+ * baseline     : 기본 설정 (local 프로필, ddl-auto: create, InitMember 샘플 데이터)
+ * fast         : fast 프로필 (ddl-auto: validate, lazy-initialization)
+ * fast-cds     : fast + CDS 아카이브 (학습 실행 -XX:ArchiveClassesAtExit, -Dspring.context.exit=onRefresh 로 생성)
+ * fast-cds-aot : fast-cds + AOT 초기화 코드 (-Dspring.aot.enabled=true)
+ *
+ * 설정 (-D 시스템 프로퍼티)
+ * startup.app, startup.h2, startup.java (gradle 태스크가 지정), startup.modes=baseline,fast,fast-cds,fast-cds-aot
+ * startup.runs=5, startup.timeout=120s, startup.report=build/reports/startup/results.csv
+ */
+public class StartupBenchmark {
+
+    private static final String FIRST_REQUEST = "/v3/members?size=1";
+
+    public static void main(String[] args) throws Exception {
+        Path app = Path.of(System.getProperty("startup.app", "build/startup/app")).toAbsolutePath();
+        String h2 = System.getProperty("startup.h2");
+        String java = System.getProperty("startup.java", Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        List<String> modes = List.of(System.getProperty("startup.modes", "baseline,fast,fast-cds,fast-cds-aot").split(","));
+        int runs = Integer.getInteger("startup.runs", 5);
+        Duration timeout = DurationStyle.detectAndParse(System.getProperty("startup.timeout", "120s"));
+        Path report = Path.of(System.getProperty("startup.report", "build/reports/startup/results.csv"));
+
+        String classpath = classpath(app, h2);
+        Path db = app.resolveSibling("db").resolve("member");
+        Path archive = app.resolve("application.jsa");
+
+        // fast 계열은 스키마 검증만 하므로 baseline 으로 스키마를 먼저 만든다.
+        run(java, classpath, db, "baseline", archive, timeout);
+        if (modes.stream().anyMatch(mode -> mode.contains("cds"))) {
+            train(java, classpath, db, archive, modes.contains("fast-cds-aot"));
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add("mode,run,first_request_ms");
+        System.out.printf("%-14s %s%n", "mode", "time to first request (ms)");
+        for (String mode : modes) {
+            List<Long> millis = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                long elapsed = run(java, classpath, db, mode, archive, timeout);
+                millis.add(elapsed);
+                lines.add(mode + "," + i + "," + elapsed);
+            }
+            System.out.printf("%-14s median=%d, min=%d, runs=%s%n", mode, median(millis),
+                    millis.stream().mapToLong(Long::longValue).min().orElse(0), millis);
+        }
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        Files.write(report, lines);
+        System.out.println("report : " + report.toAbsolutePath());
+    }
+
+    // 같은 classpath 로 학습 / 측정해야 CDS 아카이브가 사용된다.
+    private static String classpath(Path app, String h2) throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (Stream<Path> jars = Files.list(app)) {
+            jars.filter(path -> path.toString().endsWith(".jar")).forEach(path -> entries.add(path.toString()));
+        }
+        try (Stream<Path> libs = Files.list(app.resolve("lib"))) {
+            libs.sorted().forEach(path -> entries.add(path.toString()));
+        }
+        if (h2 != null) {
+            entries.add(h2);
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    // refresh 직후 종료하면서 로딩된 클래스를 아카이브로 저장
+    private static void train(String java, String classpath, Path db, Path archive, boolean aot) throws Exception {
+        List<String> command = new ArrayList<>(List.of(java, "-XX:ArchiveClassesAtExit=" + archive, "-Dspring.context.exit=onRefresh"));
+        if (aot) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.addAll(application(classpath, db, "fast", freePort()));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("CDS 학습 실행 실패 exit=" + process.exitValue());
+        }
+    }
+
+    private static long run(String java, String classpath, Path db, String mode, Path archive, Duration timeout)
+            throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of(java));
+        if (mode.contains("cds")) {
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        if (mode.contains("aot")) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.addAll(application(classpath, db, mode.startsWith("fast") ? "fast" : "local", port));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + FIRST_REQUEST)).build();
+            while (System.nanoTime() - start < timeout.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " 기동 실패 exit=" + process.exitValue());
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                    throw new IllegalStateException(mode + " 첫 요청 실패 status=" + response.statusCode());
+                } catch (ConnectException e) {
+                    Thread.sleep(5);
+                }
+            }
+            throw new IllegalStateException(mode + " 기동 시간 초과 " + timeout);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // 커맨드라인 인자는 application.properties / yml 보다 우선한다.
+    private static List<String> application(String classpath, Path db, String profile, int port) {
+        return Arrays.asList("-cp", classpath, "study.querydsl.QuerydslApplication",
+                "--spring.profiles.active=" + profile,
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:file:" + db + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=warn");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = values.stream().sorted().toList();
+        return sorted.get(sorted.size() / 2);
+    }
+}
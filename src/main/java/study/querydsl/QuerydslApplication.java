@@ -2,9 +2,20 @@ package study.querydsl;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import study.querydsl.repository.support.DeadlineDataSource;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
+import study.querydsl.repository.support.SlowQueryLog;
+import study.querydsl.repository.support.SqlLog;
+import study.querydsl.repository.support.StatementTimingDataSource;
+
+import javax.sql.DataSource;
 
 @SpringBootApplication
 public class QuerydslApplication {
@@ -13,8 +24,42 @@ public class QuerydslApplication {
 		SpringApplication.run(QuerydslApplication.class, args);
 	}
 
+	// 조회 쿼리에 요청의 남은 마감 시간을 query timeout 힌트로 건다. (DeadlineJPAQuery)
 	@Bean
 	JPAQueryFactory jpaQueryFactory(EntityManager em) {
-		return new JPAQueryFactory(em);
+		return new DeadlineJPAQueryFactory(em);
+	}
+
+	// 요청의 쿼리 마감(QueryDeadline) 을 모든 JDBC Statement 에 적용
+	@Bean
+	static BeanPostProcessor deadlineDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return bean instanceof DataSource dataSource && !(bean instanceof DeadlineDataSource)
+						? new DeadlineDataSource(dataSource)
+						: bean;
+			}
+		};
+	}
+
+	// 느린 쿼리 기록 (SlowQueryLog) / SQL 로그 (SqlLog) 를 위해 모든 JDBC Statement 실행 시간 측정
+	@Bean
+	static BeanPostProcessor statementTimingDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog,
+																	ObjectProvider<SqlLog> sqlLog) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return bean instanceof DataSource dataSource && !(bean instanceof StatementTimingDataSource)
+						? new StatementTimingDataSource(dataSource, slowQueryLog, sqlLog)
+						: bean;
+			}
+		};
+	}
+
+	// spring.main.lazy-initialization=true (fast 프로필) 이어도 첫 요청이 기다리지 않도록 JPA / DataSource 는 기동 시 생성
+	@Bean
+	static LazyInitializationExcludeFilter eagerPersistenceInfrastructure() {
+		return LazyInitializationExcludeFilter.forBeanTypes(AbstractEntityManagerFactoryBean.class, DataSource.class);
 	}
 }
@@ -0,0 +1,33 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 쿠버네티스 probe 용 상태 (actuator 없이 ApplicationAvailability 사용)
+ * readiness 는 쿼리 워밍업(MemberQueryWarmup) 이 끝난 뒤 ACCEPTING_TRAFFIC 이 된다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class HealthController {
+
+    private final ApplicationAvailability availability;
+
+    @GetMapping("/health/liveness")
+    public ResponseEntity<LivenessState> liveness() {
+        LivenessState state = availability.getLivenessState();
+        return ResponseEntity.status(state == LivenessState.CORRECT ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(state);
+    }
+
+    @GetMapping("/health/readiness")
+    public ResponseEntity<ReadinessState> readiness() {
+        ReadinessState state = availability.getReadinessState();
+        return ResponseEntity.status(state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(state);
+    }
+}
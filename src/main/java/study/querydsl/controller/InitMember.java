@@ -4,12 +4,14 @@ import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.PersistenceContextGuard;
 
 @Profile("local")
 @Component
@@ -29,6 +31,9 @@ public class InitMember {
         @PersistenceContext
         private EntityManager em;
 
+        @Autowired
+        private PersistenceContextGuard persistenceContextGuard;
+
         @Transactional
         public void init() {
             Team teamA = new Team("teamA");
@@ -40,6 +45,7 @@ public class InitMember {
             for (int i = 0; i < 100; i++) {
                 Team selectedTeam = i % 2 == 0 ? teamA : teamB;
                 em.persist(new Member("member" + i , i, selectedTeam));
+                persistenceContextGuard.checkpoint();
             }
         }
     }
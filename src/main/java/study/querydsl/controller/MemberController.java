@@ -5,6 +5,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import study.querydsl.controller.support.MemberEtag;
+import study.querydsl.dto.MemberFacetSearchDTO;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.repository.MemberJpaRepository;
@@ -18,19 +21,39 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberEtag memberEtag;
 
+    // 데이터가 바뀌지 않았으면 (If-None-Match == ETag) 쿼리 없이 304
     @GetMapping("/v1/members")
-    public List<MemberTeamDTO> searchMemberV1(MemberSearchCondition condition) {
+    public List<MemberTeamDTO> searchMemberV1(MemberSearchCondition condition, WebRequest request) {
+        if (memberEtag.notModified(request, "v1", condition, null)) {
+            return null;
+        }
         return memberJpaRepository.search(condition);
 
     }
     @GetMapping("/v2/members")
-    public Page<MemberTeamDTO> searchMemberV1(MemberSearchCondition condition, Pageable pageable) {
+    public Page<MemberTeamDTO> searchMemberV1(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+        if (memberEtag.notModified(request, "v2", condition, pageable)) {
+            return null;
+        }
         return memberRepository.searchPageSimple(condition, pageable);
     }
 
     @GetMapping("/v3/members")
-    public Page<MemberTeamDTO> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+    public Page<MemberTeamDTO> searchMemberV2(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+        if (memberEtag.notModified(request, "v3", condition, pageable)) {
+            return null;
+        }
         return memberRepository.searchPageComplex(condition, pageable);
     }
+
+    // v3 결과 + 필터용 팀별 / 나이 구간별 회원 수 (집계도 같은 검색 조건을 쓰므로 v3 와 같은 버전)
+    @GetMapping("/v4/members")
+    public MemberFacetSearchDTO searchMemberFaceted(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+        if (memberEtag.notModified(request, "v4", condition, pageable)) {
+            return null;
+        }
+        return memberRepository.searchFaceted(condition, pageable);
+    }
 }
@@ -0,0 +1,105 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.export.MemberExportFormat;
+import study.querydsl.repository.export.MemberExportJob;
+import study.querydsl.repository.export.MemberExportStatus;
+import study.querydsl.repository.export.MemberExporter;
+
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * 회원 검색 결과 내보내기 (MemberExporter)
+ * POST   /members/exports?format=CSV&teamName=... : 접수 (202 + Location), 대기열이 가득 차면 503
+ * GET    /members/exports/{id}                    : 진행 상황
+ * GET    /members/exports/{id}/file               : 완료된 파일 다운로드 (완료 전이면 409)
+ * POST   /members/exports/{id}/cancel | resume    : 취소 / 체크포인트부터 이어서 실행
+ * DELETE /members/exports/{id}                    : 끝난 작업과 파일 삭제 (실행 중이면 409)
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberExportController {
+
+    private final MemberExporter memberExporter;
+
+    @PostMapping("/members/exports")
+    public ResponseEntity<MemberExportStatus> submit(MemberSearchCondition condition,
+                                                     @RequestParam(defaultValue = "CSV") MemberExportFormat format) {
+        try {
+            MemberExportJob job = memberExporter.submit(condition, format);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/members/exports/" + job.getId()))
+                    .body(job.toStatus());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/members/exports/{id}")
+    public ResponseEntity<MemberExportStatus> status(@PathVariable String id) {
+        return withJob(id, job -> ResponseEntity.ok(job.toStatus()));
+    }
+
+    @GetMapping("/members/exports/{id}/file")
+    public ResponseEntity<Resource> download(@PathVariable String id) {
+        return withJob(id, job -> {
+            if (job.getStatus() != MemberExportJob.Status.COMPLETED) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(job.getFormat().getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(job.getPath().getFileName().toString()).build().toString())
+                    .body(new FileSystemResource(job.getPath()));
+        });
+    }
+
+    @PostMapping("/members/exports/{id}/cancel")
+    public ResponseEntity<MemberExportStatus> cancel(@PathVariable String id) {
+        return withJob(id, job -> memberExporter.cancel(job)
+                ? ResponseEntity.accepted().body(job.toStatus())
+                : ResponseEntity.status(HttpStatus.CONFLICT).body(job.toStatus()));
+    }
+
+    @PostMapping("/members/exports/{id}/resume")
+    public ResponseEntity<MemberExportStatus> resume(@PathVariable String id) {
+        return withJob(id, job -> {
+            try {
+                return memberExporter.resume(job)
+                        ? ResponseEntity.accepted().body(job.toStatus())
+                        : ResponseEntity.status(HttpStatus.CONFLICT).body(job.toStatus());
+            } catch (RejectedExecutionException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(job.toStatus());
+            }
+        });
+    }
+
+    @DeleteMapping("/members/exports/{id}")
+    public ResponseEntity<Void> remove(@PathVariable String id) {
+        return withJob(id, job -> memberExporter.remove(job)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    private <T> ResponseEntity<T> withJob(String id, Function<MemberExportJob, ResponseEntity<T>> action) {
+        return memberExporter.find(id)
+                .map(action)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,34 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.repository.support.SlowQuery;
+import study.querydsl.repository.support.SlowQueryLog;
+
+import java.util.List;
+
+/**
+ * 느린 쿼리 기록 조회 / 비우기 (actuator 없이 SlowQueryLog 사용)
+ */
+@RestController
+@RequiredArgsConstructor
+public class SlowQueryController {
+
+    private final SlowQueryLog slowQueryLog;
+
+    // 최신순
+    @GetMapping("/slow-queries")
+    public List<SlowQuery> slowQueries(@RequestParam(defaultValue = "50") int limit) {
+        return slowQueryLog.recent(limit);
+    }
+
+    @DeleteMapping("/slow-queries")
+    public ResponseEntity<Void> clear() {
+        slowQueryLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
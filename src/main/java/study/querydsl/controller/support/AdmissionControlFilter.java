@@ -0,0 +1,171 @@
+package study.querydsl.controller.support;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 회원 검색 API(/v1 ~ /v4/members) 의 동시 처리 한도 (member.admission.*)
+ * 1. 엔드포인트마다 AimdLimit 로 동시 처리 수를 제한한다. DB 가 느려져 응답 시간이 그 엔드포인트의 평소 응답 시간보다
+ *    latency-tolerance 배 넘게 늘어나면 한도가 줄어든다.
+ * 2. 한도를 넘은 요청은 Tomcat 스레드 / 커넥션 풀에서 기다리게 하지 않고 바로 거절한다.
+ *    - 같은 요청의 최근 성공 응답이 있으면 그 응답을 Warning 헤더와 함께 200 으로 내려준다. (stale)
+ *    - 없으면 비싼 요청은 429, 일반 요청은 503 (Retry-After: 1)
+ * 3. 비싼 요청(조건 없는 /v1 전체 조회, offset 이 deep-offset 이상인 페이지) 은 한도의 expensive-share 까지만 쓸 수 있어
+ *    부하가 오르면 먼저 거절된다.
+ * stale 응답용 본문은 응답을 보내면서 max-body-bytes 까지만 복사한다. (CapturingResponseWrapper, 캐시하지 않을 응답은 모으지 않음)
+ */
+@Slf4j
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Pattern SEARCH_PATH = Pattern.compile("/v[1-4]/members");
+    private static final int DEFAULT_PAGE_SIZE = 20; // spring.data.web.pageable.default-page-size 기본값
+
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final int baselineWindow;
+    private final double backoffRatio;
+    private final double expensiveShare;
+    private final long deepOffset;
+    private final StaleResponseCache staleCache;
+
+    private final Map<String, AimdLimit> limits = new ConcurrentHashMap<>();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder staleServedCount = new LongAdder();
+
+    public AdmissionControlFilter(@Value("${member.admission.enabled:true}") boolean enabled,
+                                  @Value("${member.admission.initial-limit:20}") int initialLimit,
+                                  @Value("${member.admission.min-limit:2}") int minLimit,
+                                  @Value("${member.admission.max-limit:200}") int maxLimit,
+                                  @Value("${member.admission.latency-tolerance:2.0}") double latencyTolerance,
+                                  @Value("${member.admission.baseline-window:100}") int baselineWindow,
+                                  @Value("${member.admission.backoff-ratio:0.9}") double backoffRatio,
+                                  @Value("${member.admission.expensive-share:0.5}") double expensiveShare,
+                                  @Value("${member.admission.deep-offset:1000}") long deepOffset,
+                                  @Value("${member.admission.stale-cache.max-entries:100}") int staleMaxEntries,
+                                  @Value("${member.admission.stale-cache.max-body-bytes:25600}") int staleMaxBodyBytes,
+                                  @Value("${member.admission.stale-cache.ttl:5m}") Duration staleTtl) {
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.baselineWindow = baselineWindow;
+        this.backoffRatio = backoffRatio;
+        this.expensiveShare = expensiveShare;
+        this.deepOffset = deepOffset;
+        this.staleCache = new StaleResponseCache(staleMaxEntries, staleMaxBodyBytes, staleTtl);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || !SEARCH_PATH.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AimdLimit limit = limits.computeIfAbsent(request.getRequestURI(),
+                endpoint -> new AimdLimit(initialLimit, minLimit, maxLimit, latencyTolerance, baselineWindow, backoffRatio));
+        boolean expensive = isExpensive(request);
+        String cacheKey = cacheKey(request);
+
+        if (!limit.tryAcquire(expensive ? expensiveShare : 1.0)) {
+            reject(response, cacheKey, expensive, limit);
+            return;
+        }
+
+        CapturingResponseWrapper wrapper = staleCache.isEnabled()
+                ? new CapturingResponseWrapper(response, staleCache.getMaxBodyBytes())
+                : null;
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, wrapper != null ? wrapper : response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            limit.release(System.nanoTime() - start, failed);
+        }
+        if (wrapper != null) {
+            byte[] body = wrapper.getCaptured();
+            if (body != null) {
+                staleCache.put(cacheKey, wrapper.getContentType(), body);
+            }
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getStaleServedCount() {
+        return staleServedCount.sum();
+    }
+
+    // 엔드포인트별 현재 한도 (아직 요청이 없으면 initial-limit)
+    public int getLimit(String endpoint) {
+        AimdLimit limit = limits.get(endpoint);
+        return limit != null ? limit.getLimit() : initialLimit;
+    }
+
+    private void reject(HttpServletResponse response, String cacheKey, boolean expensive, AimdLimit limit) throws IOException {
+        StaleResponseCache.Entry stale = staleCache.get(cacheKey);
+        if (stale != null) {
+            staleServedCount.increment();
+            response.setStatus(HttpStatus.OK.value());
+            response.setHeader(HttpHeaders.WARNING, "110 - \"Response is Stale\"");
+            response.setContentType(stale.contentType());
+            response.setContentLength(stale.body().length);
+            response.getOutputStream().write(stale.body());
+            return;
+        }
+        rejectedCount.increment();
+        log.debug("요청 거절 key={}, expensive={}, limit={}, inFlight={}", cacheKey, expensive, limit.getLimit(), limit.getInFlight());
+        response.setStatus(expensive ? HttpStatus.TOO_MANY_REQUESTS.value() : HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    }
+
+    // 조건 없는 /v1 전체 조회(페이징 없음) 또는 깊은 offset 페이지
+    boolean isExpensive(HttpServletRequest request) {
+        if (request.getRequestURI().equals("/v1/members")
+                && !StringUtils.hasText(request.getParameter("username"))
+                && !StringUtils.hasText(request.getParameter("teamName"))) {
+            return true;
+        }
+        long page = parse(request.getParameter("page"), 0);
+        long size = parse(request.getParameter("size"), DEFAULT_PAGE_SIZE);
+        return page * size >= deepOffset;
+    }
+
+    private static long parse(String value, long defaultValue) {
+        try {
+            return StringUtils.hasText(value) ? Long.parseLong(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static String cacheKey(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return query != null ? request.getRequestURI() + "?" + query : request.getRequestURI();
+    }
+}
@@ -0,0 +1,89 @@
+package study.querydsl.controller.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD(Additive Increase / Multiplicative Decrease) 동시 처리 한도
+ * 느림의 기준은 고정 시간이 아니라 엔드포인트별 기준 응답 시간(baseline) 이다.
+ * - baseline : 성공한 응답 시간의 장기 지수 이동 평균 (대략 최근 baselineWindow 개 응답)
+ *   느려진 상태가 오래 이어지면 baseline 도 천천히 따라 올라간다. (데이터 증가 등 정상적인 변화에 적응)
+ * - 응답 시간이 baseline x latencyTolerance 안이고 한도의 절반 이상을 쓰고 있으면 한도를 1/limit 씩 늘린다. (한도만큼 처리하면 +1)
+ * - 그보다 느리면 한도에 gradient(= baseline x latencyTolerance / 응답 시간) 를 곱해 줄인다. (최소 backoffRatio 배)
+ * - 실패하면 한도를 backoffRatio 배로 줄인다.
+ * 한도를 넘는 요청은 대기시키지 않고 바로 거절한다.
+ */
+class AimdLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double baselineAlpha;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double baselineNanos; // 0 이면 아직 성공한 응답이 없음 (this 로 보호)
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, double latencyTolerance, int baselineWindow, double backoffRatio) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.baselineAlpha = 1.0 / Math.max(1, baselineWindow);
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * @param share 한도 중 이 요청이 쓸 수 있는 비율 (비싼 요청은 1 보다 작게 주어 먼저 거절되게 한다)
+     */
+    boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long latencyNanos, boolean failed) {
+        int used = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (failed) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                return;
+            }
+            double tolerated = baselineNanos * latencyTolerance;
+            if (baselineNanos > 0 && latencyNanos > tolerated) {
+                double gradient = Math.max(backoffRatio, tolerated / latencyNanos);
+                limit = Math.max(minLimit, limit * gradient);
+            } else if (used * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            updateBaseline(latencyNanos);
+        }
+    }
+
+    private void updateBaseline(long latencyNanos) {
+        if (baselineNanos == 0) {
+            baselineNanos = Math.max(1, latencyNanos);
+        } else {
+            baselineNanos = Math.max(1, baselineNanos + (latencyNanos - baselineNanos) * baselineAlpha);
+        }
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    synchronized long getBaselineNanos() {
+        return (long) baselineNanos;
+    }
+}
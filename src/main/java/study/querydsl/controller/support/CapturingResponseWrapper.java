@@ -0,0 +1,111 @@
+package study.querydsl.controller.support;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * 본문을 바로 응답으로 내보내면서 maxBytes 까지만 복사해 두는 응답 래퍼 (StaleResponseCache 저장용)
+ * ContentCachingResponseWrapper 처럼 본문 전체를 모았다가 보내지 않는다.
+ * 200 이 아니거나 maxBytes 를 넘는 응답(캐시하지 않을 응답) 은 복사를 멈추고 버린다.
+ */
+class CapturingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final int maxBytes;
+    private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    CapturingResponseWrapper(HttpServletResponse response, int maxBytes) {
+        super(response);
+        this.maxBytes = maxBytes;
+    }
+
+    // 캐시할 수 있는 본문 (200 이 아니거나 너무 크면 null)
+    byte[] getCaptured() {
+        if (writer != null) {
+            writer.flush();
+        }
+        return copy != null && getStatus() == HttpStatus.OK.value() ? copy.toByteArray() : null;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        return stream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        super.flushBuffer();
+    }
+
+    private ServletOutputStream stream() throws IOException {
+        if (outputStream == null) {
+            ServletOutputStream target = super.getOutputStream();
+            outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    target.write(b);
+                    if (capturing(1)) {
+                        copy.write(b);
+                    }
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    target.write(b, off, len);
+                    if (capturing(len)) {
+                        copy.write(b, off, len);
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    target.flush();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return target.isReady();
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    target.setWriteListener(listener);
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    private boolean capturing(int len) {
+        if (copy != null && (getStatus() != HttpStatus.OK.value() || copy.size() + len > maxBytes)) {
+            copy = null; // 캐시하지 않을 응답
+        }
+        return copy != null;
+    }
+}
@@ -0,0 +1,120 @@
+package study.querydsl.controller.support;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.ServletException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+import org.apache.coyote.ActionCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.support.QueryDeadline;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 쿼리 실행 중 클라이언트 연결이 끊기면 쿼리를 중단한다. (member.query-deadline.disconnect-probe-interval)
+ * 블로킹 서블릿은 응답을 쓰기 전까지 연결 끊김을 알 수 없으므로, Tomcat 밸브로 처리 중인 요청을 모아 두고
+ * probe-interval 마다 쿼리 실행 중(JDBC 응답 대기) 인 요청의 소켓을 논블로킹으로 한 번 읽어 본다.
+ * - 요청 본문을 다 읽은 뒤 EOF / 읽기 오류가 나면 클라이언트가 떠난 것으로 보고 QueryDeadline.cancel()
+ * - 읽는 동안은 QueryDeadline.whileExecuting 으로 요청 스레드와 요청 객체를 함께 쓰지 않는다.
+ * 주의 : HTTP/1.1 파이프라이닝으로 다음 요청이 이미 도착해 있어도 읽을 데이터가 있으므로 끊김으로 판단한다.
+ *       (브라우저 / 일반 HTTP 클라이언트는 파이프라이닝을 쓰지 않음, 쓰는 환경이면 0 으로 끌 것)
+ * 비동기 요청은 컨테이너 스레드가 반환된 뒤로는 감시하지 않는다.
+ */
+@Slf4j
+@Component
+public class ClientDisconnectWatcher implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+
+    private final boolean enabled;
+    private final Duration probeInterval;
+    private final Set<Request> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+
+    public ClientDisconnectWatcher(@Value("${member.query-deadline.enabled:true}") boolean enabled,
+                                   @Value("${member.query-deadline.disconnect-probe-interval:500ms}") Duration probeInterval) {
+        this.enabled = enabled;
+        this.probeInterval = probeInterval;
+    }
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        if (!enabled || probeInterval.isZero() || probeInterval.isNegative()) {
+            return;
+        }
+        factory.addContextValves(new InFlightValve());
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "client-disconnect-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                probe();
+            } catch (RuntimeException e) {
+                log.error("클라이언트 연결 확인 실패", e);
+            }
+        }, probeInterval.toMillis(), probeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void probe() {
+        for (Request request : inFlight) {
+            if (!(request.getAttribute(RequestDeadlineFilter.DEADLINE_ATTRIBUTE) instanceof QueryDeadline deadline)) {
+                continue;
+            }
+            AtomicBoolean disconnected = new AtomicBoolean();
+            deadline.whileExecuting(() -> disconnected.set(isDisconnected(request.getCoyoteRequest())));
+            if (disconnected.get()) {
+                log.info("클라이언트 연결이 끊겨 쿼리 중단 : {}", request.getRequestURI());
+                deadline.cancel();
+            }
+        }
+    }
+
+    private static boolean isDisconnected(org.apache.coyote.Request request) {
+        AtomicBoolean bodyFullyRead = new AtomicBoolean();
+        request.action(ActionCode.REQUEST_BODY_FULLY_READ, bodyFullyRead);
+        if (!bodyFullyRead.get()) {
+            return false; // 본문을 아직 읽는 중이면 남은 데이터와 구분할 수 없음
+        }
+        // 논블로킹 읽기 : 읽을 데이터가 생기거나 EOF / 오류면 0 보다 크다.
+        request.action(ActionCode.AVAILABLE, Boolean.TRUE);
+        return request.getAvailable() > 0;
+    }
+
+    // 처리 중인 요청 등록 (컨테이너 스레드가 반환되면 제거)
+    private class InFlightValve extends ValveBase {
+
+        InFlightValve() {
+            super(true);
+        }
+
+        @Override
+        public void invoke(Request request, Response response) throws IOException, ServletException {
+            inFlight.add(request);
+            try {
+                getNext().invoke(request, response);
+            } finally {
+                inFlight.remove(request);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.controller.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.UsernameMatchType;
+import study.querydsl.repository.support.MemberDataVersion;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 회원 검색 API 의 조건부 GET (member.etag.enabled, 기본 켜짐)
+ * ETag = hash(엔드포인트 + 정규화한 검색 조건 / 페이지 + 데이터 버전(MemberDataVersion, DB 카운터))
+ * If-None-Match 가 같으면 검색 쿼리를 실행하지 않고 304 로 응답한다. (버전 조회 쿼리 1번)
+ * 버전을 쿼리 전에 읽으므로, 그 사이 쓰기가 커밋되면 다음 요청에서 새 ETag 로 다시 받는다.
+ */
+@Component
+public class MemberEtag {
+
+    private final MemberDataVersion dataVersion;
+    private final boolean enabled;
+
+    public MemberEtag(MemberDataVersion dataVersion, @Value("${member.etag.enabled:true}") boolean enabled) {
+        this.dataVersion = dataVersion;
+        this.enabled = enabled;
+    }
+
+    /**
+     * ETag 헤더를 설정하고, 요청의 If-None-Match 와 같으면 304 로 바꾼 뒤 true
+     * pageable 이 없는 엔드포인트는 null
+     */
+    public boolean notModified(WebRequest request, String endpoint, MemberSearchCondition condition, Pageable pageable) {
+        return enabled && request.checkNotModified(of(endpoint, condition, pageable, dataVersion.version(condition)));
+    }
+
+    static String of(String endpoint, MemberSearchCondition condition, Pageable pageable, String version) {
+        StringBuilder key = new StringBuilder(endpoint)
+                .append('|').append(condition.getUsername())
+                .append('|').append(condition.getUsername() == null ? null
+                        : condition.getUsernameMatch() != null ? condition.getUsernameMatch() : UsernameMatchType.EXACT)
+                .append('|').append(condition.getTeamName())
+                .append('|').append(condition.getAgeGoe())
+                .append('|').append(condition.getAgeLoe());
+        if (pageable != null) {
+            key.append('|').append(pageable.isPaged() ? pageable.getPageNumber() + "," + pageable.getPageSize() : "unpaged")
+                    .append('|').append(pageable.getSort());
+        }
+        key.append('|').append(version);
+        return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,20 @@
+package study.querydsl.controller.support;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 쿼리 마감 초과는 서버 오류(500) 가 아니라 504 로 응답한다.
+ * AdmissionControlFilter 는 5xx 를 실패로 보고 동시 처리 한도를 줄인다.
+ */
+@RestControllerAdvice
+public class QueryTimeoutAdvice {
+
+    @ExceptionHandler({QueryTimeoutException.class, jakarta.persistence.QueryTimeoutException.class})
+    public ResponseEntity<Void> queryTimeout() {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+    }
+}
@@ -0,0 +1,66 @@
+package study.querydsl.controller.support;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import study.querydsl.repository.support.QueryDeadline;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 요청마다 쿼리 마감 시각을 건다. (member.query-deadline.*)
+ * 마감 = min(default-timeout, 클라이언트가 보낸 X-Request-Timeout(ms))
+ * 클라이언트(게이트웨이) 가 자기 타임아웃을 헤더로 넘기면, 클라이언트가 이미 포기했을 시점에 쿼리도 함께 중단된다.
+ * 마감은 DEADLINE_ATTRIBUTE 요청 속성으로도 넘겨서, 쿼리 실행 중 클라이언트 연결이 끊기면
+ * ClientDisconnectWatcher 가 QueryDeadline.cancel() 로 쿼리를 중단한다.
+ */
+@Component
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+    public static final String DEADLINE_ATTRIBUTE = RequestDeadlineFilter.class.getName() + ".deadline";
+
+    private final boolean enabled;
+    private final Duration defaultTimeout;
+
+    public RequestDeadlineFilter(@Value("${member.query-deadline.enabled:true}") boolean enabled,
+                                 @Value("${member.query-deadline.default-timeout:5s}") Duration defaultTimeout) {
+        this.enabled = enabled;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        request.setAttribute(DEADLINE_ATTRIBUTE, QueryDeadline.start(timeout(request.getHeader(TIMEOUT_HEADER))));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryDeadline.clear();
+            request.removeAttribute(DEADLINE_ATTRIBUTE);
+        }
+    }
+
+    Duration timeout(String header) {
+        if (!StringUtils.hasText(header)) {
+            return defaultTimeout;
+        }
+        try {
+            Duration requested = Duration.ofMillis(Math.max(0, Long.parseLong(header.trim())));
+            return requested.compareTo(defaultTimeout) < 0 ? requested : defaultTimeout;
+        } catch (NumberFormatException e) {
+            return defaultTimeout;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package study.querydsl.controller.support;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import study.querydsl.repository.support.UnsupportedUsernameSearchException;
+
+/**
+ * 인덱스로 답할 수 없는 검색 조건은 서버 오류(500) 가 아니라 400 으로 응답한다. (검색어를 바꿔서 다시 요청할 것)
+ */
+@RestControllerAdvice
+public class SearchConditionAdvice {
+
+    @ExceptionHandler(UnsupportedUsernameSearchException.class)
+    public ResponseEntity<String> unsupportedUsernameSearch(UnsupportedUsernameSearchException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+}
@@ -0,0 +1,61 @@
+package study.querydsl.controller.support;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 최근 성공 응답(본문 바이트) LRU 캐시
+ * 정상 처리 중에는 사용하지 않고, 부하로 요청을 거절할 때 대신 내려줄 (오래됐을 수 있는) 응답으로만 사용한다.
+ */
+class StaleResponseCache {
+
+    record Entry(String contentType, byte[] body, long createdNanos) {
+    }
+
+    private final int maxEntries;
+    private final int maxBodyBytes;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+
+    StaleResponseCache(int maxEntries, int maxBodyBytes, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.maxBodyBytes = maxBodyBytes;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > StaleResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    boolean isEnabled() {
+        return maxEntries > 0 && maxBodyBytes > 0;
+    }
+
+    int getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    void put(String key, String contentType, byte[] body) {
+        if (maxEntries <= 0 || body.length > maxBodyBytes) {
+            return;
+        }
+        Entry entry = new Entry(contentType, body, System.nanoTime());
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    Entry get(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.createdNanos() > ttlNanos) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+}
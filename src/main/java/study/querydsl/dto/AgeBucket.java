@@ -0,0 +1,30 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+// 나이 구간 (QuerydslBasicTest.complexCase 와 같은 구간)
+@Getter
+public enum AgeBucket {
+    AGE_0_20("0~20살", 0, 20),
+    AGE_21_30("21살~30살", 21, 30),
+    ETC("기타", Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+    private final String label;
+    private final int from;
+    private final int to;
+
+    AgeBucket(String label, int from, int to) {
+        this.label = label;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static AgeBucket of(int age) {
+        for (AgeBucket bucket : values()) {
+            if (age >= bucket.from && age <= bucket.to) {
+                return bucket;
+            }
+        }
+        return ETC;
+    }
+}
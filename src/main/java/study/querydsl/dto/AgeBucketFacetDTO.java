@@ -0,0 +1,17 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class AgeBucketFacetDTO {
+
+    private AgeBucket bucket;
+    private String label;
+    private long count;
+
+    public AgeBucketFacetDTO(AgeBucket bucket, long count) {
+        this.bucket = bucket;
+        this.label = bucket.getLabel();
+        this.count = count;
+    }
+}
@@ -0,0 +1,21 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+// 검색 결과 페이지 + 같은 조건의 팀별 / 나이 구간별 회원 수
+@Data
+public class MemberFacetSearchDTO {
+
+    private Page<MemberTeamDTO> page;
+    private List<TeamFacetDTO> teams;
+    private List<AgeBucketFacetDTO> ageBuckets;
+
+    public MemberFacetSearchDTO(Page<MemberTeamDTO> page, List<TeamFacetDTO> teams, List<AgeBucketFacetDTO> ageBuckets) {
+        this.page = page;
+        this.teams = teams;
+        this.ageBuckets = ageBuckets;
+    }
+}
@@ -4,9 +4,10 @@ import lombok.Data;
 
 @Data
 public class MemberSearchCondition {
-    // 회원명, 팀명, 나이(ageGoe(<= value), ageLoe(>= value))
+    // 회원명, 팀명, 나이(ageGoe(>= value), ageLoe(<= value))
 
     private String username;
+    private UsernameMatchType usernameMatch; // null 이면 EXACT
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
@@ -0,0 +1,19 @@
+package study.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 인사 시스템 동기화 레코드 (MemberRepository.upsertAll, username 기준)
+ * teamName 이 null 이면 팀 없음
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberSyncDTO {
+
+    private String username;
+    private int age;
+    private String teamName;
+}
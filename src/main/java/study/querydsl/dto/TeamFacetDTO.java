@@ -0,0 +1,17 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class TeamFacetDTO {
+
+    private Long teamId; // 팀이 없는 회원은 null
+    private String teamName;
+    private long count;
+
+    public TeamFacetDTO(Long teamId, String teamName, long count) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.count = count;
+    }
+}
@@ -0,0 +1,9 @@
+package study.querydsl.dto;
+
+// 회원명 검색 방식 (모두 인덱스를 타도록 구현)
+public enum UsernameMatchType {
+    EXACT,       // username = ? (대소문자 구분은 컬럼 collation 을 따름)
+    IGNORE_CASE, // username_normalized = lower(?)
+    PREFIX,      // username_normalized like 'abc%'
+    CONTAINS     // n-gram 인덱스로 찾은 id 로 pk 조회, 3글자 미만 / 결과가 max-candidates 를 넘으면 거절 (UnsupportedUsernameSearchException)
+}
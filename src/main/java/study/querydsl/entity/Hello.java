@@ -4,14 +4,13 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-
-import static jakarta.persistence.GenerationType.*;
+import study.querydsl.entity.support.StripedSequence;
 
 @Entity
 @Getter @Setter
 @NoArgsConstructor
 public class Hello {
 
-    @Id @GeneratedValue(strategy = IDENTITY)
+    @Id @StripedSequence(name = "hello_seq")
     private Long id;
 }
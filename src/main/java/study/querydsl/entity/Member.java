@@ -2,22 +2,48 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.engine.spi.ManagedEntity;
+import study.querydsl.entity.support.StripedSequence;
+import study.querydsl.repository.support.MemberSearchIndexListener;
+import study.querydsl.repository.support.MemberSearchViewListener;
 
 @Entity
-@Table(name = "member")
+@Table(name = "member", indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_username_normalized", columnList = "username_normalized")
+})
+@EntityListeners({MemberSearchIndexListener.class, MemberSearchViewListener.class})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
 
     @Id
-    @GeneratedValue
+    @StripedSequence(name = "member_seq")
     @Column(name = "member_id")
     private Long id;
 
     private String username;
+
+    // 대소문자 무시 / prefix 검색용 정규화 컬럼 (DB 가 lower(username) 으로 계산, 벌크 update 에도 항상 일치)
+    // 조회 조건으로만 사용하므로 엔티티에서는 읽기/쓰기 하지 않는다. (지연 로딩 : 회원 조회 select 에서 제외)
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "username_normalized", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(username))")
+    private String usernameNormalized;
+
     private int age;
 
+    // 낙관적 락 : 동시 changeTeam / 나이 변경의 lost update 방지 (충돌 시 OptimisticRetry 로 재시도)
+    // JDBC 로 넣는 행(upsert 등) 도 0 부터 시작하도록 DB 기본값 0
+    @Version
+    @Setter(AccessLevel.NONE)
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
@@ -38,8 +64,21 @@ public class Member {
         }
     }
 
+    // 바이트코드 향상(build.gradle 의 hibernate.enhancement) 을 거친 클래스인지 (IDE 등에서 향상 없이 컴파일하면 false)
+    private static final boolean ENHANCED = ManagedEntity.class.isAssignableFrom(Member.class);
+
+    // 향상된 클래스 : 이전 팀의 members 에서 제거 / 새 팀의 members 에 추가는 association management 가 처리한다.
+    //               (팀의 members 가 아직 로딩되지 않았으면 건드리지 않으므로 컬렉션 전체를 읽지 않는다.)
+    // 향상되지 않은 클래스 : 양방향 연관관계를 직접 맞춘다.
     public void changeTeam(Team team) {
+        if (!ENHANCED) {
+            if (this.team != null) {
+                this.team.getMembers().remove(this);
+            }
+            if (team != null) {
+                team.getMembers().add(this);
+            }
+        }
         this.team = team;
-        team.getMembers().add(this);
     }
 }
@@ -0,0 +1,46 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.Serializable;
+
+/**
+ * 회원 검색 데이터 버전 카운터 (MemberDataVersion, 조건부 GET 의 ETag)
+ * scope : "*" 전체, "?" 팀을 모르는 쓰기, "team:" + 팀 이름
+ * 같은 scope 를 stripe 개의 행으로 나눠서 쓰기 트랜잭션들이 한 행의 잠금을 기다리지 않게 한다. (버전 = stripe 합계)
+ * 읽기 / 쓰기는 JDBC 로 한다. (엔티티는 스키마 정의용)
+ */
+@Entity
+@Table(name = "member_data_version")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberDataVersionCounter {
+
+    @EmbeddedId
+    private Key key;
+
+    private long version;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    @EqualsAndHashCode
+    @ToString
+    public static class Key implements Serializable {
+
+        @Column(length = 300)
+        private String scope;
+
+        private int stripe;
+    }
+}
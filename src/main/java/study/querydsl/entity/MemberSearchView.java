@@ -0,0 +1,48 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * 회원 검색용 비정규화 테이블 (member + team 조인 결과 = MemberTeamDTO 컬럼)
+ * MemberSearchViewWriter 가 Member / Team 변경과 같은 트랜잭션에서 JDBC 로 갱신하고, 엔티티로는 조회만 한다.
+ */
+@Entity
+@Immutable
+@Table(name = "member_search_view", indexes = {
+        @Index(name = "idx_member_search_view_username", columnList = "username"),
+        @Index(name = "idx_member_search_view_username_normalized", columnList = "username_normalized"),
+        @Index(name = "idx_member_search_view_team_name_age", columnList = "team_name, age"),
+        @Index(name = "idx_member_search_view_age", columnList = "age"),
+        @Index(name = "idx_member_search_view_team_id", columnList = "team_id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"memberId", "username", "age", "teamId", "teamName"})
+public class MemberSearchView {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    private String username;
+
+    // Member.usernameNormalized 와 같은 정규화 컬럼 (조회 조건 전용)
+    @Getter(AccessLevel.NONE)
+    @Column(name = "username_normalized", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(username))")
+    @Basic(fetch = FetchType.LAZY)
+    private String usernameNormalized;
+
+    private int age;
+
+    @Column(name = "team_id")
+    private Long teamId;
+
+    @Column(name = "team_name")
+    private String teamName;
+}
@@ -0,0 +1,31 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// write-behind 저널에서 stripe 별로 DB 에 반영 완료된 마지막 순번 (반영 트랜잭션과 함께 커밋)
+@Entity
+@Table(name = "member_write_checkpoint")
+@Getter @Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberWriteCheckpoint {
+
+    @Id
+    private Integer stripe;
+
+    @Column(name = "last_sequence")
+    private long lastSequence;
+
+    public MemberWriteCheckpoint(Integer stripe, long lastSequence) {
+        this.stripe = stripe;
+        this.lastSequence = lastSequence;
+    }
+}
@@ -1,28 +1,42 @@
 package study.querydsl.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
+import study.querydsl.entity.support.StripedSequence;
+import study.querydsl.repository.support.MemberSearchViewListener;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "team")
+@EntityListeners(MemberSearchViewListener.class) // 팀 이름 변경 -> member_search_view.team_name
 @NoArgsConstructor
 @ToString(of = {"id", "name"})
 @Getter @Setter
 public class Team {
 
     @Id
-    @GeneratedValue
+    @StripedSequence(name = "team_seq")
     @Column(name = "team_id")
     private Long id;
 
     private String name;
 
+    @Version
+    @Setter(AccessLevel.NONE)
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    // 회원의 팀 이동(members 변경) 으로는 팀 version 을 올리지 않는다. (같은 팀으로 옮기는 changeTeam 끼리 충돌 방지)
+    @OptimisticLock(excluded = true)
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
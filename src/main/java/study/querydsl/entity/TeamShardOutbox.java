@@ -0,0 +1,40 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 회원 샤드로 보낼 팀 변경 (TeamShardRelay 의 outbox)
+ * 팀 변경과 같은 트랜잭션에서 기본 DB 에 쌓이고, 모든 샤드에 반영된 뒤에 지운다.
+ * version 은 변경 후 팀의 version (삭제는 version + 1), 샤드는 더 높은 version 만 받는다.
+ * 읽기 / 쓰기는 JDBC 로 한다. (엔티티는 스키마 정의용)
+ */
+@Entity
+@Table(name = "team_shard_outbox")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamShardOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private Long id;
+
+    @Column(name = "team_id", nullable = false)
+    private Long teamId;
+
+    private String name;
+
+    private long version;
+
+    private boolean deleted;
+}
@@ -0,0 +1,31 @@
+package study.querydsl.entity.support;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * 스레드 stripe 별로 id 블록을 할당하는 시퀀스 (@GeneratedValue 대신 사용)
+ * - 시퀀스(MySQL 은 시퀀스 테이블) 는 blockSize 마다 한번만 증가 -> 동시 insert 시 hot row 경합 제거
+ * - IDENTITY 와 달리 insert 전에 id 가 정해지므로 JDBC 배치 insert 가 가능
+ * 시퀀스 값은 pooled-lo 방식 (시퀀스 값 = 블록의 시작 id) 으로 해석한다.
+ */
+@IdGeneratorType(StripedSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface StripedSequence {
+
+    // 시퀀스 이름 (MySQL 에서는 같은 이름의 테이블)
+    String name();
+
+    // 시퀀스를 한번 증가시킬 때 가져오는 id 개수
+    int blockSize() default 1000;
+
+    // 동시에 id 를 꺼내가는 스레드를 나누는 단위 (stripe 마다 별도의 블록과 락을 가짐)
+    int stripes() default 16;
+}
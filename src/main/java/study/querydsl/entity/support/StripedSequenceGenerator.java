@@ -0,0 +1,67 @@
+package study.querydsl.entity.support;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @StripedSequence 구현
+ * 시퀀스 구조(생성, DDL, MySQL 테이블 대체) 는 SequenceStyleGenerator 를 그대로 사용하고,
+ * id 를 꺼내는 부분만 stripe 별 블록으로 바꾼다.
+ * 하나의 스레드는 항상 같은 stripe 를 사용하므로 스레드 안에서는 id 가 증가 순서로 발급된다.
+ */
+public class StripedSequenceGenerator extends SequenceStyleGenerator {
+
+    private final StripedSequence config;
+    private final Stripe[] stripes;
+
+    public StripedSequenceGenerator(StripedSequence config, Member member, CustomIdGeneratorCreationContext context) {
+        if (config.blockSize() < 1 || config.stripes() < 1) {
+            throw new MappingException("@StripedSequence blockSize, stripes 는 1 이상이어야 합니다. member=" + member);
+        }
+        this.config = config;
+        this.stripes = new Stripe[config.stripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        parameters.setProperty(SEQUENCE_PARAM, config.name());
+        parameters.setProperty(OptimizableGenerator.INCREMENT_PARAM, String.valueOf(config.blockSize()));
+        parameters.setProperty(OptimizableGenerator.OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Stripe stripe = stripes[(int) (Thread.currentThread().threadId() % stripes.length)];
+        stripe.lock.lock();
+        try {
+            if (stripe.next >= stripe.limit) {
+                long low = getDatabaseStructure().buildCallback(session).getNextValue().makeValue().longValue();
+                stripe.next = low;
+                stripe.limit = low + config.blockSize();
+            }
+            return stripe.next++;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next;
+        private long limit;
+    }
+}
@@ -0,0 +1,68 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Projections;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.UserDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.repository.support.DerivedAggregateJoin;
+
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 집계 서브쿼리(max, avg) 를 행마다 다시 계산하지 않도록 재작성한 조회 쿼리 모음
+ * 1) 파생 테이블 조인 : 집계를 from 절 서브쿼리로 한 번만 계산하고 조인 (DerivedAggregateJoin, Hibernate 6 HQL 지원)
+ * 2) 윈도우 함수 : 그룹별 집계가 필요한 경우 native SQL 의 over (partition by ...) 사용
+ * QuerydslBasicTest 의 subQuery, subQuery2, findUserDtoSubquery 와 같은 결과를 반환한다.
+ */
+@Repository
+public class MemberAggregateRepository {
+
+    private static final QMember memberSub = new QMember("memberSub");
+
+    private final EntityManager em;
+
+    public MemberAggregateRepository(EntityManager em) {
+        this.em = em;
+    }
+
+    // 나이가 가장 많은 회원 (subQuery 대체)
+    public List<Member> findOldestMembers() {
+        return DerivedAggregateJoin.of(member, memberSub.age.max(), memberSub)
+                .on(member.age.eq(DerivedAggregateJoin.value(Integer.class)))
+                .fetch(em, member);
+    }
+
+    // 나이가 평균 이상인 회원 (subQuery2 대체)
+    public List<Member> findMembersAgeGoeAvg() {
+        return DerivedAggregateJoin.of(member, memberSub.age.avg(), memberSub)
+                .on(member.age.goe(DerivedAggregateJoin.value(Double.class)))
+                .fetch(em, member);
+    }
+
+    // 회원명 + 전체 회원 중 최고 나이 (findUserDtoSubquery 대체)
+    public List<UserDTO> findUserDtoWithMaxAge() {
+        return DerivedAggregateJoin.of(member, memberSub.age.max(), memberSub)
+                .fetch(em, Projections.constructor(UserDTO.class, member.username, DerivedAggregateJoin.value(Integer.class)));
+    }
+
+    // 회원명 + 소속 팀의 최고 나이 : 상관 서브쿼리 대신 윈도우 함수로 한 번의 스캔에서 계산
+    // 팀 없는 회원끼리는 같은 팀이 아니므로 자기 나이 (partition by team_id 는 null 을 한 그룹으로 묶음)
+    public List<UserDTO> findUserDtoWithTeamMaxAge() {
+        List<Object[]> rows = em.unwrap(Session.class)
+                .createNativeQuery("select m.username," +
+                        " case when m.team_id is null then m.age" +
+                        " else max(m.age) over (partition by m.team_id) end as max_age" +
+                        " from member m" +
+                        " order by m.member_id", Object[].class)
+                .getResultList();
+
+        return rows.stream()
+                .map(row -> new UserDTO((String) row[0], ((Number) row[1]).intValue()))
+                .toList();
+    }
+}
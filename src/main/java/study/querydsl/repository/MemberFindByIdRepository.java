@@ -0,0 +1,11 @@
+package study.querydsl.repository;
+
+import study.querydsl.entity.Member;
+
+import java.util.Optional;
+
+// 동시에 들어온 단건 조회를 MemberBatchLoader 로 모아서 조회하는 fragment (findById 는 그대로 JpaRepository 의 것)
+public interface MemberFindByIdRepository {
+
+    Optional<Member> findByIdBatched(Long id);
+}
@@ -0,0 +1,21 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.MemberBatchLoader;
+
+import java.util.Optional;
+
+// 영속성 컨텍스트가 열려 있으면(트랜잭션 / OSIV) em.find 로 조회 (같은 엔티티 인스턴스, 커밋 전 변경 포함)
+@RequiredArgsConstructor
+public class MemberFindByIdRepositoryImpl implements MemberFindByIdRepository {
+
+    private final EntityManager em;
+    private final MemberBatchLoader batchLoader;
+
+    @Override
+    public Optional<Member> findByIdBatched(Long id) {
+        return batchLoader.findById(id, () -> Optional.ofNullable(em.find(Member.class, id)));
+    }
+}
@@ -1,5 +1,6 @@
 package study.querydsl.repository;
 
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
@@ -10,25 +11,47 @@ import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.dto.UsernameMatchType;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QTeam;
-
+import study.querydsl.repository.support.LargeResultFetch;
+import study.querydsl.repository.support.MemberBatchLoader;
+import study.querydsl.repository.support.MemberMultiGet;
+import study.querydsl.repository.support.MultiGetResult;
+import study.querydsl.repository.support.PersistenceContextGuard;
+import study.querydsl.repository.support.UsernameSearch;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.MemberPredicates.ageGoe;
+import static study.querydsl.repository.support.MemberPredicates.ageLoe;
+import static study.querydsl.repository.support.MemberPredicates.teamNameEq;
 
 @Repository
 public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
-
-    public MemberJpaRepository(EntityManager em, JPAQueryFactory queryFactory) {
+    private final UsernameSearch usernameSearch;
+    private final LargeResultFetch largeResultFetch;
+    private final PersistenceContextGuard persistenceContextGuard;
+    private final MemberBatchLoader batchLoader;
+
+    public MemberJpaRepository(EntityManager em, JPAQueryFactory queryFactory, UsernameSearch usernameSearch,
+                               LargeResultFetch largeResultFetch, PersistenceContextGuard persistenceContextGuard,
+                               MemberBatchLoader batchLoader) {
         this.em = em;
         this.queryFactory = queryFactory;
+        this.usernameSearch = usernameSearch;
+        this.largeResultFetch = largeResultFetch;
+        this.persistenceContextGuard = persistenceContextGuard;
+        this.batchLoader = batchLoader;
     }
 
     public void save(Member member) {
@@ -42,14 +65,23 @@ public class MemberJpaRepository {
 
     // findById -> queryDsl
     public Optional<Member> findByIdQD(Long id) {
-       Member result = queryFactory
+        Member result = queryFactory
                 .select(member)
                 .from(member)
                 .where(member.id.eq(id))
                 .fetchOne();
-       return Optional.ofNullable(result);
+        return Optional.ofNullable(result);
+    }
+
+    // 동시에 들어온 단건 조회를 모아 in 쿼리 한번으로 조회 (MemberBatchLoader, 영속성 컨텍스트가 열려 있으면 em.find)
+    public Optional<Member> findByIdBatched(Long id) {
+        return batchLoader.findById(id, () -> Optional.ofNullable(em.find(Member.class, id)));
     }
 
+    // 여러 id 를 in 쿼리로 한번에 조회 (요청 순서 유지, 없는 id 는 missingIds 로 반환)
+    public MultiGetResult<Member> findAllByIds(Collection<Long> ids) {
+        return MemberMultiGet.findAllByIds(queryFactory, ids);
+    }
 
     public List<Member> findAll() {
         return em.createQuery("select m from Member m", Member.class).getResultList();
@@ -62,6 +94,20 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    /**
+     * findAllQD 의 대용량 버전 : 결과 전체를 List 로 만들지 않고 fetch size 단위로 읽는다. (member.large-result.*)
+     * 트랜잭션 안에서 호출하고 try-with-resources 로 닫을 것
+     * 영속성 컨텍스트가 member.persistence-context.chunk-size 만큼 차면 flush + clear 하므로
+     * 이전 청크에서 읽은 Member 는 준영속 상태가 된다. (PersistenceContextGuard)
+     */
+    public Stream<Member> streamAll() {
+        return persistenceContextGuard.chunked(largeResultFetch.stream(queryFactory.selectFrom(member)));
+    }
+
+    public CloseableIterator<Member> iterateAll() {
+        return LargeResultFetch.iterator(streamAll());
+    }
+
     public List<Member> findByUsername(String username) {
         return em.createQuery("select m from Member m where m.username = :username", Member.class)
                 .setParameter("username", username)
@@ -81,7 +127,7 @@ public class MemberJpaRepository {
         BooleanBuilder builder = new BooleanBuilder();
 
         if (hasText(condition.getUsername())) {
-            builder.and(member.username.eq(condition.getUsername()));
+            builder.and(usernameEq(condition.getUsername(), condition.getUsernameMatch()));
         }
         if (hasText(condition.getTeamName())) {
             builder.and(team.name.eq(condition.getTeamName()));
@@ -119,30 +165,37 @@ public class MemberJpaRepository {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
                 .fetch();
     }
 
-    private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
-        return ageGoe(ageLoe).and(ageGoe(ageGoe));
-    }
-
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.eq(ageLoe) : null;
+    // search 의 대용량 버전 (streamAll 과 같은 주의사항)
+    public Stream<MemberTeamDTO> searchStream(MemberSearchCondition condition) {
+        return largeResultFetch.stream(queryFactory
+                        .select(new QMemberTeamDTO(
+                                member.id.as("memberId"),
+                                member.username,
+                                member.age,
+                                team.id.as("teamId"),
+                                team.name.as("teamName")))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(
+                                usernameEq(condition.getUsername(), condition.getUsernameMatch()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())));
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
+        return ageGoe(ageLoe).and(ageGoe(ageGoe));
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return teamName != null ? team.name.eq(teamName) : null;
-    }
 
-    private BooleanExpression usernameEq(String username) {
-        return username != null ? member.username.eq(username) : null;
+    private BooleanExpression usernameEq(String username, UsernameMatchType matchType) {
+        return usernameSearch.matches(username, matchType);
     }
 }
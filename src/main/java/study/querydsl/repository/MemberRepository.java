@@ -6,7 +6,8 @@ import study.querydsl.entity.Member;
 
 import java.util.List;
 
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, QuerydslPredicateExecutor<Member> {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, MemberUpsertRepository,
+        MemberFindByIdRepository, QuerydslPredicateExecutor<Member> {
 
     List<Member> findByUsername(String username);
 }
@@ -2,14 +2,22 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberFacetSearchDTO;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.MultiGetResult;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
 
     List<MemberTeamDTO> search(MemberSearchCondition condition);
+    Stream<MemberTeamDTO> searchStream(MemberSearchCondition condition); // search 의 대용량 버전 (트랜잭션 안에서 사용하고 try-with-resources 로 닫을 것)
     Page<MemberTeamDTO> searchPageSimple(MemberSearchCondition condition, Pageable pageable); // 단순한 페이징 쿼리 구현
     Page<MemberTeamDTO> searchPageComplex(MemberSearchCondition condition, Pageable pageable); // 카운트 쿼리와 페이징 쿼리 별도로 구현
+    MemberFacetSearchDTO searchFaceted(MemberSearchCondition condition, Pageable pageable); // 페이지 + 팀별 / 나이 구간별 회원 수
+    MultiGetResult<Member> findAllByIds(Collection<Long> ids); // id 목록 일괄 조회 (요청 순서 유지, 없는 id 보고)
 }
@@ -1,6 +1,7 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
@@ -8,34 +9,91 @@ import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import study.querydsl.dto.MemberFacetSearchDTO;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.dto.UsernameMatchType;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
+import study.querydsl.repository.support.LargeResultFetch;
+import study.querydsl.repository.support.MemberFacets;
+import study.querydsl.repository.support.MemberMultiGet;
+import study.querydsl.repository.support.MemberPredicates;
+import study.querydsl.repository.support.MultiGetResult;
+import study.querydsl.repository.support.QueryEngine;
+import study.querydsl.repository.support.UsernameSearch;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.MemberPredicates.ageGoe;
+import static study.querydsl.repository.support.MemberPredicates.ageLoe;
+import static study.querydsl.repository.support.MemberPredicates.teamNameEq;
 
 public class MemberRepositoryImpl extends QuerydslRepositorySupport implements MemberRepositoryCustom{
 
     private final JPAQueryFactory queryFactory;
+    private final UsernameSearch usernameSearch;
+    private final MemberSearchJdbcRepository jdbcSearch;
+    private final ShardedMemberRepository shardedSearch;
+    private final MemberSearchViewRepository viewSearch;
+    private final LargeResultFetch largeResultFetch;
 
-    public MemberRepositoryImpl(EntityManager em) {
+    // 메서드별 실행 엔진 (member.query-engine.*)
+    private final QueryEngine searchEngine;
+    private final QueryEngine searchPageSimpleEngine;
+    private final QueryEngine searchPageComplexEngine;
+
+    public MemberRepositoryImpl(EntityManager em,
+                                UsernameSearch usernameSearch,
+                                MemberSearchJdbcRepository jdbcSearch,
+                                ShardedMemberRepository shardedSearch,
+                                MemberSearchViewRepository viewSearch,
+                                LargeResultFetch largeResultFetch,
+                                @Value("${member.query-engine.search:JPA}") QueryEngine searchEngine,
+                                @Value("${member.query-engine.search-page-simple:JPA}") QueryEngine searchPageSimpleEngine,
+                                @Value("${member.query-engine.search-page-complex:JPA}") QueryEngine searchPageComplexEngine) {
         super(Member.class);
-        queryFactory = new JPAQueryFactory(em);
+        queryFactory = new DeadlineJPAQueryFactory(em);
+        this.usernameSearch = usernameSearch;
+        this.jdbcSearch = jdbcSearch;
+        this.shardedSearch = shardedSearch;
+        this.viewSearch = viewSearch;
+        this.largeResultFetch = largeResultFetch;
+        this.searchEngine = searchEngine;
+        this.searchPageSimpleEngine = searchPageSimpleEngine;
+        this.searchPageComplexEngine = searchPageComplexEngine;
+    }
+
+    // QuerydslRepositorySupport 의 from() 쿼리에도 마감 힌트 적용 (getQuerydsl().applyPagination 은 그대로 사용)
+    @Override
+    protected <T> JPQLQuery<T> from(EntityPath<T> path) {
+        return queryFactory.selectFrom(path);
     }
 
     // 페이징 쿼리 (offset(), limit() ) 추가
     @Override
     public Page<MemberTeamDTO> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        if (searchPageSimpleEngine == QueryEngine.JDBC) {
+            return jdbcSearch.searchPage(condition, pageable);
+        }
+        if (searchPageSimpleEngine == QueryEngine.SHARDED) {
+            return shardedSearch.searchPage(condition, pageable);
+        }
+        if (searchPageSimpleEngine == QueryEngine.VIEW) {
+            return viewSearch.searchPage(condition, pageable);
+        }
 
         QueryResults<MemberTeamDTO> result = queryFactory
                 // .selectFrom(member)
@@ -48,7 +106,7 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
@@ -69,7 +127,7 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
         JPQLQuery<MemberTeamDTO> jpaQuery = from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
@@ -89,6 +147,15 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
 
     @Override
     public Page<MemberTeamDTO> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        if (searchPageComplexEngine == QueryEngine.JDBC) {
+            return jdbcSearch.searchPage(condition, pageable);
+        }
+        if (searchPageComplexEngine == QueryEngine.SHARDED) {
+            return shardedSearch.searchPage(condition, pageable);
+        }
+        if (searchPageComplexEngine == QueryEngine.VIEW) {
+            return viewSearch.searchPage(condition, pageable);
+        }
         List<MemberTeamDTO> content = queryFactory
                 // .selectFrom(member)
                 .select(new QMemberTeamDTO(
@@ -101,7 +168,7 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
@@ -113,7 +180,7 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
                 .selectFrom(member)
                 .leftJoin(member.team, team) // 카운트 쿼리를 직접 구현할 때 커스텀 가능 (조인 제거)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
@@ -126,12 +193,21 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
 
     @Override
     public List<MemberTeamDTO> search(MemberSearchCondition condition) {
+        if (searchEngine == QueryEngine.JDBC) {
+            return jdbcSearch.search(condition);
+        }
+        if (searchEngine == QueryEngine.SHARDED) {
+            return shardedSearch.search(condition);
+        }
+        if (searchEngine == QueryEngine.VIEW) {
+            return viewSearch.search(condition);
+        }
 
         // querySupport 적용 쿼리 (querySupport 내부에 EntityManager 가 있음)
         List<MemberTeamDTO> result = from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
@@ -154,7 +230,7 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
@@ -162,23 +238,42 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
         return result;
     }
 
-    private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
-        return ageGoe(ageLoe).and(ageGoe(ageGoe));
+    // search 의 대용량 버전 : 항상 JPA 로 실행 (member.query-engine.search 는 List 를 돌려주는 search 에만 적용)
+    @Override
+    public Stream<MemberTeamDTO> searchStream(MemberSearchCondition condition) {
+        return largeResultFetch.stream(queryFactory
+                        .select(new QMemberTeamDTO(
+                                member.id.as("memberId"),
+                                member.username,
+                                member.age,
+                                team.id.as("teamId"),
+                                team.name.as("teamName")))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(
+                                usernameEq(condition.getUsername(), condition.getUsernameMatch()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())));
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.eq(ageLoe) : null;
+    // 검색 결과 페이지 + 팀별 / 나이 구간별 회원 수 (MemberFacets)
+    @Override
+    public MemberFacetSearchDTO searchFaceted(MemberSearchCondition condition, Pageable pageable) {
+        return MemberFacets.search(queryFactory, MemberPredicates.where(usernameSearch, condition), pageable);
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    @Override
+    public MultiGetResult<Member> findAllByIds(Collection<Long> ids) {
+        return MemberMultiGet.findAllByIds(queryFactory, ids);
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return teamName != null ? team.name.eq(teamName) : null;
+    private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
+        return ageGoe(ageLoe).and(ageGoe(ageGoe));
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return username != null ? member.username.eq(username) : null;
+
+    private BooleanExpression usernameEq(String username, UsernameMatchType matchType) {
+        return usernameSearch.matches(username, matchType);
     }
 }
@@ -0,0 +1,263 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.UsernameMatchType;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.UsernameSearch;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * MemberRepositoryCustom.search / searchPage 의 JDBC 실행 엔진 (QueryEngine.JDBC)
+ * HQL 파싱, JPQL -> SQL 변환, Hibernate 결과 처리를 거치지 않고 SQL 을 바로 실행해서 MemberTeamDTO 로 매핑한다.
+ * 테이블 / 컬럼명은 하드코딩하지 않고 Hibernate 매핑 메타모델(Member, Team 엔티티)에서 읽어 기동 시 한 번만 SQL 을 만든다.
+ * 검색 조건은 MemberRepositoryImpl 과 같은 의미로 만든다. (MemberSearchJdbcRepositoryTest 에서 JPA 결과와 비교)
+ * searchTop / count 는 같은 SQL 을 다른 DB(샤드) 에 실행한다. (ShardedMemberRepository)
+ */
+@Repository
+public class MemberSearchJdbcRepository {
+
+    private static final char LIKE_ESCAPE = '!'; // Querydsl like 와 같은 escape 문자
+
+    private final EntityManager em;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final UsernameSearch usernameSearch;
+
+    // select / from 절 (where 절만 조건에 따라 붙인다)
+    private final String selectSql;
+    private final String countSql;
+
+    // where 절에 쓰는 컬럼
+    private final String memberIdColumn;
+    private final String usernameColumn;
+    private final String usernameNormalizedColumn;
+    private final String ageColumn;
+    private final String teamNameColumn;
+
+    // 정렬 가능한 MemberTeamDTO 속성 -> 컬럼
+    private final Map<String, String> sortColumns = new LinkedHashMap<>();
+
+    private static final RowMapper<MemberTeamDTO> ROW_MAPPER = (rs, rowNum) -> new MemberTeamDTO(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getInt(3),
+            rs.getObject(4, Long.class), // 팀이 없는 회원은 null
+            rs.getString(5));
+
+    public MemberSearchJdbcRepository(EntityManager em,
+                                      EntityManagerFactory emf,
+                                      NamedParameterJdbcTemplate jdbcTemplate,
+                                      UsernameSearch usernameSearch) {
+        this.em = em;
+        this.jdbcTemplate = jdbcTemplate;
+        this.usernameSearch = usernameSearch;
+
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        AbstractEntityPersister memberPersister = (AbstractEntityPersister) sessionFactory
+                .getMappingMetamodel().getEntityDescriptor(Member.class);
+        AbstractEntityPersister teamPersister = (AbstractEntityPersister) sessionFactory
+                .getMappingMetamodel().getEntityDescriptor(Team.class);
+
+        memberIdColumn = "m." + memberPersister.getIdentifierColumnNames()[0];
+        usernameColumn = "m." + memberPersister.getPropertyColumnNames("username")[0];
+        usernameNormalizedColumn = "m." + memberPersister.getPropertyColumnNames("usernameNormalized")[0];
+        ageColumn = "m." + memberPersister.getPropertyColumnNames("age")[0];
+        String memberTeamColumn = "m." + memberPersister.getPropertyColumnNames("team")[0];
+        String teamIdColumn = "t." + teamPersister.getIdentifierColumnNames()[0];
+        teamNameColumn = "t." + teamPersister.getPropertyColumnNames("name")[0];
+
+        sortColumns.put("memberId", memberIdColumn);
+        sortColumns.put("username", usernameColumn);
+        sortColumns.put("age", ageColumn);
+        sortColumns.put("teamId", teamIdColumn);
+        sortColumns.put("teamName", teamNameColumn);
+
+        String from = " from " + memberPersister.getTableName() + " m" +
+                " left join " + teamPersister.getTableName() + " t on " + memberTeamColumn + " = " + teamIdColumn;
+        selectSql = "select " + memberIdColumn + ", " + usernameColumn + ", " + ageColumn + ", " +
+                teamIdColumn + ", " + teamNameColumn + from;
+        countSql = "select count(*)" + from;
+    }
+
+    public List<MemberTeamDTO> search(MemberSearchCondition condition) {
+        flushIfWritable();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = where(condition, params);
+        if (where == null) {
+            return List.of();
+        }
+        return jdbcTemplate.query(selectSql + where, params, ROW_MAPPER);
+    }
+
+    // searchPageComplex 와 같은 동작 (컨텐츠 쿼리 + 필요할 때만 카운트 쿼리)
+    public Page<MemberTeamDTO> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        flushIfWritable();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = where(condition, params);
+        if (where == null) {
+            return Page.empty(pageable);
+        }
+        params.addValue("limit", pageable.getPageSize());
+        params.addValue("offset", pageable.getOffset());
+        List<MemberTeamDTO> content = jdbcTemplate.query(
+                selectSql + where + " limit :limit offset :offset", params, ROW_MAPPER);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> Objects.requireNonNull(jdbcTemplate.queryForObject(countSql + where, params, Long.class)));
+    }
+
+    /**
+     * target DB 에서 sort 순서(동률이면 memberId) 로 앞에서부터 limit 건 조회
+     * 샤드별로 offset + size 건씩 가져와 합친 뒤 comparator(sort) 로 병합하는 용도
+     * contains 검색은 n-gram 인덱스(샤딩 중에는 샤드의 회원을 담음) 에서 찾은 id 로 조회한다.
+     */
+    public List<MemberTeamDTO> searchTop(NamedParameterJdbcTemplate target, MemberSearchCondition condition,
+                                         Sort sort, long limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = where(condition, params);
+        if (where == null) {
+            return List.of();
+        }
+        params.addValue("limit", limit);
+        return target.query(selectSql + where + orderBy(sort) + " limit :limit", params, ROW_MAPPER);
+    }
+
+    public long count(NamedParameterJdbcTemplate target, MemberSearchCondition condition) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = where(condition, params);
+        if (where == null) {
+            return 0;
+        }
+        return Objects.requireNonNull(target.queryForObject(countSql + where, params, Long.class));
+    }
+
+    // searchTop 과 같은 순서 (null 은 가장 작은 값 : MySQL 과 같이 asc 면 앞, desc 면 뒤)
+    public Comparator<MemberTeamDTO> comparator(Sort sort) {
+        Comparator<MemberTeamDTO> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<MemberTeamDTO> property = propertyComparator(order.getProperty());
+            comparator = comparator.thenComparing(order.isAscending() ? property : property.reversed());
+        }
+        return comparator.thenComparing(MemberTeamDTO::getMemberId);
+    }
+
+    private Comparator<MemberTeamDTO> propertyComparator(String property) {
+        column(property); // 정렬할 수 없는 속성 검사
+        return switch (property) {
+            case "memberId" -> Comparator.comparing(MemberTeamDTO::getMemberId);
+            case "username" -> Comparator.comparing(MemberTeamDTO::getUsername, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "age" -> Comparator.comparingInt(MemberTeamDTO::getAge);
+            case "teamId" -> Comparator.comparing(MemberTeamDTO::getTeamId, Comparator.nullsFirst(Comparator.naturalOrder()));
+            default -> Comparator.comparing(MemberTeamDTO::getTeamName, Comparator.nullsFirst(Comparator.naturalOrder()));
+        };
+    }
+
+    private String orderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder(" order by ");
+        for (Sort.Order order : sort) {
+            orderBy.append(column(order.getProperty())).append(order.isAscending() ? " asc, " : " desc, ");
+        }
+        return orderBy.append(memberIdColumn).toString();
+    }
+
+    private String column(String property) {
+        String column = sortColumns.get(property);
+        if (column == null) {
+            throw new IllegalArgumentException("정렬할 수 없는 속성입니다. property=" + property + ", 가능 : " + sortColumns.keySet());
+        }
+        return column;
+    }
+
+    /**
+     * where 절 생성 (조건이 없으면 빈 문자열)
+     * n-gram 인덱스에 후보가 하나도 없는 contains 검색처럼 결과가 없음이 확실하면 null 을 반환하고 쿼리를 생략한다.
+     * 인덱스로 답할 수 없는 contains 검색은 UnsupportedUsernameSearchException (UsernameSearch.findIdsContaining)
+     */
+    private String where(MemberSearchCondition condition, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder();
+        if (condition.getUsername() != null) {
+            String username = condition.getUsername();
+            switch (condition.getUsernameMatch() != null ? condition.getUsernameMatch() : UsernameMatchType.EXACT) {
+                case EXACT -> {
+                    and(where, usernameColumn + " = :username");
+                    params.addValue("username", username);
+                }
+                case IGNORE_CASE -> {
+                    and(where, usernameNormalizedColumn + " = :username");
+                    params.addValue("username", usernameSearch.normalize(username));
+                }
+                case PREFIX -> {
+                    and(where, usernameNormalizedColumn + " like :username escape '" + LIKE_ESCAPE + "'");
+                    params.addValue("username", escapeLike(usernameSearch.normalize(username)) + "%");
+                }
+                case CONTAINS -> {
+                    List<Long> ids = usernameSearch.findIdsContaining(username);
+                    if (ids.isEmpty()) {
+                        return null;
+                    }
+                    and(where, memberIdColumn + " in (:memberIds)");
+                    params.addValue("memberIds", ids);
+                }
+            }
+        }
+        if (condition.getTeamName() != null) {
+            and(where, teamNameColumn + " = :teamName");
+            params.addValue("teamName", condition.getTeamName());
+        }
+        if (condition.getAgeGoe() != null) {
+            and(where, ageColumn + " >= :ageGoe");
+            params.addValue("ageGoe", condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            and(where, ageColumn + " <= :ageLoe");
+            params.addValue("ageLoe", condition.getAgeLoe());
+        }
+        return where.toString();
+    }
+
+    private static void and(StringBuilder where, String predicate) {
+        where.append(where.isEmpty() ? " where " : " and ").append(predicate);
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * JPA 쿼리는 실행 전에 영속성 컨텍스트를 자동 flush 하지만 JdbcTemplate 은 그렇지 않으므로
+     * 쓰기 트랜잭션 안에서 호출되면 먼저 flush 해서 같은 트랜잭션의 변경 내용이 보이게 한다.
+     * (JpaTransactionManager 가 같은 커넥션을 JdbcTemplate 에 노출하므로 커밋 전 데이터도 조회됨)
+     */
+    private void flushIfWritable() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            em.flush();
+        }
+    }
+}
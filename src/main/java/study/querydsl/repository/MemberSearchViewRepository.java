@@ -0,0 +1,115 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.entity.MemberSearchView;
+import study.querydsl.repository.support.UsernameSearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static study.querydsl.entity.QMemberSearchView.memberSearchView;
+
+/**
+ * member_search_view 검색 (member.query-engine.* = VIEW)
+ * member / team 조인 없이 미리 계산된 MemberTeamDTO 컬럼을 읽는다. (MemberSearchViewWriter 가 쓰기와 같은 트랜잭션에서 갱신)
+ * 정렬은 pageable 의 sort (memberId, username, age, teamId, teamName), 동률이면 memberId
+ */
+@Repository
+public class MemberSearchViewRepository {
+
+    private static final Set<String> SORT_PROPERTIES = Set.of("memberId", "username", "age", "teamId", "teamName");
+    private static final PathBuilder<MemberSearchView> VIEW_PATH =
+            new PathBuilder<>(MemberSearchView.class, memberSearchView.getMetadata());
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final UsernameSearch usernameSearch;
+
+    public MemberSearchViewRepository(EntityManager em, JPAQueryFactory queryFactory, UsernameSearch usernameSearch) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.usernameSearch = usernameSearch;
+    }
+
+    public List<MemberTeamDTO> search(MemberSearchCondition condition) {
+        flushIfWritable();
+        return select(condition).fetch();
+    }
+
+    // searchPageComplex 와 같은 동작 (컨텐츠 쿼리 + 필요할 때만 카운트 쿼리)
+    public Page<MemberTeamDTO> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        flushIfWritable();
+        List<MemberTeamDTO> content = select(condition)
+                .orderBy(orderBy(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+        JPAQuery<Long> countQuery = queryFactory
+                .select(memberSearchView.count())
+                .from(memberSearchView)
+                .where(where(condition));
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    private JPAQuery<MemberTeamDTO> select(MemberSearchCondition condition) {
+        return queryFactory
+                .select(new QMemberTeamDTO(
+                        memberSearchView.memberId,
+                        memberSearchView.username,
+                        memberSearchView.age,
+                        memberSearchView.teamId,
+                        memberSearchView.teamName))
+                .from(memberSearchView)
+                .where(where(condition));
+    }
+
+    private BooleanExpression[] where(MemberSearchCondition condition) {
+        return new BooleanExpression[]{
+                usernameSearch.matches(memberSearchView.username, memberSearchView.usernameNormalized, memberSearchView.memberId,
+                        condition.getUsername(), condition.getUsernameMatch()),
+                condition.getTeamName() != null ? memberSearchView.teamName.eq(condition.getTeamName()) : null,
+                condition.getAgeGoe() != null ? memberSearchView.age.goe(condition.getAgeGoe()) : null,
+                condition.getAgeLoe() != null ? memberSearchView.age.loe(condition.getAgeLoe()) : null
+        };
+    }
+
+    private OrderSpecifier<?>[] orderBy(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (!SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("정렬할 수 없는 속성입니다. property=" + order.getProperty() + ", 가능 : " + SORT_PROPERTIES);
+            }
+            orders.add(new OrderSpecifier<>(order.isAscending() ? Order.ASC : Order.DESC,
+                    VIEW_PATH.getComparable(order.getProperty(), Comparable.class)));
+        }
+        orders.add(memberSearchView.memberId.asc());
+        return orders.toArray(OrderSpecifier[]::new);
+    }
+
+    /**
+     * 뷰는 회원 변경이 flush 될 때 갱신되는데, 뷰만 조회하는 쿼리는 member 변경을 자동 flush 하지 않으므로
+     * 쓰기 트랜잭션 안에서 호출되면 먼저 flush 해서 같은 트랜잭션의 변경 내용이 보이게 한다.
+     */
+    private void flushIfWritable() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            em.flush();
+        }
+    }
+}
@@ -3,13 +3,15 @@ package study.querydsl.repository;
 import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Repository;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.LargeResultFetch;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
+import study.querydsl.repository.support.UsernameSearch;
 
 @Repository
 public class MemberTestRepository extends Querydsl4RepositorySupport {
 
     // TODO
-    public MemberTestRepository(EntityManager em) {
-        super(em);
+    public MemberTestRepository(EntityManager em, UsernameSearch usernameSearch, LargeResultFetch largeResultFetch) {
+        super(em, usernameSearch, largeResultFetch);
     }
 }
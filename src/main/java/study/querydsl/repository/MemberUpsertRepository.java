@@ -0,0 +1,12 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.MemberSyncDTO;
+import study.querydsl.repository.support.UpsertResult;
+
+import java.util.stream.Stream;
+
+// 쓰기 전용 fragment : 조회용 MemberRepositoryCustom 과 분리 (MemberRepository 만 확장)
+public interface MemberUpsertRepository {
+
+    UpsertResult upsertAll(Stream<MemberSyncDTO> records); // username 기준 일괄 insert / update (팀은 이름으로 연결)
+}
@@ -0,0 +1,20 @@
+package study.querydsl.repository;
+
+import lombok.RequiredArgsConstructor;
+import study.querydsl.dto.MemberSyncDTO;
+import study.querydsl.repository.support.MemberBulkUpsert;
+import study.querydsl.repository.support.UpsertResult;
+
+import java.util.stream.Stream;
+
+// 인사 시스템 동기화 : 청크 단위 일괄 조회 + JDBC 배치 쓰기 (MemberBulkUpsert)
+@RequiredArgsConstructor
+public class MemberUpsertRepositoryImpl implements MemberUpsertRepository {
+
+    private final MemberBulkUpsert bulkUpsert;
+
+    @Override
+    public UpsertResult upsertAll(Stream<MemberSyncDTO> records) {
+        return bulkUpsert.upsertAll(records);
+    }
+}
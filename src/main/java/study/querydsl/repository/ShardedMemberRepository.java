@@ -0,0 +1,284 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.MemberDataVersion;
+import study.querydsl.repository.support.MemberShards;
+import study.querydsl.repository.support.UsernameSearch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * team_id 로 샤딩한 회원 저장 / 검색 (MemberShards, member.query-engine.* = SHARDED)
+ * 샤딩 중에는 회원 행의 원본이 team_id 의 샤드에 있다. (기본 DB 에는 회원을 쓰지 않음, team 은 TeamShardRelay 가 모든 샤드에 복제)
+ * - 저장 : id 는 기본 DB 의 member_seq 에서 발급, 샤드별 트랜잭션 하나로 insert
+ * - 수정 / 삭제 : 회원의 현재 샤드에서 version 조건으로 실행 (다르면 OptimisticLockingFailureException)
+ * - 팀 이동으로 샤드가 바뀌면 원래 샤드의 행을 잠근 채 새 샤드에 insert 를 커밋하고, 원래 샤드에서 삭제 후 커밋한다.
+ *   두 커밋 사이에는 양쪽에 같은 회원이 있을 수 있으므로 검색 결과는 member_id 로 중복을 제거하고 (카운트는 제외),
+ *   findById 는 version 이 높은 쪽을 쓴다. 원래 샤드 커밋이 실패하면 새 샤드의 행을 되돌린다.
+ * - teamName 조건 검색 : 기본 DB 의 team 에서 이름으로 team_id 를 찾아 해당 샤드에만 실행
+ * - 그 외 검색 : 모든 샤드에 병렬 실행(scatter) 후 정렬 순서대로 병합(gather), 카운트는 샤드별 카운트의 합
+ * 쓰기가 끝나면 검색 데이터 버전(MemberDataVersion) 을 올리고 회원명 n-gram 인덱스(UsernameSearch) 에 반영한다.
+ */
+@Slf4j
+@Repository
+public class ShardedMemberRepository {
+
+    private static final String SELECT_SQL = "select member_id, username, age, team_id, version from member where member_id = :id";
+    private static final String INSERT_SQL = "insert into member (member_id, username, age, team_id, version)"
+            + " values (:id, :username, :age, :teamId, :version)";
+    private static final RowMapper<ShardedMember> ROW_MAPPER = (rs, rowNum) -> new ShardedMember(
+            rs.getLong("member_id"), rs.getString("username"), rs.getInt("age"),
+            rs.getObject("team_id", Long.class), rs.getLong("version"));
+
+    /**
+     * 샤드에 저장된 회원 행 (수정 / 삭제 시 현재 version 과 샤드(teamId) 를 함께 넘긴다)
+     */
+    public record ShardedMember(Long id, String username, int age, Long teamId, long version) {
+    }
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final MemberShards shards;
+    private final MemberSearchJdbcRepository jdbcSearch;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberDataVersion dataVersion;
+    private final UsernameSearch usernameSearch;
+
+    public ShardedMemberRepository(EntityManager em,
+                                   JPAQueryFactory queryFactory,
+                                   MemberShards shards,
+                                   MemberSearchJdbcRepository jdbcSearch,
+                                   PlatformTransactionManager transactionManager,
+                                   MemberDataVersion dataVersion,
+                                   UsernameSearch usernameSearch) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.shards = shards;
+        this.jdbcSearch = jdbcSearch;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataVersion = dataVersion;
+        this.usernameSearch = usernameSearch;
+    }
+
+    /**
+     * 새 회원을 팀의 샤드에 저장 (id 가 없으면 발급해서 member 에 설정)
+     * 샤드마다 트랜잭션 하나로 저장하므로 한 샤드 안의 회원은 모두 저장되거나 모두 저장되지 않는다.
+     */
+    public List<ShardedMember> saveAll(Collection<Member> members) {
+        transactionTemplate.executeWithoutResult(status -> members.stream()
+                .filter(member -> member.getId() == null)
+                .forEach(member -> member.setId(nextId(member))));
+        Map<Integer, List<ShardedMember>> rowsByShard = new LinkedHashMap<>();
+        List<ShardedMember> saved = new ArrayList<>();
+        for (Member member : members) {
+            ShardedMember row = new ShardedMember(member.getId(), member.getUsername(), member.getAge(),
+                    member.getTeam() != null ? member.getTeam().getId() : null, 0);
+            rowsByShard.computeIfAbsent(shards.shardOf(row.teamId()), shard -> new ArrayList<>()).add(row);
+            saved.add(row);
+        }
+        rowsByShard.forEach((shard, rows) -> {
+            shards.inTransaction(shard, target -> target.batchUpdate(INSERT_SQL,
+                    rows.stream().map(ShardedMemberRepository::params).toArray(SqlParameterSource[]::new)));
+            rows.forEach(row -> usernameSearch.shardCommitted(row.id(), row.username()));
+        });
+        if (!saved.isEmpty()) {
+            dataVersion.changed();
+        }
+        return saved;
+    }
+
+    // member_id 만으로는 샤드를 알 수 없으므로 모든 샤드에서 조회 (팀 이동 중 양쪽에 있으면 version 이 높은 쪽)
+    public Optional<ShardedMember> findById(Long memberId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", memberId);
+        return shards.scatter(shards.all(), shard -> shard.query(SELECT_SQL, params, ROW_MAPPER))
+                .stream()
+                .flatMap(List::stream)
+                .max(Comparator.comparingLong(ShardedMember::version));
+    }
+
+    /**
+     * current 의 version 이 그대로일 때만 수정 (teamId 가 바뀌어 샤드가 달라지면 새 샤드로 이동)
+     * @return 수정된 행 (version + 1)
+     */
+    public ShardedMember update(ShardedMember current, String username, int age, Long teamId) {
+        ShardedMember next = new ShardedMember(current.id(), username, age, teamId, current.version() + 1);
+        int from = shards.shardOf(current.teamId());
+        int to = shards.shardOf(teamId);
+        if (from == to) {
+            int updated = shards.inTransaction(from, shard -> shard.update(
+                    "update member set username = :username, age = :age, team_id = :teamId, version = :version"
+                            + " where member_id = :id and version = :currentVersion",
+                    params(next).addValue("currentVersion", current.version())));
+            if (updated == 0) {
+                throw conflict(current);
+            }
+        } else {
+            move(current, next, from, to);
+        }
+        usernameSearch.shardCommitted(next.id(), next.username());
+        dataVersion.changed();
+        return next;
+    }
+
+    public void delete(ShardedMember current) {
+        int deleted = shards.inTransaction(shards.shardOf(current.teamId()), shard -> shard.update(
+                "delete from member where member_id = :id and version = :version", params(current)));
+        if (deleted == 0) {
+            throw conflict(current);
+        }
+        usernameSearch.shardCommitted(current.id(), null);
+        dataVersion.changed();
+    }
+
+    private void move(ShardedMember current, ShardedMember next, int from, int to) {
+        AtomicBoolean inserted = new AtomicBoolean();
+        try {
+            shards.inTransaction(from, source -> {
+                List<Long> locked = source.queryForList("select version from member where member_id = :id and version = :version for update",
+                        params(current), Long.class);
+                if (locked.isEmpty()) {
+                    throw conflict(current);
+                }
+                shards.inTransaction(to, target -> target.update(INSERT_SQL, params(next))); // 새 샤드 먼저 커밋
+                inserted.set(true);
+                source.update("delete from member where member_id = :id", params(current));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (inserted.get()) {
+                undoMove(current, next, from, to, e);
+            }
+            throw e;
+        }
+    }
+
+    // 원래 샤드에 행이 그대로 남아 있을 때만 새 샤드의 행을 지운다. (커밋 결과를 모르는 실패에서 두 행을 모두 잃지 않도록)
+    private void undoMove(ShardedMember current, ShardedMember next, int from, int to, RuntimeException cause) {
+        try {
+            Long remaining = shards.shard(from).queryForObject(
+                    "select count(*) from member where member_id = :id and version = :version", params(current), Long.class);
+            if (remaining != null && remaining > 0) {
+                shards.inTransaction(to, target -> target.update(
+                        "delete from member where member_id = :id and version = :version", params(next)));
+            }
+        } catch (RuntimeException undo) {
+            cause.addSuppressed(undo);
+            log.error("회원 샤드 이동 되돌리기 실패, 양쪽 샤드에 남은 행은 findById 가 version 으로 구분 memberId={}", current.id(), undo);
+        }
+    }
+
+    private static MapSqlParameterSource params(ShardedMember row) {
+        return new MapSqlParameterSource()
+                .addValue("id", row.id())
+                .addValue("username", row.username())
+                .addValue("age", row.age())
+                .addValue("teamId", row.teamId())
+                .addValue("version", row.version());
+    }
+
+    private static OptimisticLockingFailureException conflict(ShardedMember current) {
+        return new OptimisticLockingFailureException("회원이 이미 수정 / 삭제되었습니다. memberId=" + current.id() + ", version=" + current.version());
+    }
+
+    public List<MemberTeamDTO> search(MemberSearchCondition condition) {
+        List<NamedParameterJdbcTemplate> targets = targets(condition);
+        if (targets.isEmpty()) {
+            return List.of();
+        }
+        Comparator<MemberTeamDTO> order = jdbcSearch.comparator(Sort.unsorted());
+        return shards.scatter(targets, shard -> jdbcSearch.searchTop(shard, condition, Sort.unsorted(), Integer.MAX_VALUE))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(order)
+                .filter(distinctMember())
+                .toList();
+    }
+
+    /**
+     * 샤드마다 정렬 순서로 offset + size 건을 가져와 병합한 뒤 offset 부터 size 건을 반환
+     * 정렬은 pageable 의 sort (memberId, username, age, teamId, teamName), 동률이면 memberId
+     * offset 이 깊을수록 샤드마다 더 많이 읽으므로 깊은 페이지는 AdmissionControlFilter 에서 비싼 요청으로 취급된다.
+     */
+    public Page<MemberTeamDTO> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        List<NamedParameterJdbcTemplate> targets = targets(condition);
+        if (targets.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        record ShardResult(List<MemberTeamDTO> rows, long count) {
+        }
+        List<ShardResult> results = shards.scatter(targets, shard -> new ShardResult(
+                jdbcSearch.searchTop(shard, condition, pageable.getSort(), limit),
+                jdbcSearch.count(shard, condition)));
+
+        List<MemberTeamDTO> content = results.stream()
+                .flatMap(result -> result.rows().stream())
+                .sorted(jdbcSearch.comparator(pageable.getSort()))
+                .filter(distinctMember())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        long total = results.stream().mapToLong(ShardResult::count).sum();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    // 팀 이동 중 양쪽 샤드에 있는 회원은 먼저 나온 하나만
+    private static Predicate<MemberTeamDTO> distinctMember() {
+        Set<Long> seen = new HashSet<>();
+        return dto -> seen.add(dto.getMemberId());
+    }
+
+    // teamName 조건이 있으면 그 이름의 팀이 있는 샤드만, 없으면 전체 샤드
+    private List<NamedParameterJdbcTemplate> targets(MemberSearchCondition condition) {
+        if (condition.getTeamName() == null) {
+            return shards.all();
+        }
+        List<Long> teamIds = queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(condition.getTeamName()))
+                .fetch();
+        Set<Integer> shardIndexes = new TreeSet<>();
+        teamIds.forEach(teamId -> shardIndexes.add(shards.shardOf(teamId)));
+        return shardIndexes.stream().map(shards::shard).toList();
+    }
+
+    private Long nextId(Member member) {
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getEntityPersister(Member.class.getName(), member);
+        return (Long) ((IdentifierGenerator) persister.getGenerator()).generate(session, member);
+    }
+}
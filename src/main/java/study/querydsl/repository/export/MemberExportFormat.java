@@ -0,0 +1,123 @@
+package study.querydsl.repository.export;
+
+import study.querydsl.dto.MemberTeamDTO;
+
+/**
+ * 회원 내보내기 파일 형식 (행마다 한 줄, UTF-8)
+ * CSV    : RFC 4180 (쉼표 / 따옴표 / 줄바꿈이 있는 값은 따옴표로 감싸고 따옴표는 두 번), 첫 줄은 헤더
+ * NDJSON : 행마다 JSON 객체 한 줄 (MemberTeamDTO 와 같은 필드), 헤더 없음
+ */
+public enum MemberExportFormat {
+
+    CSV("text/csv", "csv") {
+        @Override
+        String header() {
+            return "member_id,username,age,team_id,team_name\n";
+        }
+
+        @Override
+        void row(MemberTeamDTO dto, StringBuilder out) {
+            out.append(dto.getMemberId()).append(',');
+            csv(dto.getUsername(), out);
+            out.append(',').append(dto.getAge()).append(',');
+            if (dto.getTeamId() != null) {
+                out.append(dto.getTeamId());
+            }
+            out.append(',');
+            csv(dto.getTeamName(), out);
+            out.append('\n');
+        }
+    },
+
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        String header() {
+            return "";
+        }
+
+        @Override
+        void row(MemberTeamDTO dto, StringBuilder out) {
+            out.append("{\"memberId\":").append(dto.getMemberId())
+                    .append(",\"username\":");
+            json(dto.getUsername(), out);
+            out.append(",\"age\":").append(dto.getAge())
+                    .append(",\"teamId\":").append(dto.getTeamId())
+                    .append(",\"teamName\":");
+            json(dto.getTeamName(), out);
+            out.append("}\n");
+        }
+    };
+
+    private final String contentType;
+    private final String extension;
+
+    MemberExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // 파일 처음에 한 번 (없으면 빈 문자열)
+    abstract String header();
+
+    // 한 행을 줄바꿈까지 out 에 추가
+    abstract void row(MemberTeamDTO dto, StringBuilder out);
+
+    // null 은 빈 값
+    private static void csv(String value, StringBuilder out) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static void json(String value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
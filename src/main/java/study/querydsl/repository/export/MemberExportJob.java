@@ -0,0 +1,138 @@
+package study.querydsl.repository.export;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.Future;
+
+/**
+ * 내보내기 작업 하나의 상태 (MemberExporter 워커 스레드가 진행 상황을 갱신하고, 요청 스레드가 조회 / 취소)
+ * 상태 변경은 job 단위로 동기화한다.
+ * QUEUED -> RUNNING -> COMPLETED / CANCELLED / FAILED, CANCELLED / FAILED 는 resume 으로 다시 QUEUED
+ * 체크포인트 : 파일에 기록된 바이트 수와 그때까지 내보낸 마지막 member_id (이어 쓰기 시작점)
+ */
+@Getter
+public class MemberExportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final String id;
+    private final MemberSearchCondition condition;
+    private final MemberExportFormat format;
+    private final Path partPath; // 작성 중인 파일
+    private final Path path; // 완료된 파일
+    private final Instant createdAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile Long totalRows; // 첫 실행 시 count (진행률 용도, 실행 중 쓰기로 달라질 수 있음)
+    private volatile long exportedRows;
+    private volatile long lastMemberId;
+    private volatile long checkpointRows;
+    private volatile long checkpointMemberId;
+    private volatile long checkpointBytes;
+    private volatile String error;
+    private volatile Instant finishedAt;
+    @Getter(AccessLevel.NONE)
+    private Future<?> future;
+
+    MemberExportJob(String id, MemberSearchCondition condition, MemberExportFormat format, Path directory) {
+        this.id = id;
+        this.condition = condition;
+        this.format = format;
+        this.partPath = directory.resolve("member-export-" + id + "." + format.getExtension() + ".part");
+        this.path = directory.resolve("member-export-" + id + "." + format.getExtension());
+    }
+
+    // 워커가 실행을 시작할 때 : 대기 중에 취소됐으면 false
+    synchronized boolean start() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        return true;
+    }
+
+    /**
+     * 대기 중이면 바로 CANCELLED, 실행 중이면 워커가 다음 행에서 멈추고 체크포인트를 남긴 뒤 CANCELLED
+     * @return 대기 / 실행 중이었으면 true
+     */
+    synchronized boolean cancel() {
+        if (status == Status.QUEUED) {
+            status = Status.CANCELLED;
+            finishedAt = Instant.now();
+            if (future != null) {
+                future.cancel(false);
+            }
+            return true;
+        }
+        if (status == Status.RUNNING) {
+            cancelRequested = true;
+            return true;
+        }
+        return false;
+    }
+
+    // 취소 / 실패한 작업을 체크포인트부터 다시 대기열에 넣을 준비 : 가능하면 true
+    synchronized boolean prepareResume() {
+        if (status != Status.CANCELLED && status != Status.FAILED) {
+            return false;
+        }
+        status = Status.QUEUED;
+        cancelRequested = false;
+        error = null;
+        finishedAt = null;
+        exportedRows = checkpointRows;
+        lastMemberId = checkpointMemberId;
+        return true;
+    }
+
+    // 체크포인트까지 쓴 파일이 없어져서 처음부터 다시 내보낼 때
+    void restart() {
+        exportedRows = 0;
+        lastMemberId = 0;
+        checkpoint(0);
+    }
+
+    synchronized void queued(Future<?> future) {
+        this.future = future;
+    }
+
+    void total(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    // 한 행을 버퍼에 씀 (워커 스레드만 호출)
+    void exported(long memberId) {
+        exportedRows++;
+        lastMemberId = memberId;
+    }
+
+    // 버퍼를 파일에 기록한 뒤 (워커 스레드만 호출)
+    void checkpoint(long bytes) {
+        checkpointRows = exportedRows;
+        checkpointMemberId = lastMemberId;
+        checkpointBytes = bytes;
+    }
+
+    synchronized void finish(Status status, String error) {
+        this.status = status;
+        this.error = error;
+        this.finishedAt = Instant.now();
+    }
+
+    boolean isActive() {
+        Status current = status;
+        return current == Status.QUEUED || current == Status.RUNNING;
+    }
+
+    public MemberExportStatus toStatus() {
+        return new MemberExportStatus(id, format, status, totalRows, exportedRows, checkpointMemberId,
+                checkpointBytes, error, createdAt, finishedAt);
+    }
+}
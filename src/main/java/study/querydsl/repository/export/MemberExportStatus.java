@@ -0,0 +1,19 @@
+package study.querydsl.repository.export;
+
+import java.time.Instant;
+
+/**
+ * 내보내기 작업 조회 응답
+ * resumeAfterMemberId / writtenBytes : 파일에 기록된 마지막 체크포인트 (취소 / 실패 후 resume 하면 여기서부터)
+ */
+public record MemberExportStatus(String id,
+                                 MemberExportFormat format,
+                                 MemberExportJob.Status status,
+                                 Long totalRows,
+                                 long exportedRows,
+                                 long resumeAfterMemberId,
+                                 long writtenBytes,
+                                 String error,
+                                 Instant createdAt,
+                                 Instant finishedAt) {
+}
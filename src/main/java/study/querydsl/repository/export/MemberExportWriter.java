@@ -0,0 +1,89 @@
+package study.querydsl.repository.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * 내보내기 파일 쓰기 : 문자열을 direct 버퍼에 바로 UTF-8 로 인코딩하고, 버퍼가 차면 FileChannel 로 기록
+ * (행마다 byte[] 를 만들지 않고, 힙 -> 네이티브 복사 없이 채널로 쓴다.)
+ * 열 때 position 이후를 잘라내므로 체크포인트(flush 된 바이트 수) 에서 이어 쓸 수 있다.
+ * close() 는 버퍼를 기록하지 않는다. 남길 내용은 flush() 후 닫을 것 (실패 시 체크포인트 이후는 버림)
+ */
+class MemberExportWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    MemberExportWriter(Path path, long position, int bufferSize) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, CREATE, WRITE);
+        try {
+            channel.truncate(position);
+            channel.position(channel.size()); // 파일이 position 보다 짧으면 (없어진 파일) 끝에서부터
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public void write(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain();
+                continue;
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            break;
+        }
+        encoder.reset(); // UTF-8 은 상태가 없고, write 마다 완전한 문자열이 들어온다.
+    }
+
+    // 버퍼를 채널에 기록 (디스크 동기화는 force)
+    public void flush() throws IOException {
+        drain();
+    }
+
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    // 채널에 기록된 바이트 수 + 버퍼에 남은 바이트 수
+    public long position() throws IOException {
+        return channel.position() + buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,301 @@
+package study.querydsl.repository.export;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.repository.support.LargeResultFetch;
+import study.querydsl.repository.support.MemberPredicates;
+import study.querydsl.repository.support.UsernameSearch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 검색 결과를 파일로 내보내는 비동기 작업 (member.export.*)
+ * 1. submit() 은 작업을 대기열에 넣고 바로 반환한다. (요청 스레드 / 커넥션을 잡고 있지 않음)
+ *    워커 수와 대기열 크기는 고정이며, 대기열이 가득 차면 RejectedExecutionException
+ * 2. 워커는 member_id 순으로 chunk-size 행씩 읽는다. (member_id > 마지막으로 내보낸 id, 청크마다 짧은 읽기 전용 트랜잭션)
+ *    청크 안에서는 LargeResultFetch.iterate 로 fetch size 단위로 읽어 바로 파일 버퍼에 쓴다.
+ * 3. 청크가 끝날 때마다 버퍼를 파일에 기록하고 체크포인트(바이트 수, 마지막 member_id) 를 남긴다.
+ * 4. 취소하면 다음 행에서 멈추고 쓴 데까지 체크포인트를 남긴다. 취소 / 실패한 작업은 resume 으로 체크포인트부터 이어 쓴다.
+ * 5. 작성 중에는 .part 파일에 쓰고, 끝나면 이름을 바꿔서 다운로드에는 항상 완성된 파일만 나간다.
+ * 하나의 스냅샷이 아니므로 내보내는 동안 커밋된 변경은 아직 읽지 않은 범위(더 큰 member_id) 에만 반영된다.
+ * 작업 목록은 인스턴스 메모리에만 있어서 재시작하면 이어 쓸 수 없다. (끝난 작업은 retention 이 지나면 파일과 함께 정리)
+ */
+@Slf4j
+@Component
+public class MemberExporter {
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTemplate;
+    private final LargeResultFetch largeResultFetch;
+    private final UsernameSearch usernameSearch;
+    private final Path directory;
+    private final int chunkSize;
+    private final int bufferBytes;
+    private final Duration retention;
+    private final Consumer<MemberExportJob> chunkListener;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, MemberExportJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MemberExporter(JPAQueryFactory queryFactory,
+                          PlatformTransactionManager transactionManager,
+                          LargeResultFetch largeResultFetch,
+                          UsernameSearch usernameSearch,
+                          @Value("${member.export.directory:data/exports}") Path directory,
+                          @Value("${member.export.workers:2}") int workers,
+                          @Value("${member.export.queue-capacity:16}") int queueCapacity,
+                          @Value("${member.export.chunk-size:10000}") int chunkSize,
+                          @Value("${member.export.buffer-bytes:1048576}") int bufferBytes,
+                          @Value("${member.export.retention:24h}") Duration retention) {
+        this(queryFactory, transactionManager, largeResultFetch, usernameSearch, directory, workers, queueCapacity,
+                chunkSize, bufferBytes, retention, job -> {
+                });
+    }
+
+    MemberExporter(JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager,
+                   LargeResultFetch largeResultFetch, UsernameSearch usernameSearch, Path directory,
+                   int workers, int queueCapacity, int chunkSize, int bufferBytes, Duration retention,
+                   Consumer<MemberExportJob> chunkListener) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.largeResultFetch = largeResultFetch;
+        this.usernameSearch = usernameSearch;
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.bufferBytes = bufferBytes;
+        this.retention = retention;
+        this.chunkListener = chunkListener;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "member-export-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 내보내기 작업 접수
+     * @throws RejectedExecutionException 대기열이 가득 찼을 때
+     */
+    public MemberExportJob submit(MemberSearchCondition condition, MemberExportFormat format) {
+        purgeExpired();
+        MemberExportJob job = new MemberExportJob(UUID.randomUUID().toString(), copy(condition), format, directory);
+        jobs.put(job.getId(), job);
+        try {
+            enqueue(job);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<MemberExportJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    // 대기 / 실행 중이 아니면 false
+    public boolean cancel(MemberExportJob job) {
+        return job.cancel();
+    }
+
+    /**
+     * 취소 / 실패한 작업을 체크포인트부터 다시 실행 (그 외 상태면 false)
+     * @throws RejectedExecutionException 대기열이 가득 찼을 때 (작업은 이전 상태로 남는다)
+     */
+    public boolean resume(MemberExportJob job) {
+        MemberExportJob.Status previous = job.getStatus();
+        if (!job.prepareResume()) {
+            return false;
+        }
+        try {
+            enqueue(job);
+        } catch (RejectedExecutionException e) {
+            job.finish(previous, e.getMessage());
+            throw e;
+        }
+        return true;
+    }
+
+    // 끝난 작업과 파일 삭제 (대기 / 실행 중이면 먼저 취소해야 하므로 false)
+    public boolean remove(MemberExportJob job) {
+        if (job.isActive()) {
+            return false;
+        }
+        jobs.remove(job.getId());
+        deleteFiles(job);
+        return true;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        jobs.values().forEach(MemberExportJob::cancel);
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void enqueue(MemberExportJob job) {
+        job.queued(executor.submit(() -> run(job)));
+    }
+
+    private void run(MemberExportJob job) {
+        if (!job.start()) {
+            return; // 대기 중에 취소됨
+        }
+        MemberExportJob.Status result = MemberExportJob.Status.COMPLETED;
+        String error = null;
+        try {
+            if (job.getCheckpointBytes() > 0 && (!Files.exists(job.getPartPath()) || Files.size(job.getPartPath()) < job.getCheckpointBytes())) {
+                log.warn("내보내기 작성 중 파일이 없어져 처음부터 다시 내보냅니다. id={}", job.getId());
+                job.restart();
+            }
+            try (MemberExportWriter writer = new MemberExportWriter(job.getPartPath(), job.getCheckpointBytes(), bufferBytes)) {
+                if (job.getTotalRows() == null) {
+                    job.total(count(job.getCondition()));
+                }
+                if (writer.position() == 0) {
+                    writer.write(job.getFormat().header());
+                }
+                boolean more = true;
+                while (more && !job.isCancelRequested()) {
+                    more = exportChunk(job, writer);
+                    writer.flush();
+                    job.checkpoint(writer.position());
+                    chunkListener.accept(job);
+                }
+                if (job.isCancelRequested()) {
+                    result = MemberExportJob.Status.CANCELLED;
+                } else {
+                    writer.force();
+                }
+            }
+            if (result == MemberExportJob.Status.COMPLETED) {
+                Files.move(job.getPartPath(), job.getPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("회원 내보내기 실패. id={}, lastMemberId={}", job.getId(), job.getCheckpointMemberId(), e);
+            result = MemberExportJob.Status.FAILED;
+            error = e.toString();
+        }
+        job.finish(result, error);
+    }
+
+    // 청크 하나 (마지막 member_id 다음부터 chunkSize 행) : 더 읽을 행이 남았을 수 있으면 true
+    private boolean exportChunk(MemberExportJob job, MemberExportWriter writer) {
+        return Boolean.TRUE.equals(readOnlyTemplate.execute(status -> {
+            int rows = 0;
+            StringBuilder line = new StringBuilder(128);
+            try (CloseableIterator<MemberTeamDTO> iterator = largeResultFetch.iterate(chunkQuery(job.getCondition(), job.getLastMemberId()))) {
+                while (iterator.hasNext()) {
+                    if (job.isCancelRequested()) {
+                        return false;
+                    }
+                    MemberTeamDTO dto = iterator.next();
+                    line.setLength(0);
+                    job.getFormat().row(dto, line);
+                    writer.write(line);
+                    job.exported(dto.getMemberId());
+                    rows++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return rows == chunkSize;
+        }));
+    }
+
+    private JPAQuery<MemberTeamDTO> chunkQuery(MemberSearchCondition condition, long afterMemberId) {
+        return queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(MemberPredicates.where(usernameSearch, condition))
+                .where(member.id.gt(afterMemberId))
+                .orderBy(member.id.asc())
+                .limit(chunkSize);
+    }
+
+    private long count(MemberSearchCondition condition) {
+        Long count = readOnlyTemplate.execute(status -> queryFactory
+                .select(member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(MemberPredicates.where(usernameSearch, condition))
+                .fetchOne());
+        return count != null ? count : 0;
+    }
+
+    // 끝난 지 retention 이 지난 작업 정리
+    private void purgeExpired() {
+        Instant expiredBefore = Instant.now().minus(retention);
+        for (MemberExportJob job : jobs.values()) {
+            Instant finishedAt = job.getFinishedAt();
+            if (!job.isActive() && finishedAt != null && finishedAt.isBefore(expiredBefore)) {
+                remove(job);
+            }
+        }
+    }
+
+    private void deleteFiles(MemberExportJob job) {
+        try {
+            Files.deleteIfExists(job.getPartPath());
+            Files.deleteIfExists(job.getPath());
+        } catch (IOException e) {
+            log.warn("내보내기 파일 삭제 실패. id={}", job.getId(), e);
+        }
+    }
+
+    // 요청 바인딩 객체를 작업이 끝날 때까지 들고 있지 않도록 복사
+    private static MemberSearchCondition copy(MemberSearchCondition condition) {
+        MemberSearchCondition copy = new MemberSearchCondition();
+        copy.setUsername(condition.getUsername());
+        copy.setUsernameMatch(condition.getUsernameMatch());
+        copy.setTeamName(condition.getTeamName());
+        copy.setAgeGoe(condition.getAgeGoe());
+        copy.setAgeLoe(condition.getAgeLoe());
+        return copy;
+    }
+
+}
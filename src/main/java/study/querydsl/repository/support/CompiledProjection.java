@@ -0,0 +1,49 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+
+import java.util.List;
+
+/**
+ * FastProjections 가 만든 프로젝션 (QBean, QBeanConstructor 대신 select 절에 사용)
+ * 쿼리가 row 마다 newInstance() 를 호출하면 미리 만들어 둔 매퍼로 DTO 를 생성한다.
+ */
+public class CompiledProjection<T> extends FactoryExpressionBase<T> {
+
+    private final List<Expression<?>> args;
+    private final FastProjections.RowMapper<T> mapper;
+
+    CompiledProjection(Class<? extends T> type, List<Expression<?>> args, FastProjections.RowMapper<T> mapper) {
+        super(type);
+        this.args = args;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    public T newInstance(Object... row) {
+        return mapper.map(row);
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    // hashCode 는 ExpressionBase 의 final 구현 (HashCodeVisitor : getType() / getArgs() 로 계산) 이라 equals 와 같은 기준이다.
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        return obj instanceof CompiledProjection<?> other
+                && getType().equals(other.getType())
+                && args.equals(other.args);
+    }
+}
@@ -0,0 +1,115 @@
+package study.querydsl.repository.support;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * QueryDeadline 을 JDBC Statement 에 적용하는 DataSource
+ * Hibernate(JPA, Querydsl) / JdbcTemplate 구분 없이 모든 쿼리 실행(execute*) 에 대해
+ * 1. 남은 시간을 Statement.setQueryTimeout 으로 설정 (초 단위 올림, 드라이버 측 안전장치)
+ * 2. 마감 시각에 Statement.cancel() 예약 (밀리초 단위로 정확히 중단, MySQL 은 KILL QUERY)
+ * 3. 이미 마감이 지났으면 실행하지 않음
+ * 4. 실행 중인 Statement 를 QueryDeadline 에 등록해서 다른 스레드의 QueryDeadline.cancel() 로 바로 중단
+ * 마감 때문에 중단된 쿼리는 SQLTimeoutException 으로 바꿔 던지므로 Hibernate / JdbcTemplate 에서 QueryTimeoutException 이 된다.
+ */
+public class DeadlineDataSource extends DelegatingDataSource {
+
+    static final ScheduledExecutorService CANCELLER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "query-deadline-canceller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DeadlineDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private static Connection connection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return result instanceof Statement statement && method.getReturnType().isInterface()
+                            ? statement(statement, method.getReturnType())
+                            : result;
+                });
+    }
+
+    private static Object statement(Statement statement, Class<?> type) {
+        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> method.getName().startsWith("execute")
+                        ? execute(statement, method, args)
+                        : invoke(statement, method, args));
+    }
+
+    private static Object execute(Statement statement, Method method, Object[] args) throws Throwable {
+        Optional<QueryDeadline> current = QueryDeadline.current();
+        if (current.isEmpty()) {
+            return invoke(statement, method, args);
+        }
+        QueryDeadline deadline = current.get();
+        long nanos = deadline.remaining();
+        if (nanos <= 0) {
+            throw new SQLTimeoutException(deadline.isCancelled()
+                    ? "query cancelled before execution" : "query deadline exceeded before execution");
+        }
+
+        statement.setQueryTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + 999_999_999L)));
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ScheduledFuture<?> cancel = CANCELLER.schedule(() -> {
+            cancelled.set(true);
+            try {
+                statement.cancel();
+            } catch (SQLException ignored) {
+                // 이미 끝났거나 닫힌 Statement
+            }
+        }, nanos, TimeUnit.NANOSECONDS);
+        if (!deadline.started(statement)) {
+            cancel.cancel(false);
+            throw new SQLTimeoutException("query cancelled before execution");
+        }
+        try {
+            return invoke(statement, method, args);
+        } catch (SQLException e) {
+            if (cancelled.get() || deadline.isCancelled()) {
+                throw new SQLTimeoutException(deadline.isCancelled() ? "query cancelled" : "query deadline exceeded",
+                        e.getSQLState(), e.getErrorCode(), e);
+            }
+            throw e;
+        } finally {
+            deadline.finished(statement);
+            cancel.cancel(false);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+/**
+ * 실행 시 현재 요청의 남은 마감 시간을 JPA query timeout 힌트로 거는 JPAQuery
+ * (fetch / fetchOne / fetchCount / stream 모두 createQuery 를 거친다.)
+ */
+public class DeadlineJPAQuery<T> extends JPAQuery<T> {
+
+    public DeadlineJPAQuery(EntityManager em) {
+        super(em);
+    }
+
+    @Override
+    protected Query createQuery(QueryModifiers modifiers, boolean forCount) {
+        Query query = super.createQuery(modifiers, forCount);
+        QueryDeadline.timeoutHintMillis().ifPresent(millis -> query.setHint(QueryDeadline.TIMEOUT_HINT, (int) millis));
+        return query;
+    }
+}
@@ -0,0 +1,24 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+
+/**
+ * select / selectFrom / from 으로 만든 조회 쿼리에 DeadlineJPAQuery 를 쓰는 JPAQueryFactory
+ * (update / delete / insert 는 JPAQueryFactory 그대로, 실행 중 중단은 DeadlineDataSource 가 맡는다.)
+ */
+public class DeadlineJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager em;
+
+    public DeadlineJPAQueryFactory(EntityManager em) {
+        super(em);
+        this.em = em;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new DeadlineJPAQuery<Void>(em);
+    }
+}
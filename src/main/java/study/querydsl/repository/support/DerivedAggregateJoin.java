@@ -0,0 +1,99 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 행마다 다시 계산될 수 있는 집계 서브쿼리를 파생 테이블 조인으로 바꿔 실행 (Hibernate 6 HQL 의 from 절 서브쿼리)
+ * Querydsl 의 JPQL 은 from 절 서브쿼리를 만들 수 없으므로 Querydsl 경로 / 식을 JPQLSerializer 로 HQL 로 바꿔 조립한다.
+ * <pre>
+ * QMember sub = new QMember("sub");
+ * DerivedAggregateJoin.of(member, sub.age.avg(), sub)
+ *         .on(member.age.goe(DerivedAggregateJoin.value(Double.class)))
+ *         .fetch(em, member);
+ * -> select member1 from Member member1
+ *    join (select avg(sub.age) as aggValue from Member sub) agg on member1.age >= agg.aggValue
+ * </pre>
+ * 집계는 전체 테이블에 대한 집계 하나만 지원한다. (그룹별 집계는 윈도우 함수 native SQL 을 쓸 것, MemberAggregateRepository)
+ */
+public class DerivedAggregateJoin {
+
+    private static final String ALIAS = "agg";
+    private static final String VALUE = "aggValue";
+
+    private final EntityPath<?> root;
+    private final Expression<?> aggregate;
+    private final EntityPath<?> aggregateRoot;
+    private Predicate on;
+
+    private DerivedAggregateJoin(EntityPath<?> root, Expression<?> aggregate, EntityPath<?> aggregateRoot) {
+        this.root = root;
+        this.aggregate = aggregate;
+        this.aggregateRoot = aggregateRoot;
+    }
+
+    /**
+     * @param root          바깥 쿼리의 엔티티
+     * @param aggregate     집계 식 (aggregateRoot 의 경로로 만든 max / avg 등)
+     * @param aggregateRoot 집계 서브쿼리의 엔티티 (바깥 쿼리와 다른 별칭)
+     */
+    public static DerivedAggregateJoin of(EntityPath<?> root, Expression<?> aggregate, EntityPath<?> aggregateRoot) {
+        return new DerivedAggregateJoin(root, aggregate, aggregateRoot);
+    }
+
+    // 조인 조건 / 프로젝션에서 쓰는 집계 값
+    public static <N extends Number & Comparable<?>> NumberPath<N> value(Class<N> type) {
+        return Expressions.numberPath(type, Expressions.path(Object.class, ALIAS), VALUE);
+    }
+
+    // 없으면 모든 행에 집계 값을 붙인다. (on 1 = 1)
+    public DerivedAggregateJoin on(Predicate on) {
+        this.on = on;
+        return this;
+    }
+
+    /**
+     * @param projection 엔티티 경로 또는 Projections.constructor 등 (인자에 value() 를 쓸 수 있음)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> fetch(EntityManager em, Expression<T> projection) {
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT, em);
+        serializer.append("select ").handle(projection)
+                .append(" from ").append(entityName(em, root)).append(" ").handle(root)
+                .append(" join (select ").handle(aggregate).append(" as " + VALUE)
+                .append(" from ").append(entityName(em, aggregateRoot)).append(" ").handle(aggregateRoot)
+                .append(") " + ALIAS + " on ");
+        if (on != null) {
+            serializer.handle(on);
+        } else {
+            serializer.append("1 = 1");
+        }
+
+        if (projection instanceof FactoryExpression<T> factory) {
+            TypedQuery<Object[]> query = em.createQuery(serializer.toString(), Object[].class);
+            JPAUtil.setConstants(query, serializer.getConstants(), Map.of());
+            return query.getResultList().stream()
+                    .map(factory::newInstance)
+                    .toList();
+        }
+        TypedQuery<T> query = em.createQuery(serializer.toString(), (Class<T>) projection.getType());
+        JPAUtil.setConstants(query, serializer.getConstants(), Map.of());
+        return query.getResultList();
+    }
+
+    private static String entityName(EntityManager em, EntityPath<?> path) {
+        return em.getMetamodel().entity(path.getType()).getName();
+    }
+}
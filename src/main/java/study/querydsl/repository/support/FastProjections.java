@@ -0,0 +1,303 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean / fields / constructor 대체
+ * 매 row 마다 리플렉션을 하지 않도록 (DTO 클래스, 방식, alias 목록) 별로 한번만 매퍼를 만들어 캐시한다.
+ * - 기본 생성자 / setter : LambdaMetafactory 로 만든 Supplier / BiConsumer 호출
+ * - 필드 직접 주입, 인자 있는 생성자 : MethodHandle 호출
+ * - record 또는 기본 생성자가 없는 클래스 : alias 와 이름이 같은 생성자 파라미터로 주입 (-parameters 컴파일 옵션 필요)
+ * 사용법은 Projections 와 같다. ex) FastProjections.fields(UserDTO.class, member.username.as("name"), member.age)
+ */
+public final class FastProjections {
+
+    private static final Map<MapperKey, RowMapper<?>> mappers = new ConcurrentHashMap<>();
+
+    private FastProjections() {
+    }
+
+    public static <T> CompiledProjection<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        return projection(Mode.BEAN, type, exprs);
+    }
+
+    public static <T> CompiledProjection<T> fields(Class<? extends T> type, Expression<?>... exprs) {
+        return projection(Mode.FIELDS, type, exprs);
+    }
+
+    public static <T> CompiledProjection<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+        return projection(Mode.CONSTRUCTOR, type, exprs);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CompiledProjection<T> projection(Mode mode, Class<? extends T> type, Expression<?>... exprs) {
+        List<String> names = Arrays.stream(exprs).map(FastProjections::nameOf).toList();
+        List<Class<?>> argTypes = Arrays.stream(exprs).<Class<?>>map(Expression::getType).toList();
+        RowMapper<T> mapper = (RowMapper<T>) mappers.computeIfAbsent(new MapperKey(mode, type, names, argTypes),
+                key -> compile(key.mode(), key.type(), key.names(), key.argTypes()));
+        return new CompiledProjection<>((Class<T>) type, List.of(exprs), mapper);
+    }
+
+    // 매 row 마다 호출되는 매퍼
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(Object[] row);
+    }
+
+    private enum Mode {BEAN, FIELDS, CONSTRUCTOR}
+
+    private record MapperKey(Mode mode, Class<?> type, List<String> names, List<Class<?>> argTypes) {
+    }
+
+    private static RowMapper<?> compile(Mode mode, Class<?> type, List<String> names, List<Class<?>> argTypes) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            if (mode == Mode.CONSTRUCTOR) {
+                return constructorMapper(lookup, findConstructorByTypes(type, argTypes), identity(names.size()));
+            }
+            if (names.contains(null)) {
+                throw new NoSuchFieldException("bean / fields 방식은 모든 인자에 이름(path 또는 alias) 이 필요합니다.");
+            }
+            Constructor<?> noArgs = findNoArgsConstructor(type);
+            if (type.isRecord() || noArgs == null) {
+                Constructor<?> constructor = findConstructorByNames(type, names);
+                return constructorMapper(lookup, constructor, argumentOrder(constructor, type, names));
+            }
+            return beanMapper(lookup, type, noArgs, mode, names);
+        } catch (ReflectiveOperationException e) {
+            throw new ExpressionException("프로젝션 매퍼를 만들 수 없습니다. type=" + type.getName() + ", names=" + names, e);
+        }
+    }
+
+    private static RowMapper<?> constructorMapper(MethodHandles.Lookup lookup, Constructor<?> constructor,
+                                                  int[] order) throws IllegalAccessException {
+        int arity = constructor.getParameterCount();
+        MethodHandle handle = lookup.unreflectConstructor(constructor)
+                .asType(MethodType.genericMethodType(arity))
+                .asSpreader(Object[].class, arity);
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        boolean inOrder = Arrays.equals(order, identity(arity));
+        return row -> {
+            // 순서가 같고 primitive 자리에 null 이 없으면 row 배열을 그대로 사용 (복사 없음)
+            Object[] args = inOrder && row.length == arity && !hasNullPrimitive(row, parameterTypes) ? row : new Object[arity];
+            if (args != row) {
+                for (int i = 0; i < arity; i++) {
+                    Object value = row[order[i]];
+                    args[i] = value != null || !parameterTypes[i].isPrimitive() ? value : defaultValue(parameterTypes[i]);
+                }
+            }
+            try {
+                return handle.invokeExact(args);
+            } catch (Throwable e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RowMapper<?> beanMapper(MethodHandles.Lookup lookup, Class<?> type, Constructor<?> noArgs,
+                                           Mode mode, List<String> names) throws ReflectiveOperationException {
+        Supplier<Object> factory = supplier(lookup, noArgs);
+        BiConsumer<Object, Object>[] setters = new BiConsumer[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            Method setter = mode == Mode.BEAN ? findSetter(type, names.get(i)) : null;
+            setters[i] = setter != null ? setterConsumer(lookup, type, setter) : fieldConsumer(lookup, findField(type, names.get(i)));
+        }
+        return row -> {
+            Object bean = factory.get();
+            for (int i = 0; i < setters.length; i++) {
+                if (row[i] != null) { // Projections.bean 과 동일하게 null 은 주입하지 않음
+                    setters[i].accept(bean, row[i]);
+                }
+            }
+            return bean;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> supplier(MethodHandles.Lookup lookup, Constructor<?> noArgs) throws ReflectiveOperationException {
+        MethodHandle handle = lookup.unreflectConstructor(noArgs);
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), handle, MethodType.methodType(noArgs.getDeclaringClass()));
+            return (Supplier<Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return generic.invokeExact();
+                } catch (Throwable t) {
+                    throw new ExpressionException(t.getMessage(), t);
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setterConsumer(MethodHandles.Lookup lookup, Class<?> type, Method setter)
+            throws IllegalAccessException {
+        MethodHandle handle = lookup.unreflect(setter);
+        try {
+            Class<?> valueType = wrap(setter.getParameterTypes()[0]);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class), handle,
+                    MethodType.methodType(void.class, type, valueType));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            return handleConsumer(handle.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+        }
+    }
+
+    private static BiConsumer<Object, Object> fieldConsumer(MethodHandles.Lookup lookup, Field field) throws IllegalAccessException {
+        return handleConsumer(lookup.unreflectSetter(field)
+                .asType(MethodType.methodType(void.class, Object.class, Object.class)));
+    }
+
+    private static BiConsumer<Object, Object> handleConsumer(MethodHandle handle) {
+        return (bean, value) -> {
+            try {
+                handle.invokeExact(bean, value);
+            } catch (Throwable e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+        };
+    }
+
+    private static Constructor<?> findNoArgsConstructor(Class<?> type) {
+        try {
+            return type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Constructor<?> findConstructorByTypes(Class<?> type, List<Class<?>> argTypes) throws NoSuchMethodException {
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length != argTypes.size()) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < parameterTypes.length && matches; i++) {
+                matches = wrap(parameterTypes[i]).isAssignableFrom(wrap(argTypes.get(i)));
+            }
+            if (matches) {
+                return constructor;
+            }
+        }
+        throw new NoSuchMethodException(type.getName() + " 에 " + argTypes + " 타입의 생성자가 없습니다.");
+    }
+
+    private static Constructor<?> findConstructorByNames(Class<?> type, List<String> names) throws NoSuchMethodException {
+        if (type.isRecord()) {
+            Class<?>[] componentTypes = Arrays.stream(type.getRecordComponents())
+                    .map(RecordComponent::getType)
+                    .toArray(Class<?>[]::new);
+            return type.getDeclaredConstructor(componentTypes);
+        }
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            List<String> parameterNames = Arrays.stream(constructor.getParameters()).map(Parameter::getName).toList();
+            if (parameterNames.size() == names.size() && parameterNames.containsAll(names)) {
+                return constructor;
+            }
+        }
+        throw new NoSuchMethodException(type.getName() + " 에 기본 생성자나 " + names + " 이름의 파라미터를 가진 생성자가 없습니다.");
+    }
+
+    // 생성자 파라미터 i 번째에 들어갈 row 의 위치
+    private static int[] argumentOrder(Constructor<?> constructor, Class<?> type, List<String> names) throws NoSuchMethodException {
+        String[] parameterNames = type.isRecord()
+                ? Arrays.stream(type.getRecordComponents()).map(RecordComponent::getName).toArray(String[]::new)
+                : Arrays.stream(constructor.getParameters()).map(Parameter::getName).toArray(String[]::new);
+        int[] order = new int[parameterNames.length];
+        for (int i = 0; i < parameterNames.length; i++) {
+            order[i] = names.indexOf(parameterNames[i]);
+            if (order[i] < 0) {
+                throw new NoSuchMethodException(type.getName() + " 의 " + parameterNames[i] + " 에 해당하는 alias 가 없습니다.");
+            }
+        }
+        return order;
+    }
+
+    private static Method findSetter(Class<?> type, String name) {
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (method.getName().equals(setterName) && method.getParameterCount() == 1
+                        && !Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Field findField(Class<?> type, String name) throws NoSuchFieldException {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            try {
+                return current.getDeclaredField(name);
+            } catch (NoSuchFieldException ignored) {
+                // 상위 클래스에서 계속 찾는다.
+            }
+        }
+        throw new NoSuchFieldException(type.getName() + "." + name);
+    }
+
+    private static String nameOf(Expression<?> expr) {
+        if (expr instanceof Path<?> path) {
+            return path.getMetadata().getName();
+        }
+        if (expr instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS) {
+            return nameOf(operation.getArg(1));
+        }
+        return null; // 생성자 방식에서는 이름이 필요 없음
+    }
+
+    private static int[] identity(int size) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    private static boolean hasNullPrimitive(Object[] row, Class<?>[] parameterTypes) {
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (row[i] == null && parameterTypes[i].isPrimitive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    private static Object defaultValue(Class<?> primitive) {
+        return Array.get(Array.newInstance(primitive, 1), 0);
+    }
+}
@@ -0,0 +1,221 @@
+package study.querydsl.repository.support;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.conf.PropertySet;
+import com.mysql.cj.jdbc.JdbcConnection;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 대용량 조회용 Querydsl 쿼리에 fetch size 힌트를 적용
+ * fetch size 는 프로젝션의 행 크기 추정치와 현재 남은 힙 메모리로 계산한다.
+ * (남은 힙 x memoryFraction) / 행 크기 를 [minFetchSize, maxFetchSize] 로 제한
+ * 적용한 쿼리는 stream(query) 또는 iterate(query) 로 읽어야 효과가 있다. (fetch() 는 결국 전체를 List 로 만든다)
+ * MySQL 의 CURSOR 모드는 이 쿼리를 준비하는 동안만 커넥션에 useCursorFetch 를 켠다. (URL 에 켜면 모든 쿼리가 서버 prepared statement 가 된다)
+ */
+@Slf4j
+@Component
+public class LargeResultFetch {
+
+    private static final int ROW_OVERHEAD_BYTES = 32; // 드라이버의 행 객체 / 배열 헤더
+    private static final int STRING_BYTES = 64; // varchar 평균 추정치
+    private static final int NUMBER_BYTES = 16;
+    private static final int OTHER_BYTES = 32;
+
+    private final EntityManagerFactory emf;
+    private final EntityManager em;
+    private final LargeResultMode mode;
+    private final boolean mysql;
+    private final double memoryFraction;
+    private final int minFetchSize;
+    private final int maxFetchSize;
+    private final Map<Class<?>, Long> entityRowBytes = new ConcurrentHashMap<>();
+
+    public LargeResultFetch(EntityManagerFactory emf,
+                            EntityManager em,
+                            @Value("${member.large-result.mode:CURSOR}") LargeResultMode mode,
+                            @Value("${member.large-result.memory-fraction:0.01}") double memoryFraction,
+                            @Value("${member.large-result.min-fetch-size:100}") int minFetchSize,
+                            @Value("${member.large-result.max-fetch-size:10000}") int maxFetchSize) {
+        this.emf = emf;
+        this.em = em;
+        this.memoryFraction = memoryFraction;
+        this.minFetchSize = minFetchSize;
+        this.maxFetchSize = maxFetchSize;
+
+        this.mysql = emf.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof MySQLDialect;
+        if (mode == LargeResultMode.STREAM && !mysql) {
+            log.info("member.large-result.mode=STREAM 은 MySQL 에서만 지원되어 CURSOR 로 동작합니다.");
+            this.mode = LargeResultMode.CURSOR;
+        } else {
+            this.mode = mode;
+        }
+    }
+
+    public <T> JPAQuery<T> apply(JPAQuery<T> query) {
+        Integer fetchSize = fetchSize(query.getMetadata().getProjection());
+        return fetchSize != null ? query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize) : query;
+    }
+
+    /**
+     * 힌트를 적용한 쿼리를 Stream 으로 읽기 (트랜잭션 안에서 호출하고 닫을 것)
+     * MySQL CURSOR 모드는 statement 를 준비하는 동안만 현재 커넥션에 useCursorFetch 를 켜고 바로 되돌린다.
+     * (Connector/J 는 prepare 시점의 설정으로 서버 커서 사용 여부를 정하므로 이 쿼리만 서버 커서로 읽는다)
+     */
+    public <T> Stream<T> stream(JPAQuery<T> query) {
+        JPAQuery<T> applied = apply(query);
+        if (mode != LargeResultMode.CURSOR || !mysql) {
+            return applied.stream();
+        }
+        Session session = em.unwrap(Session.class);
+        CursorFetch cursorFetch = session.doReturningWork(CursorFetch::enable);
+        try {
+            return applied.stream();
+        } finally {
+            if (cursorFetch != null) {
+                session.doWork(cursorFetch::restore);
+            }
+        }
+    }
+
+    /**
+     * 힌트를 적용한 쿼리를 CloseableIterator 로 읽기
+     * Querydsl 5.0 의 JPAQuery.iterate() 는 Hibernate 5 의 ScrollableResults.get(int) 를 호출하도록 컴파일되어 있어
+     * Hibernate 6 에서는 NoSuchMethodError 가 나므로 stream() 기반으로 감싼다.
+     */
+    public <T> CloseableIterator<T> iterate(JPAQuery<T> query) {
+        return iterator(stream(query));
+    }
+
+    // 닫으면 stream 도 닫히는 iterator
+    public static <T> CloseableIterator<T> iterator(Stream<T> stream) {
+        Iterator<T> iterator = stream.iterator();
+        return new CloseableIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+                stream.close();
+            }
+        };
+    }
+
+    // 드라이버 기본값을 쓰면 null
+    public Integer fetchSize(Expression<?> projection) {
+        return switch (mode) {
+            case BUFFERED -> null;
+            case STREAM -> Integer.MIN_VALUE;
+            case CURSOR -> adaptiveFetchSize(estimateRowBytes(projection), availableHeapBytes(),
+                    memoryFraction, minFetchSize, maxFetchSize);
+        };
+    }
+
+    static int adaptiveFetchSize(long rowBytes, long availableBytes, double memoryFraction, int min, int max) {
+        long rows = (long) (availableBytes * memoryFraction) / Math.max(rowBytes, 1);
+        return (int) Math.max(min, Math.min(max, rows));
+    }
+
+    long estimateRowBytes(Expression<?> projection) {
+        return ROW_OVERHEAD_BYTES + columnBytes(projection);
+    }
+
+    private long columnBytes(Expression<?> expression) {
+        if (expression == null) {
+            return OTHER_BYTES;
+        }
+        if (expression instanceof FactoryExpression<?> factory) {
+            return factory.getArgs().stream().mapToLong(this::columnBytes).sum();
+        }
+        if (expression instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS) {
+            return columnBytes(operation.getArg(0));
+        }
+        if (expression instanceof EntityPath<?>) {
+            return entityRowBytes.computeIfAbsent(expression.getType(), this::entityBytes);
+        }
+        return typeBytes(expression.getType());
+    }
+
+    // 엔티티의 단일 값 속성 합계 (연관관계는 FK 컬럼 하나, 컬렉션은 조회 컬럼이 아니므로 제외)
+    private long entityBytes(Class<?> entityClass) {
+        EntityType<?> entityType = emf.getMetamodel().entity(entityClass);
+        long bytes = 0;
+        for (Attribute<?, ?> attribute : entityType.getAttributes()) {
+            if (attribute.isCollection()) {
+                continue;
+            }
+            bytes += attribute.isAssociation() ? NUMBER_BYTES : typeBytes(attribute.getJavaType());
+        }
+        return bytes;
+    }
+
+    private static long typeBytes(Class<?> type) {
+        if (type == String.class) {
+            return STRING_BYTES;
+        }
+        if (type.isPrimitive() || Number.class.isAssignableFrom(type) || type == Boolean.class) {
+            return NUMBER_BYTES;
+        }
+        return OTHER_BYTES;
+    }
+
+    // 커넥션의 useCursorFetch / useServerPrepStmts 이전 값 (서버 커서는 서버 prepared statement 에서만 동작)
+    private record CursorFetch(boolean useCursorFetch, boolean useServerPrepStmts) {
+
+        // MySQL 커넥션이 아니면 null
+        static CursorFetch enable(Connection connection) throws SQLException {
+            if (!connection.isWrapperFor(JdbcConnection.class)) {
+                return null;
+            }
+            PropertySet properties = connection.unwrap(JdbcConnection.class).getPropertySet();
+            CursorFetch previous = new CursorFetch(
+                    properties.getBooleanProperty(PropertyKey.useCursorFetch).getValue(),
+                    properties.getBooleanProperty(PropertyKey.useServerPrepStmts).getValue());
+            properties.getBooleanProperty(PropertyKey.useCursorFetch).setValue(true);
+            properties.getBooleanProperty(PropertyKey.useServerPrepStmts).setValue(true);
+            return previous;
+        }
+
+        void restore(Connection connection) throws SQLException {
+            PropertySet properties = connection.unwrap(JdbcConnection.class).getPropertySet();
+            properties.getBooleanProperty(PropertyKey.useCursorFetch).setValue(useCursorFetch);
+            properties.getBooleanProperty(PropertyKey.useServerPrepStmts).setValue(useServerPrepStmts);
+        }
+    }
+
+    private static long availableHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    }
+}
@@ -0,0 +1,12 @@
+package study.querydsl.repository.support;
+
+/**
+ * 대용량 조회 시 JDBC 드라이버가 결과를 가져오는 방식 (member.large-result.mode)
+ * BUFFERED : 드라이버 기본값. MySQL Connector/J 는 결과 전체를 클라이언트 메모리에 올린다.
+ * CURSOR   : 서버 커서로 fetch size 만큼씩 가져온다. (MySQL 은 그 쿼리에만 useCursorFetch 를 켠다, LargeResultFetch.stream)
+ * STREAM   : MySQL 행 단위 스트리밍 (fetch size = Integer.MIN_VALUE). 결과를 다 읽거나 닫을 때까지
+ *            같은 커넥션으로 다른 쿼리를 실행할 수 없다. MySQL 이 아니면 CURSOR 로 동작한다.
+ */
+public enum LargeResultMode {
+    BUFFERED, CURSOR, STREAM
+}
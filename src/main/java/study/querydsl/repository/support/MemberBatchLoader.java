@@ -0,0 +1,156 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * findById 단건 조회 요청을 짧은 시간(window) 동안 모아서 한번의 in 쿼리로 조회 (DataLoader 방식)
+ * - window 가 지나거나 maxBatchSize 만큼 모이면 즉시 조회
+ * - 같은 id 를 동시에 요청하면 하나의 조회 결과를 공유
+ * 별도 스레드의 읽기 전용 트랜잭션에서 조회하므로 반환되는 Member 는 준영속 상태 (team 은 fetch join 으로 로딩됨)
+ * 타이머 스레드는 모인 요청을 넘기기만 하고, 조회는 크기가 고정된 dispatch 풀에서 실행한다. (대기열이 가득 차면 그 배치는 실패)
+ * 명시적으로 요청한 조회만 이 로더를 거친다. (MemberRepository / MemberJpaRepository 의 findByIdBatched, findById 는 그대로)
+ * 현재 스레드에 EntityManager 가 열려 있으면(트랜잭션, OSIV) 로더를 거치지 않고 em.find 로 조회한다.
+ * (같은 영속성 컨텍스트의 관리 엔티티 / 커밋 전 변경을 봐야 하고, 준영속 엔티티의 지연 로딩 실패와 window 대기를 피하기 위해)
+ */
+@Slf4j
+@Component
+public class MemberBatchLoader {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManagerFactory emf;
+    private final TransactionTemplate readOnlyTx;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "member-batch-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ThreadPoolExecutor dispatchExecutor;
+
+    private Map<Long, CompletableFuture<Optional<Member>>> pending = new HashMap<>();
+    private ScheduledFuture<?> scheduledDispatch;
+
+    public MemberBatchLoader(JPAQueryFactory queryFactory,
+                             EntityManagerFactory emf,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${member.batch-loader.window:2ms}") Duration window,
+                             @Value("${member.batch-loader.max-batch-size:" + MultiGetResult.DEFAULT_IN_LIST_SIZE + "}") int maxBatchSize,
+                             @Value("${member.batch-loader.threads:4}") int threads,
+                             @Value("${member.batch-loader.queue-capacity:64}") int queueCapacity) {
+        this.queryFactory = queryFactory;
+        this.emf = emf;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.dispatchExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "member-batch-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Optional<Member>> load(Long id) {
+        if (id == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        synchronized (this) {
+            CompletableFuture<Optional<Member>> future = pending.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                submit(takePending());
+            } else if (scheduledDispatch == null) {
+                scheduledDispatch = scheduler.schedule(() -> submit(takePending()),
+                        window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            return future;
+        }
+    }
+
+    // 동기 호출용 (영속성 컨텍스트와 관계없이 항상 배치 조회)
+    public Optional<Member> findById(Long id) {
+        try {
+            return load(id).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // 현재 스레드에 EntityManager 가 열려 있으면(트랜잭션, OSIV) inContext (영속성 컨텍스트 조회), 아니면 배치 조회
+    public Optional<Member> findById(Long id, Supplier<Optional<Member>> inContext) {
+        return TransactionSynchronizationManager.hasResource(emf) ? inContext.get() : findById(id);
+    }
+
+    private synchronized Map<Long, CompletableFuture<Optional<Member>>> takePending() {
+        Map<Long, CompletableFuture<Optional<Member>>> batch = pending;
+        pending = new HashMap<>();
+        if (scheduledDispatch != null) {
+            scheduledDispatch.cancel(false);
+            scheduledDispatch = null;
+        }
+        return batch;
+    }
+
+    private void submit(Map<Long, CompletableFuture<Optional<Member>>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            dispatchExecutor.execute(() -> dispatch(batch));
+        } catch (RejectedExecutionException e) {
+            log.warn("member batch load rejected. size={}", batch.size());
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<Optional<Member>>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            MultiGetResult<Member> result = readOnlyTx.execute(status ->
+                    MemberMultiGet.findAllByIds(queryFactory, batch.keySet()));
+            for (Member member : result.getResults()) {
+                batch.get(member.getId()).complete(Optional.of(member));
+            }
+            for (Long missingId : result.getMissingIds()) {
+                batch.get(missingId).complete(Optional.empty());
+            }
+        } catch (RuntimeException e) {
+            log.warn("member batch load failed. size={}", batch.size(), e);
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        dispatch(takePending());
+        dispatchExecutor.shutdown();
+    }
+}
@@ -0,0 +1,259 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSyncDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * username 기준 회원 일괄 upsert (MemberRepository.upsertAll, member.upsert.*)
+ * 레코드를 batch-size 단위로 나눠 청크마다 한 트랜잭션에서
+ * 1. 팀 이름 -> team_id 일괄 조회 (없는 팀은 생성)
+ * 2. username -> 기존 회원 (member_id, age, team_id) 일괄 조회
+ * 3. 값이 같으면 unchanged, 다르면 update, 없으면 member_seq 에서 id 를 발급해 insert
+ * 4. insert / update 를 JDBC 배치로 실행
+ *    ON_DUPLICATE_KEY : insert ... as new on duplicate key update 한 번의 배치 (MySQL 8.0.20+)
+ *    PORTABLE         : insert 배치 + update 배치
+ * username 에는 unique 키가 없으므로(벌크 update 로 같은 이름이 생길 수 있음) 조회한 member_id 를 키로 쓴다.
+ * 그래서 ON_DUPLICATE_KEY 의 중복 키는 PK(member_id) 뿐이고, 2번에서 이미 나눈 insert / update 를 한 문장으로 보내는 것일 뿐이다.
+ * (새 회원은 새로 발급한 id 라서 중복될 수 없고, 다른 트랜잭션이 같은 username 을 먼저 insert 해도 감지하지 못한다)
+ * 같은 username 의 회원이 여럿이면 member_id 가 가장 작은 회원을 갱신한다.
+ * update 는 version 을 올리므로 같은 회원을 읽고 수정 중인 트랜잭션은 충돌(OptimisticRetry 재시도) 로 최신 값을 다시 읽는다.
+ * 동시에 같은 username 을 upsert 하면 중복 insert 될 수 있으므로 동기화 작업은 하나만 실행할 것
+ * 호출 측 트랜잭션이 있으면 참여하고, 없으면 청크마다 커밋한다. (실패 시 이전 청크는 반영된 상태)
+ * 청크마다 영속성 컨텍스트를 비우는 것은 청크 트랜잭션을 새로 시작했을 때만 한다.
+ * 호출 측 트랜잭션에 참여했으면 호출 측 엔티티를 준영속으로 만들지 않도록 JDBC 로 바꾼 회원 중 관리 중인 것만 DB 값으로 refresh 한다.
+ */
+@Slf4j
+@Component
+public class MemberBulkUpsert {
+
+    public enum Sql {
+        AUTO, // MySQL 이면 ON_DUPLICATE_KEY, 아니면 PORTABLE
+        ON_DUPLICATE_KEY,
+        PORTABLE
+    }
+
+    // 행 별칭 (MySQL 8.0.20+, values(col) 은 deprecated)
+    private static final String UPSERT_SQL = "insert into member (member_id, username, age, team_id) values (?, ?, ?, ?) as new"
+            + " on duplicate key update age = new.age, team_id = new.team_id, version = version + 1";
+    private static final String INSERT_SQL = "insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "update member set age = ?, team_id = ?, version = version + 1 where member_id = ?";
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UsernameSearch usernameSearch;
+    private final MemberSearchViewWriter searchViewWriter;
+    private final MemberShards shards;
+    private final MemberDataVersion dataVersion;
+    private final int batchSize;
+    private final Sql sql;
+
+    private volatile Sql resolvedSql;
+
+    public MemberBulkUpsert(EntityManager em,
+                            JPAQueryFactory queryFactory,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            UsernameSearch usernameSearch,
+                            MemberSearchViewWriter searchViewWriter,
+                            MemberShards shards,
+                            MemberDataVersion dataVersion,
+                            @Value("${member.upsert.batch-size:" + MultiGetResult.DEFAULT_IN_LIST_SIZE + "}") int batchSize,
+                            @Value("${member.upsert.sql:AUTO}") Sql sql) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.usernameSearch = usernameSearch;
+        this.searchViewWriter = searchViewWriter;
+        this.shards = shards;
+        this.dataVersion = dataVersion;
+        this.batchSize = batchSize;
+        this.sql = sql;
+    }
+
+    public UpsertResult upsertAll(Stream<MemberSyncDTO> records) {
+        shards.checkPrimaryMemberWrite();
+        UpsertResult result = UpsertResult.EMPTY;
+        Iterator<MemberSyncDTO> iterator = records.iterator();
+        // 청크 안에서 같은 username 은 마지막 레코드만 반영
+        Map<String, MemberSyncDTO> chunk = new LinkedHashMap<>();
+        while (iterator.hasNext()) {
+            MemberSyncDTO record = iterator.next();
+            chunk.put(Objects.requireNonNull(record.getUsername(), "username"), record);
+            if (chunk.size() >= batchSize) {
+                result = result.plus(upsertChunk(List.copyOf(chunk.values())));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            result = result.plus(upsertChunk(List.copyOf(chunk.values())));
+        }
+        log.debug("회원 upsert 완료 {}", result);
+        return result;
+    }
+
+    private UpsertResult upsertChunk(List<MemberSyncDTO> records) {
+        return transactionTemplate.execute(status -> {
+            em.flush(); // JDBC 조회가 영속성 컨텍스트의 변경을 보도록
+            Map<String, Long> teamIds = resolveTeams(records);
+            Map<String, Tuple> existing = findExisting(records);
+
+            List<Object[]> inserts = new ArrayList<>();
+            List<Object[]> updates = new ArrayList<>();
+            long unchanged = 0;
+            Map<Long, String> insertedUsernames = new HashMap<>();
+            for (MemberSyncDTO record : records) {
+                Long teamId = record.getTeamName() != null ? teamIds.get(record.getTeamName()) : null;
+                Tuple row = existing.get(record.getUsername());
+                if (row == null) {
+                    Long id = nextId();
+                    inserts.add(new Object[]{id, record.getUsername(), record.getAge(), teamId});
+                    insertedUsernames.put(id, record.getUsername());
+                } else if (row.get(member.age) == record.getAge() && Objects.equals(row.get(member.team.id), teamId)) {
+                    unchanged++;
+                } else {
+                    updates.add(new Object[]{row.get(member.id), record.getUsername(), record.getAge(), teamId});
+                }
+            }
+
+            if (sql() == Sql.ON_DUPLICATE_KEY) {
+                List<Object[]> rows = new ArrayList<>(inserts);
+                rows.addAll(updates);
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+                }
+            } else {
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                }
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, updates.stream()
+                            .map(row -> new Object[]{row[2], row[3], row[0]})
+                            .toList());
+                }
+            }
+            // JDBC 로 쓴 행은 엔티티 리스너를 거치지 않으므로 n-gram 인덱스 (update 는 username 이 그대로) / 검색 뷰 / 데이터 버전을 직접 갱신
+            insertedUsernames.forEach(usernameSearch::indexed);
+            List<Long> written = new ArrayList<>(insertedUsernames.keySet());
+            updates.forEach(row -> written.add((Long) row[0]));
+            searchViewWriter.refresh(written);
+            if (!written.isEmpty()) {
+                dataVersion.changed();
+            }
+            if (status.isNewTransaction()) {
+                em.clear(); // 이번 청크에서 만든 팀, 바뀐 회원의 오래된 엔티티를 비움
+            } else {
+                refreshManaged(updates.stream().map(row -> (Long) row[0]).toList());
+            }
+            return new UpsertResult(inserts.size(), updates.size(), unchanged);
+        });
+    }
+
+    // 팀 이름 -> team_id (같은 이름이 여럿이면 가장 작은 id), 없는 팀은 생성
+    private Map<String, Long> resolveTeams(List<MemberSyncDTO> records) {
+        List<String> names = records.stream()
+                .map(MemberSyncDTO::getTeamName)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<String, Long> teamIds = new HashMap<>();
+        if (names.isEmpty()) {
+            return teamIds;
+        }
+        queryFactory
+                .select(team.name, team.id.min())
+                .from(team)
+                .where(team.name.in(names))
+                .groupBy(team.name)
+                .fetch()
+                .forEach(row -> teamIds.put(row.get(team.name), row.get(team.id.min())));
+
+        List<Team> created = new ArrayList<>();
+        for (String name : names) {
+            if (!teamIds.containsKey(name)) {
+                Team newTeam = new Team(name);
+                em.persist(newTeam);
+                created.add(newTeam);
+            }
+        }
+        if (!created.isEmpty()) {
+            em.flush();
+            created.forEach(newTeam -> teamIds.put(newTeam.getName(), newTeam.getId()));
+        }
+        return teamIds;
+    }
+
+    // username -> 기존 회원 (member_id, age, team_id), 같은 username 이 여럿이면 가장 작은 member_id
+    private Map<String, Tuple> findExisting(List<MemberSyncDTO> records) {
+        List<Tuple> rows = queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member)
+                .where(member.username.in(records.stream().map(MemberSyncDTO::getUsername).toList()))
+                .orderBy(member.id.asc())
+                .fetch();
+        Map<String, Tuple> existing = new HashMap<>();
+        for (Tuple row : rows) {
+            existing.putIfAbsent(row.get(member.username), row);
+        }
+        return existing;
+    }
+
+    // JDBC update 로 오래된 값이 된 관리 중인 회원을 다시 읽는다. (호출 측의 변경은 청크 시작 시 flush 되어 있음)
+    private void refreshManaged(List<Long> memberIds) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+        for (Long memberId : memberIds) {
+            Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(memberId, persister));
+            if (managed != null) {
+                em.refresh(managed);
+            }
+        }
+    }
+
+    private Long nextId() {
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Member.class).getGenerator();
+        return (Long) generator.generate(session, null);
+    }
+
+    private Sql sql() {
+        if (sql != Sql.AUTO) {
+            return sql;
+        }
+        if (resolvedSql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            resolvedSql = "MySQL".equals(product) ? Sql.ON_DUPLICATE_KEY : Sql.PORTABLE;
+        }
+        return resolvedSql;
+    }
+}
@@ -0,0 +1,241 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 회원 검색 결과의 데이터 버전 (조건부 GET 의 ETag 용, MemberEtag)
+ * - 전체("*") : 회원 / 팀이 바뀔 때마다 증가 -> teamName 조건이 없는 검색
+ * - 팀 이름별("team:이름") : 그 팀 소속 회원이 추가 / 수정 / 삭제되거나 팀에 들어오고 나갈 때, 팀 이름이 바뀔 때 증가 -> teamName 조건 검색
+ * - 팀 모름("?") : 어느 팀이 바뀌었는지 모를 때(벌크 update, JDBC 쓰기, 로딩되지 않은 팀) 증가 -> 모든 teamName 조건 검색
+ * 카운터는 DB(member_data_version) 에 있고 쓰기와 같은 트랜잭션에서 올리므로, 다른 인스턴스의 쓰기도 커밋되는 순간 보인다.
+ * (롤백되면 버전도 그대로, 검색 쪽은 쿼리 전에 버전을 읽는다.)
+ * 엔티티 변경은 Hibernate post insert / update / delete 이벤트로 모으고, 트랜잭션 커밋 직전(flush 후) 에 한 번에 올린다.
+ * 잠금을 커밋 직전에만 잡고, scope 순서대로 올려서 쓰기 트랜잭션끼리 교착되지 않는다.
+ * 엔티티를 거치지 않는 쓰기는 같은 트랜잭션 안에서 changed() 를 호출할 것
+ * 애플리케이션을 거치지 않는 쓰기(직접 실행한 SQL) 는 반영되지 않는다.
+ */
+@Component
+public class MemberDataVersion {
+
+    private static final String GLOBAL = "*";
+    private static final String ANY_TEAM = "?";
+    private static final String TEAM = "team:";
+    private static final String BUMP_SQL = "insert into member_data_version (scope, stripe, version) values (?, ?, 1)"
+            + " on duplicate key update version = version + 1";
+
+    private final EntityManagerFactory emf;
+    private final JdbcTemplate jdbcTemplate;
+    private final int stripes;
+
+    public MemberDataVersion(EntityManagerFactory emf,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${member.etag.version-stripes:16}") int stripes) {
+        this.emf = emf;
+        this.jdbcTemplate = jdbcTemplate;
+        this.stripes = stripes;
+        // 모든 쓰기가 올리는 scope 의 행은 미리 만들어 둔다. (동시에 새 행을 insert 할 때의 gap 잠금 교착 방지)
+        jdbcTemplate.batchUpdate("insert into member_data_version (scope, stripe, version) values (?, ?, 0)"
+                        + " on duplicate key update version = version",
+                IntStream.range(0, stripes).boxed()
+                        .flatMap(stripe -> Stream.of(new Object[]{GLOBAL, stripe}, new Object[]{ANY_TEAM, stripe}))
+                        .toList());
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        Listener listener = new Listener();
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    // 검색 조건이 보는 데이터의 버전 (쿼리 실행 전에 읽을 것)
+    public String version(MemberSearchCondition condition) {
+        if (condition.getTeamName() == null) {
+            return version();
+        }
+        String team = TEAM + key(condition.getTeamName());
+        Map<String, Long> versions = read(List.of(ANY_TEAM, team));
+        return versions.getOrDefault(ANY_TEAM, 0L) + "." + versions.getOrDefault(team, 0L);
+    }
+
+    // 전체 데이터 버전 (팀 조건과 무관한 결과, 예 : 팀별 회원 수)
+    public String version() {
+        return String.valueOf(read(List.of(GLOBAL)).getOrDefault(GLOBAL, 0L));
+    }
+
+    // 엔티티를 거치지 않은 쓰기 (트랜잭션 안이면 그 트랜잭션의 커밋과 함께 반영)
+    public void changed() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+            if (em != null) {
+                pending(em.unwrap(SessionImplementor.class)).anyTeam = true;
+                return;
+            }
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            bump(connection, Set.of(), true); // 자동 커밋
+            return null;
+        });
+    }
+
+    private Map<String, Long> read(List<String> scopes) {
+        Map<String, Long> versions = new HashMap<>();
+        jdbcTemplate.query("select scope, sum(version) from member_data_version where scope in ("
+                        + String.join(",", scopes.stream().map(scope -> "?").toList()) + ") group by scope",
+                rs -> {
+                    versions.put(rs.getString(1), rs.getLong(2));
+                }, scopes.toArray());
+        return versions;
+    }
+
+    // scope 이름 순서로 한 행씩 (stripe 는 임의)
+    private void bump(Connection connection, Set<String> teamNames, boolean anyTeam) throws SQLException {
+        Set<String> scopes = new TreeSet<>();
+        scopes.add(GLOBAL);
+        if (anyTeam) {
+            scopes.add(ANY_TEAM);
+        }
+        teamNames.forEach(name -> scopes.add(TEAM + name));
+        try (PreparedStatement statement = connection.prepareStatement(BUMP_SQL)) {
+            for (String scope : scopes) {
+                statement.setString(1, scope);
+                statement.setInt(2, ThreadLocalRandom.current().nextInt(stripes));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    // 현재 트랜잭션의 변경 모음 (REQUIRES_NEW 안쪽 트랜잭션은 따로 모인다.)
+    private Pending pending(SessionImplementor session) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                if (synchronization instanceof Pending pending && pending.owner() == this) {
+                    return pending;
+                }
+            }
+        }
+        Pending pending = new Pending();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(pending); // 같은 트랜잭션에서 다시 찾기 위한 등록
+        }
+        session.getActionQueue().registerProcess(pending);
+        return pending;
+    }
+
+    // MySQL 기본 collation 은 대소문자 / 뒤 공백을 무시하므로 같은 이름으로 본다.
+    private static String key(String teamName) {
+        return teamName.stripTrailing().toLowerCase(Locale.ROOT);
+    }
+
+    // flush 가 끝난 뒤, 같은 JDBC 트랜잭션에서 커밋 직전에 실행
+    private class Pending implements TransactionSynchronization, BeforeTransactionCompletionProcess {
+
+        final Set<String> teamNames = new TreeSet<>();
+        boolean anyTeam;
+
+        MemberDataVersion owner() {
+            return MemberDataVersion.this;
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            session.doWork(connection -> bump(connection, teamNames, anyTeam));
+        }
+    }
+
+    private class Listener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof Member member) {
+                memberChanged(event.getSession(), member.getTeam(), null, false);
+            } else if (event.getEntity() instanceof Team team) {
+                pending(event.getSession()).teamNames.add(key(String.valueOf(team.getName())));
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            Object[] oldState = event.getOldState();
+            if (event.getEntity() instanceof Member member) {
+                if (oldState == null) {
+                    memberChanged(event.getSession(), member.getTeam(), null, true);
+                } else {
+                    memberChanged(event.getSession(), member.getTeam(), oldState[event.getPersister().getPropertyIndex("team")], false);
+                }
+            } else if (event.getEntity() instanceof Team team) {
+                Pending pending = pending(event.getSession());
+                pending.teamNames.add(key(String.valueOf(team.getName())));
+                Object oldName = oldState != null ? oldState[event.getPersister().getPropertyIndex("name")] : null;
+                if (oldName instanceof String name) {
+                    pending.teamNames.add(key(name));
+                }
+                pending.anyTeam |= oldState == null;
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof Member member) {
+                memberChanged(event.getSession(), member.getTeam(), null, false);
+            } else if (event.getEntity() instanceof Team team) {
+                pending(event.getSession()).teamNames.add(key(String.valueOf(team.getName())));
+            }
+        }
+
+        // 현재 팀 + 이전 팀 (로딩되지 않은 팀은 이름을 모르므로 팀 모름)
+        private void memberChanged(SessionImplementor session, Object team, Object oldTeam, boolean unknownTeam) {
+            Pending pending = pending(session);
+            pending.anyTeam |= unknownTeam;
+            for (Object value : new Object[]{team, oldTeam}) {
+                if (value instanceof Team t && Hibernate.isInitialized(t)) {
+                    pending.teamNames.add(key(String.valueOf(t.getName())));
+                } else if (value != null) {
+                    pending.anyTeam = true;
+                }
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+    }
+}
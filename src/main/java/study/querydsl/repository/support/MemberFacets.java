@@ -0,0 +1,93 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.AgeBucket;
+import study.querydsl.dto.AgeBucketFacetDTO;
+import study.querydsl.dto.MemberFacetSearchDTO;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.dto.TeamFacetDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * (teamId, teamName, age, count) 로 group by 한 결과 한번으로 팀별 / 나이 구간별 회원 수와 전체 건수를 계산
+ * 그룹 수는 최대 (팀 수 x 나이 종류) 이므로 메모리에서 합산해도 가볍다.
+ * 나이 구간을 case 식으로 group by 하지 않는 이유 : MySQL ONLY_FULL_GROUP_BY 에서
+ * select 절과 group by 절의 바인딩 파라미터가 다른 식으로 취급되어 오류가 난다.
+ */
+public final class MemberFacets {
+
+    private MemberFacets() {
+    }
+
+    // 검색 결과 페이지 + 팀별 / 나이 구간별 회원 수 (컨텐츠 쿼리 1번 + group by 쿼리 1번, 카운트 쿼리는 group by 결과 합산)
+    public static MemberFacetSearchDTO search(JPAQueryFactory queryFactory, Predicate[] where, Pageable pageable) {
+        List<MemberTeamDTO> content = queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        List<Tuple> groupRows = queryFactory
+                .select(team.id, team.name, member.age, member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where)
+                .groupBy(team.id, team.name, member.age)
+                .fetch();
+
+        return of(content, pageable, groupRows);
+    }
+
+    public static MemberFacetSearchDTO of(List<MemberTeamDTO> content, Pageable pageable, List<Tuple> groupRows) {
+        Map<Long, TeamFacetDTO> teams = new LinkedHashMap<>();
+        Map<AgeBucket, Long> ageBuckets = new EnumMap<>(AgeBucket.class);
+        for (AgeBucket bucket : AgeBucket.values()) {
+            ageBuckets.put(bucket, 0L);
+        }
+
+        long total = 0;
+        for (Tuple row : groupRows) {
+            Long teamId = row.get(0, Long.class);
+            String teamName = row.get(1, String.class);
+            int age = Objects.requireNonNull(row.get(2, Integer.class));
+            long count = Objects.requireNonNull(row.get(3, Long.class));
+
+            total += count;
+            TeamFacetDTO teamFacet = teams.computeIfAbsent(teamId, id -> new TeamFacetDTO(id, teamName, 0));
+            teamFacet.setCount(teamFacet.getCount() + count);
+            ageBuckets.merge(AgeBucket.of(age), count, Long::sum);
+        }
+
+        List<TeamFacetDTO> teamFacets = new ArrayList<>(teams.values());
+        teamFacets.sort(Comparator.comparingLong(TeamFacetDTO::getCount).reversed()
+                .thenComparing(TeamFacetDTO::getTeamName, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        List<AgeBucketFacetDTO> ageFacets = new ArrayList<>();
+        ageBuckets.forEach((bucket, count) -> ageFacets.add(new AgeBucketFacetDTO(bucket, count)));
+
+        return new MemberFacetSearchDTO(new PageImpl<>(content, pageable, total), teamFacets, ageFacets);
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import study.querydsl.entity.Member;
+
+import java.util.Collection;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 id 목록 일괄 조회 (MemberJpaRepository / MemberRepositoryImpl / Querydsl4RepositorySupport / MemberBatchLoader 공용)
+ * DEFAULT_IN_LIST_SIZE 단위 in 쿼리, team 은 fetch join
+ */
+public final class MemberMultiGet {
+
+    private MemberMultiGet() {
+    }
+
+    public static MultiGetResult<Member> findAllByIds(JPAQueryFactory queryFactory, Collection<Long> ids) {
+        return MultiGetResult.load(ids, MultiGetResult.DEFAULT_IN_LIST_SIZE,
+                chunk -> queryFactory
+                        .selectFrom(member)
+                        .leftJoin(member.team, team).fetchJoin()
+                        .where(member.id.in(chunk))
+                        .fetch(),
+                Member::getId);
+    }
+}
@@ -0,0 +1,242 @@
+package study.querydsl.repository.support;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * member 테이블 RANGE(member_id) 파티셔닝 관리 (MySQL, member.partitioning.*)
+ * 1. 마이그레이션(1회, migrate()) : range-size 단위 파티션 + pmax(MAXVALUE) 로 파티셔닝한다.
+ *    파티션 테이블은 외래키를 가질 수 없으므로 member 의 외래키(team_id) 를 먼저 삭제한다. (인덱스는 남는다)
+ *    테이블 전체를 다시 쓰므로 member.partitioning.migrate=true 로 점검 시간에 한 번만 기동해서 실행한다.
+ * 2. 주기 작업(maintain()) 은 이미 파티셔닝된 테이블에서 파티션 추가 / 삭제만 한다. (파티셔닝 전이면 경고만 남기고 건너뜀)
+ *    현재 최대 member_id 위로 ahead 개의 빈 파티션이 항상 있도록 pmax 를 나눈다. (pmax 가 비어 있어 데이터 이동 없음)
+ * 3. drop-expired=true 이고 retain > 0 이면 최대 member_id 가 속한 파티션부터 retain 개만 남기고 오래된 파티션을 삭제한다. (데이터도 삭제됨)
+ * member_id 조건(id in (...), 범위 조회, keyset 페이징) 은 해당 파티션만 읽는다. (partition pruning)
+ * team_id 로 파티셔닝하려면 PK 에 team_id 가 포함되고 not null 이어야 해서 팀 없는 회원이 있는 현재 스키마에서는 지원하지 않는다.
+ */
+@Slf4j
+@Component
+public class MemberPartitionMaintenance {
+
+    static final String MAX_PARTITION = "pmax";
+
+    record Partition(String name, String bound) {
+
+        boolean isMax() {
+            return "MAXVALUE".equalsIgnoreCase(bound);
+        }
+
+        long upperBound() {
+            return Long.parseLong(bound);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MemberSearchViewWriter searchViewWriter;
+    private final MemberDataVersion dataVersion;
+    private final boolean enabled;
+    private final boolean migrate;
+    private final long rangeSize;
+    private final int ahead;
+    private final int retain;
+    private final boolean dropExpired;
+    private final Duration interval;
+
+    private ScheduledExecutorService scheduler;
+
+    public MemberPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                      MemberSearchViewWriter searchViewWriter,
+                                      MemberDataVersion dataVersion,
+                                      @Value("${member.partitioning.enabled:false}") boolean enabled,
+                                      @Value("${member.partitioning.migrate:false}") boolean migrate,
+                                      @Value("${member.partitioning.range-size:1000000}") long rangeSize,
+                                      @Value("${member.partitioning.ahead:2}") int ahead,
+                                      @Value("${member.partitioning.retain:0}") int retain,
+                                      @Value("${member.partitioning.drop-expired:false}") boolean dropExpired,
+                                      @Value("${member.partitioning.interval:1h}") Duration interval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.searchViewWriter = searchViewWriter;
+        this.dataVersion = dataVersion;
+        this.enabled = enabled;
+        this.migrate = migrate;
+        this.rangeSize = rangeSize;
+        this.ahead = ahead;
+        this.retain = retain;
+        this.dropExpired = dropExpired;
+        this.interval = interval;
+        if (retain > 0 && !dropExpired) {
+            log.warn("member.partitioning.retain={} 이지만 drop-expired=false 라서 파티션을 삭제하지 않음", retain);
+        }
+    }
+
+    // 스키마 생성(ddl-auto) 이후 시작
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!isMySql()) {
+            log.warn("member 파티셔닝은 MySQL 에서만 지원, 건너뜀");
+            return;
+        }
+        if (migrate) {
+            migrate();
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "member-partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                maintain();
+            } catch (RuntimeException e) {
+                log.error("member 파티션 관리 실패", e);
+            }
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 파티셔닝 전인 member 테이블을 파티셔닝 (외래키 삭제 + partition by, 테이블 전체 복사)
+     * 이미 파티셔닝되어 있으면 아무것도 하지 않는다.
+     * @return 실행한 DDL
+     */
+    public synchronized List<String> migrate() {
+        if (!partitions().isEmpty()) {
+            return List.of();
+        }
+        List<String> ddl = new ArrayList<>(foreignKeys().stream()
+                .map(foreignKey -> "alter table member drop foreign key " + foreignKey)
+                .toList());
+        ddl.add(migrationPlan(maxMemberId(), rangeSize, ahead));
+        for (String statement : ddl) {
+            log.warn("member 파티셔닝 마이그레이션 : {}", statement);
+            jdbcTemplate.execute(statement);
+        }
+        return ddl;
+    }
+
+    /**
+     * 파티션 추가 / 삭제 1회 실행 (파티셔닝된 테이블만)
+     * @return 실행한 DDL
+     */
+    public synchronized List<String> maintain() {
+        List<Partition> partitions = partitions();
+        if (partitions.isEmpty()) {
+            log.warn("member 테이블이 파티셔닝되어 있지 않음 (member.partitioning.migrate=true 로 마이그레이션 필요), 건너뜀");
+            return List.of();
+        }
+        List<String> ddl = plan(partitions, maxMemberId(), rangeSize, ahead, dropExpired ? retain : 0);
+        for (String statement : ddl) {
+            log.info("member 파티션 변경 : {}", statement);
+            jdbcTemplate.execute(statement);
+        }
+        if (ddl.stream().anyMatch(statement -> statement.contains(" drop partition "))) {
+            log.info("삭제된 파티션의 회원 검색 뷰 행 삭제 rows={}", searchViewWriter.removeOrphans());
+            dataVersion.changed();
+        }
+        return ddl;
+    }
+
+    /**
+     * 파티셔닝 마이그레이션 DDL
+     * 파티션 이름은 p + 상한(미포함) : p2000000 = member_id < 2000000
+     */
+    static String migrationPlan(long maxId, long rangeSize, int ahead) {
+        return "alter table member partition by range (member_id) ("
+                + ranges(rangeSize, targetBound(maxId, rangeSize, ahead), rangeSize) + ", " + maxPartition() + ")";
+    }
+
+    /**
+     * 현재 파티션(비어 있지 않음) 과 최대 member_id 로 필요한 파티션 추가 / 삭제 DDL 계산
+     * retain 이 0 이면 삭제하지 않는다.
+     */
+    static List<String> plan(List<Partition> partitions, long maxId, long rangeSize, int ahead, int retain) {
+        long targetBound = targetBound(maxId, rangeSize, ahead);
+        List<String> ddl = new ArrayList<>();
+
+        long lastBound = partitions.stream()
+                .filter(partition -> !partition.isMax())
+                .mapToLong(Partition::upperBound)
+                .max()
+                .orElse(0);
+        if (lastBound < targetBound) {
+            ddl.add("alter table member reorganize partition " + MAX_PARTITION + " into ("
+                    + ranges(lastBound + rangeSize, targetBound, rangeSize) + ", " + maxPartition() + ")");
+        }
+
+        if (retain > 0) {
+            long keepFrom = (maxId / rangeSize + 1 - retain) * rangeSize; // 상한이 이 값 이하인 파티션은 삭제
+            List<String> expired = partitions.stream()
+                    .filter(partition -> !partition.isMax() && partition.upperBound() <= keepFrom)
+                    .map(Partition::name)
+                    .toList();
+            if (!expired.isEmpty()) {
+                ddl.add("alter table member drop partition " + String.join(", ", expired));
+            }
+        }
+        return ddl;
+    }
+
+    private static long targetBound(long maxId, long rangeSize, int ahead) {
+        return (maxId / rangeSize + 1 + ahead) * rangeSize;
+    }
+
+    private static String ranges(long fromBound, long toBound, long rangeSize) {
+        List<String> ranges = new ArrayList<>();
+        for (long bound = fromBound; bound <= toBound; bound += rangeSize) {
+            ranges.add("partition p" + bound + " values less than (" + bound + ")");
+        }
+        return String.join(", ", ranges);
+    }
+
+    private static String maxPartition() {
+        return "partition " + MAX_PARTITION + " values less than maxvalue";
+    }
+
+    List<Partition> partitions() {
+        return jdbcTemplate.query("""
+                        select partition_name, partition_description
+                        from information_schema.partitions
+                        where table_schema = database() and table_name = 'member' and partition_name is not null
+                        order by partition_ordinal_position""",
+                (rs, rowNum) -> new Partition(rs.getString(1), rs.getString(2)));
+    }
+
+    private long maxMemberId() {
+        return jdbcTemplate.queryForObject("select coalesce(max(member_id), 0) from member", Long.class);
+    }
+
+    private List<String> foreignKeys() {
+        return jdbcTemplate.queryForList("""
+                        select constraint_name
+                        from information_schema.table_constraints
+                        where table_schema = database() and table_name = 'member' and constraint_type = 'FOREIGN KEY'""",
+                String.class);
+    }
+
+    boolean isMySql() {
+        return "MySQL".equals(jdbcTemplate.execute(
+                (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName()));
+    }
+}
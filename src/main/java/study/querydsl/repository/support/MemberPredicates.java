@@ -0,0 +1,41 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import study.querydsl.dto.MemberSearchCondition;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 검색 조건(MemberSearchCondition) 의 Querydsl 조건식 (member left join team 기준)
+ * 값이 null 이면 null 을 돌려주므로 where(...) 에서 조건이 빠진다.
+ * 회원명 조건은 n-gram 인덱스를 쓰므로 UsernameSearch.matches 를 사용한다.
+ */
+public final class MemberPredicates {
+
+    private MemberPredicates() {
+    }
+
+    // 검색 조건 전체 (회원명, 팀명, 나이 하한 / 상한)
+    public static Predicate[] where(UsernameSearch usernameSearch, MemberSearchCondition condition) {
+        return new Predicate[]{
+                usernameSearch.matches(condition.getUsername(), condition.getUsernameMatch()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        };
+    }
+
+    public static BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+    public static BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    public static BooleanExpression teamNameEq(String teamName) {
+        return teamName != null ? team.name.eq(teamName) : null;
+    }
+}
@@ -0,0 +1,186 @@
+package study.querydsl.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 배포 직후 첫 요청이 느린 문제(HQL 파싱, 쿼리 플랜 생성, 커넥션 생성, JIT 전 인터프리터 실행) 를 기동 시 미리 치른다. (member.warmup.*)
+ * ApplicationReadyEvent 에서 동기로 실행하므로 끝날 때까지 readiness 는 REFUSING_TRAFFIC 이다. (/health/readiness 503)
+ * (Boot 는 ApplicationReadyEvent 리스너가 모두 끝난 뒤 ACCEPTING_TRAFFIC 을 발행한다.)
+ * 1. conditions 의 검색 조건마다 /v1 ~ /v4 가 쓰는 조회 메서드(MemberJpaRepository.search, MemberRepositoryCustom 전체) 를 실행
+ *    회원명 / 팀 이름 조건이 없는 형태(all, 나이 범위만) 는 count / facet / 페이징 없는 search 가 테이블 대부분을 읽으므로 실행하지 않는다.
+ * 2. threads 개 스레드로 동시에 실행해서 커넥션 풀도 채운다.
+ * 3. 한 라운드 시간이 직전 라운드와 tolerance 이내로 stable-rounds 번 연속이면(안정화) 종료, max-rounds / max-duration 에서 중단
+ * 모든 조회는 읽기 전용 트랜잭션에서 실행하고 롤백한다.
+ */
+@Slf4j
+@Component
+public class MemberQueryWarmup {
+
+    private final MemberRepository memberRepository;
+    private final MemberJpaRepository memberJpaRepository;
+    private final TransactionTemplate readOnlyTx;
+
+    private final boolean enabled;
+    private final List<MemberSearchCondition> conditions;
+    private final int pageSize;
+    private final int threads;
+    private final double tolerance;
+    private final int stableRounds;
+    private final int maxRounds;
+    private final Duration maxDuration;
+
+    private volatile List<Long> roundMillis = List.of();
+
+    public MemberQueryWarmup(MemberRepository memberRepository,
+                             MemberJpaRepository memberJpaRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${member.warmup.enabled:true}") boolean enabled,
+                             @Value("${member.warmup.conditions:username=member1,teamName=teamA,teamName=teamA;ageGoe=10;ageLoe=40,username=member;usernameMatch=PREFIX,username=ember1;usernameMatch=CONTAINS}") List<String> conditions,
+                             @Value("${member.warmup.page-size:20}") int pageSize,
+                             @Value("${member.warmup.threads:4}") int threads,
+                             @Value("${member.warmup.tolerance:0.2}") double tolerance,
+                             @Value("${member.warmup.stable-rounds:2}") int stableRounds,
+                             @Value("${member.warmup.max-rounds:50}") int maxRounds,
+                             @Value("${member.warmup.max-duration:60s}") Duration maxDuration) {
+        this.memberRepository = memberRepository;
+        this.memberJpaRepository = memberJpaRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.conditions = conditions.stream()
+                .map(MemberQueryWarmup::parse)
+                .filter(condition -> {
+                    if (!isSelective(condition)) {
+                        log.warn("회원명 / 팀 이름 조건이 없는 워밍업 조건은 건너뜀 (count / facet 이 테이블 대부분을 읽음) : {}", condition);
+                        return false;
+                    }
+                    return true;
+                })
+                .toList();
+        this.pageSize = pageSize;
+        this.threads = threads;
+        this.tolerance = tolerance;
+        this.stableRounds = stableRounds;
+        this.maxRounds = maxRounds;
+        this.maxDuration = maxDuration;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmup() {
+        if (!enabled || conditions.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "member-query-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            run(executor);
+        } catch (RuntimeException e) {
+            log.warn("쿼리 워밍업 실패 (워밍업 없이 트래픽을 받음)", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // 라운드별 소요 시간 (ms)
+    public List<Long> getRoundMillis() {
+        return roundMillis;
+    }
+
+    private void run(ExecutorService executor) {
+        List<Long> rounds = new ArrayList<>();
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        int stable = 0;
+        while (rounds.size() < maxRounds && System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(this::round));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    throw new IllegalStateException("쿼리 워밍업 실행 실패", e);
+                }
+            }
+            long millis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            if (!rounds.isEmpty()) {
+                long previous = rounds.get(rounds.size() - 1);
+                stable = Math.abs(millis - previous) <= Math.max(1, previous * tolerance) ? stable + 1 : 0;
+            }
+            rounds.add(millis);
+            if (stable >= stableRounds) {
+                break;
+            }
+        }
+        roundMillis = List.copyOf(rounds);
+        log.info("쿼리 워밍업 완료 rounds={}, ms={}", rounds.size(), rounds);
+    }
+
+    /**
+     * 조건마다 모든 조회 메서드를 한 번씩 (읽기 전용 트랜잭션, 항상 롤백)
+     * 팀 이름 조건은 그 팀의 회원 전체를 count / group by 하므로, 페이징 없는 search 는 회원명 조건이 있을 때만 실행한다.
+     */
+    private void round() {
+        readOnlyTx.executeWithoutResult(status -> {
+            PageRequest firstPage = PageRequest.of(0, pageSize);
+            for (MemberSearchCondition condition : conditions) {
+                if (condition.getUsername() != null) {
+                    memberJpaRepository.search(condition);
+                    memberRepository.search(condition);
+                }
+                memberRepository.searchPageSimple(condition, firstPage);
+                List<MemberTeamDTO> page = memberRepository.searchPageComplex(condition, firstPage).getContent();
+                memberRepository.searchFaceted(condition, firstPage);
+                memberRepository.findAllByIds(page.stream().map(MemberTeamDTO::getMemberId).toList());
+            }
+            status.setRollbackOnly();
+        });
+    }
+
+    // 인덱스로 읽는 범위가 좁은 조건 (회원명 / 팀 이름)
+    static boolean isSelective(MemberSearchCondition condition) {
+        return condition.getUsername() != null || condition.getTeamName() != null;
+    }
+
+    /**
+     * "username=member;usernameMatch=PREFIX" 형식의 검색 조건 (all : 조건 없음)
+     */
+    static MemberSearchCondition parse(String shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if (shape.isBlank() || shape.trim().equals("all")) {
+            return condition;
+        }
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(condition);
+        for (String property : shape.split(";")) {
+            String[] keyValue = property.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("워밍업 조건 형식 오류 (이름=값;이름=값) : " + shape);
+            }
+            wrapper.setPropertyValue(keyValue[0].trim(), keyValue[1].trim());
+        }
+        return condition;
+    }
+}
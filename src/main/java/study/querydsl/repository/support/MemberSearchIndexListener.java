@@ -0,0 +1,31 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import study.querydsl.entity.Member;
+
+/**
+ * Member 변경 시 회원명 n-gram 인덱스 갱신
+ * EntityManagerFactory 생성 중에 만들어지므로 UsernameSearch 는 ObjectProvider 로 지연 조회한다.
+ */
+public class MemberSearchIndexListener {
+
+    private final ObjectProvider<UsernameSearch> usernameSearch;
+
+    public MemberSearchIndexListener(ObjectProvider<UsernameSearch> usernameSearch) {
+        this.usernameSearch = usernameSearch;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Member member) {
+        usernameSearch.ifAvailable(search -> search.indexed(member));
+    }
+
+    @PostRemove
+    public void onRemove(Member member) {
+        usernameSearch.ifAvailable(search -> search.removed(member));
+    }
+}
@@ -0,0 +1,65 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.ObjectProvider;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * Member / Team 변경 시 member_search_view 갱신 (flush 중 같은 트랜잭션, 같은 커넥션에서 실행)
+ * 회원 샤딩 중이면 팀 변경을 샤드 복제 outbox 에 쌓고(TeamShardRelay), 기본 DB 에 회원을 저장하지 못하게 한다. (MemberShards)
+ * EntityManagerFactory 생성 중에 만들어지므로 MemberSearchViewWriter / MemberShards / TeamShardRelay 는 ObjectProvider 로 지연 조회한다.
+ */
+public class MemberSearchViewListener {
+
+    private final ObjectProvider<MemberSearchViewWriter> writer;
+    private final ObjectProvider<MemberShards> shards;
+    private final ObjectProvider<TeamShardRelay> teamShardRelay;
+
+    public MemberSearchViewListener(ObjectProvider<MemberSearchViewWriter> writer,
+                                    ObjectProvider<MemberShards> shards,
+                                    ObjectProvider<TeamShardRelay> teamShardRelay) {
+        this.writer = writer;
+        this.shards = shards;
+        this.teamShardRelay = teamShardRelay;
+    }
+
+    @PrePersist
+    public void beforePersist(Object entity) {
+        if (entity instanceof Member) {
+            shards.ifAvailable(MemberShards::checkPrimaryMemberWrite);
+        }
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        if (entity instanceof Member member) {
+            writer.ifAvailable(w -> w.inserted(member));
+        } else if (entity instanceof Team team) {
+            teamShardRelay.ifAvailable(r -> r.teamChanged(team, false));
+        }
+    }
+
+    // 새 팀은 아직 소속 회원 행이 없으므로 수정(이름 변경) 시에만 반영
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        if (entity instanceof Member member) {
+            writer.ifAvailable(w -> w.updated(member));
+        } else if (entity instanceof Team team) {
+            writer.ifAvailable(w -> w.teamRenamed(team));
+            teamShardRelay.ifAvailable(r -> r.teamChanged(team, false));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Member member) {
+            writer.ifAvailable(w -> w.removed(member.getId()));
+        } else if (entity instanceof Team team) {
+            teamShardRelay.ifAvailable(r -> r.teamChanged(team, true));
+        }
+    }
+}
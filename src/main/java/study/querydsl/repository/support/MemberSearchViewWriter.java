@@ -0,0 +1,136 @@
+package study.querydsl.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * member_search_view (MemberSearchView) 갱신
+ * - 엔티티 변경 : MemberSearchViewListener 가 flush 중에 호출 (같은 트랜잭션 / 커넥션이므로 롤백되면 함께 롤백)
+ *   회원 저장 / 수정 / 삭제는 회원 행 하나, 팀 이름 변경은 그 팀 회원 행 전체의 team_name 을 갱신
+ * - 엔티티를 거치지 않는 쓰기 (JDBC 배치, 벌크 update) : 쓰기 후 같은 트랜잭션에서 refresh(memberIds) 호출
+ *   (MemberBulkUpsert, MemberWriteBehindBuffer, MemberPartitionMaintenance 의 파티션 삭제)
+ * - 기동 시 뷰가 비어 있고 회원이 있으면 전체 재구성 (기존 DB 에 뷰 테이블을 새로 만든 경우)
+ */
+@Slf4j
+@Component
+public class MemberSearchViewWriter {
+
+    private static final String INSERT_SQL = "insert into member_search_view (member_id, username, age, team_id, team_name)"
+            + " values (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "update member_search_view set username = ?, age = ?, team_id = ?, team_name = ?"
+            + " where member_id = ?";
+    private static final String INSERT_SELECT_SQL = "insert into member_search_view (member_id, username, age, team_id, team_name)"
+            + " select m.member_id, m.username, m.age, m.team_id, t.name from member m left join team t on t.team_id = m.team_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public MemberSearchViewWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // 새 회원 (@PostPersist)
+    void inserted(Member member) {
+        jdbcTemplate.update(INSERT_SQL, member.getId(), member.getUsername(), member.getAge(), teamId(member), teamName(member));
+    }
+
+    // 수정된 회원 (@PostUpdate), 뷰에 행이 없으면 추가
+    void updated(Member member) {
+        Long teamId = teamId(member);
+        String teamName = teamName(member);
+        if (jdbcTemplate.update(UPDATE_SQL, member.getUsername(), member.getAge(), teamId, teamName, member.getId()) == 0) {
+            jdbcTemplate.update(INSERT_SQL, member.getId(), member.getUsername(), member.getAge(), teamId, teamName);
+        }
+    }
+
+    void removed(Long memberId) {
+        jdbcTemplate.update("delete from member_search_view where member_id = ?", memberId);
+    }
+
+    // 팀 이름 변경 (@PostUpdate) : 소속 회원 행 전체
+    void teamRenamed(Team team) {
+        jdbcTemplate.update("update member_search_view set team_name = ? where team_id = ?", team.getName(), team.getId());
+    }
+
+    /**
+     * 회원 테이블 기준으로 해당 회원 행을 다시 만든다. (없어진 회원은 삭제)
+     * 엔티티 리스너를 거치지 않고 member 를 바꾼 뒤 같은 트랜잭션에서 호출할 것
+     */
+    public void refresh(Collection<Long> memberIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(memberIds));
+        ids.remove(null);
+        ids.sort(null);
+        for (int from = 0; from < ids.size(); from += MultiGetResult.DEFAULT_IN_LIST_SIZE) {
+            MapSqlParameterSource params = new MapSqlParameterSource("ids",
+                    ids.subList(from, Math.min(from + MultiGetResult.DEFAULT_IN_LIST_SIZE, ids.size())));
+            namedJdbcTemplate.update("delete from member_search_view where member_id in (:ids)", params);
+            namedJdbcTemplate.update(INSERT_SELECT_SQL + " where m.member_id in (:ids)", params);
+        }
+    }
+
+    // member 에 없는 회원 행 삭제 (파티션 삭제처럼 id 를 모르는 대량 삭제 후)
+    public int removeOrphans() {
+        return jdbcTemplate.update("delete from member_search_view"
+                + " where not exists (select 1 from member m where m.member_id = member_search_view.member_id)");
+    }
+
+    // 전체 재구성 (벌크 update 등으로 어긋났을 때)
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from member_search_view");
+            int rows = jdbcTemplate.update(INSERT_SELECT_SQL);
+            log.info("member_search_view 재구성 rows={}", rows);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE - 1) // 쿼리 워밍업(MemberQueryWarmup) 전에 구성
+    public void rebuildIfEmpty() {
+        boolean viewEmpty = !exists("select 1 from member_search_view limit 1");
+        if (viewEmpty && exists("select 1 from member limit 1")) {
+            rebuild();
+        }
+    }
+
+    private boolean exists(String sql) {
+        return !jdbcTemplate.queryForList(sql).isEmpty();
+    }
+
+    private static Long teamId(Member member) {
+        return member.getTeam() != null ? member.getTeam().getId() : null; // 식별자 접근은 지연 로딩하지 않음
+    }
+
+    // flush 중에는 지연 로딩하지 않도록 로딩되지 않은 팀은 DB 에서 이름만 조회
+    private String teamName(Member member) {
+        Team team = member.getTeam();
+        if (team == null) {
+            return null;
+        }
+        if (Hibernate.isInitialized(team)) {
+            return team.getName();
+        }
+        List<String> names = jdbcTemplate.queryForList("select name from team where team_id = ?", String.class, team.getId());
+        return names.stream().filter(Objects::nonNull).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,152 @@
+package study.querydsl.repository.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * 회원 샤드 DB 목록 (member.sharding.*)
+ * 샤딩을 켜면 member 행은 team_id 로 정한 샤드에만 저장된다. (floorMod(team_id, 샤드 수), 팀 없는 회원은 0 번 샤드)
+ * 기본 DB 에는 회원을 쓰지 않는다. 쓰기는 ShardedMemberRepository 로 하고, 기본 DB 로 쓰는 경로는 checkPrimaryMemberWrite 로 막는다.
+ * team 은 기본 DB 가 원본이고 모든 샤드에 복제하는 참조 테이블이다. (TeamShardRelay) 샤드 안에서 member - team 조인이 가능하다.
+ * inTransaction 은 샤드 하나의 로컬 트랜잭션, scatter 는 샤드별 쿼리를 병렬로 실행하고 호출 스레드의 쿼리 마감(QueryDeadline) 을 작업 스레드에도 건다.
+ */
+@Slf4j
+@Component
+public class MemberShards {
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<NamedParameterJdbcTemplate> shards = new ArrayList<>();
+    private final List<TransactionTemplate> transactions = new ArrayList<>();
+    private final ExecutorService executor;
+
+    public MemberShards(@Value("${member.sharding.urls:}") List<String> urls,
+                        @Value("${member.sharding.username:}") String username,
+                        @Value("${member.sharding.password:}") String password,
+                        @Value("${member.sharding.pool-size:4}") int poolSize,
+                        @Value("${member.sharding.init-schema:false}") boolean initSchema) {
+        for (String url : urls) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setPoolName("member-shard-" + dataSources.size());
+            if (initSchema) {
+                DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource("db/member-shard-schema.sql")), dataSource);
+            }
+            dataSources.add(dataSource);
+            DeadlineDataSource shard = new DeadlineDataSource(dataSource);
+            shards.add(new NamedParameterJdbcTemplate(shard));
+            transactions.add(new TransactionTemplate(new DataSourceTransactionManager(shard)));
+        }
+        executor = Executors.newFixedThreadPool(Math.max(1, urls.size() * poolSize), r -> {
+            Thread thread = new Thread(r, "member-shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!urls.isEmpty()) {
+            log.info("회원 샤드 {}개 : {}", urls.size(), urls);
+        }
+    }
+
+    public boolean isEnabled() {
+        return !shards.isEmpty();
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public int shardOf(Long teamId) {
+        checkEnabled();
+        return teamId != null ? Math.floorMod(teamId, shards.size()) : 0;
+    }
+
+    public NamedParameterJdbcTemplate shard(int index) {
+        checkEnabled();
+        return shards.get(index);
+    }
+
+    public List<NamedParameterJdbcTemplate> all() {
+        checkEnabled();
+        return shards;
+    }
+
+    /**
+     * 샤드 하나의 트랜잭션 안에서 work 실행 (예외가 나면 롤백)
+     * 기본 DB 의 트랜잭션과는 별개이고, 다른 샤드의 inTransaction 을 안에서 열면 그 샤드는 먼저 커밋된다.
+     */
+    public <T> T inTransaction(int index, Function<NamedParameterJdbcTemplate, T> work) {
+        checkEnabled();
+        NamedParameterJdbcTemplate shard = shards.get(index);
+        return transactions.get(index).execute(status -> work.apply(shard));
+    }
+
+    // 기본 DB 에 회원 행을 쓰는 경로 (엔티티 저장, 벌크 upsert, write-behind) : 샤딩 중에는 기본 DB 에 회원을 두지 않는다.
+    public void checkPrimaryMemberWrite() {
+        if (!shards.isEmpty()) {
+            throw new IllegalStateException("회원 샤딩(member.sharding.urls) 중에는 회원을 기본 DB 에 쓸 수 없습니다. ShardedMemberRepository 로 저장하세요.");
+        }
+    }
+
+    /**
+     * 샤드별로 query 를 병렬 실행하고 결과를 샤드 순서대로 반환
+     * 하나라도 실패하면 그 예외를 던진다.
+     */
+    public <T> List<T> scatter(Collection<NamedParameterJdbcTemplate> targets, Function<NamedParameterJdbcTemplate, T> query) {
+        if (targets.size() == 1) {
+            return List.of(query.apply(targets.iterator().next()));
+        }
+        Optional<QueryDeadline> deadline = QueryDeadline.current();
+        List<CompletableFuture<T>> futures = targets.stream()
+                .map(target -> CompletableFuture.supplyAsync(() -> {
+                    deadline.ifPresent(QueryDeadline::attach); // 요청이 취소되면 샤드 쿼리도 중단
+                    try {
+                        return query.apply(target);
+                    } finally {
+                        QueryDeadline.clear();
+                    }
+                }, executor))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void checkEnabled() {
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("회원 샤드가 설정되지 않았습니다. (member.sharding.urls)");
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
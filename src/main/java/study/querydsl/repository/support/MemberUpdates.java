@@ -0,0 +1,123 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 회원 수정 (Member @Version, 충돌 시 OptimisticRetry 로 재시도)
+ * changeTeam / changeAge : 회원을 읽어 수정하고, 그 사이 다른 트랜잭션이 먼저 수정했으면 최신 값을 다시 읽어 반복
+ * addAge (나이 증감, 순서와 무관한 수정) 은 member.optimistic-retry.commutative 에 따라
+ *    MERGE : update member set age = age + ?, version = version + 1 한 번 (읽지 않으므로 충돌 / 재시도 없음)
+ *            version 은 올리므로 같은 회원을 읽고 수정 중인 트랜잭션은 충돌로 감지한다.
+ *    RETRY : changeAge 와 같이 읽고 수정 + 충돌 시 재시도
+ * 모두 트랜잭션 밖에서 호출해야 한다. (호출마다 새 트랜잭션, OptimisticRetry 참고)
+ */
+@Component
+public class MemberUpdates {
+
+    public enum Commutative {
+        MERGE,
+        RETRY
+    }
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticRetry retry;
+    private final MemberSearchViewWriter searchViewWriter;
+    private final MemberDataVersion dataVersion;
+    private final Commutative commutative;
+
+    public MemberUpdates(EntityManager em,
+                         JPAQueryFactory queryFactory,
+                         PlatformTransactionManager transactionManager,
+                         OptimisticRetry retry,
+                         MemberSearchViewWriter searchViewWriter,
+                         MemberDataVersion dataVersion,
+                         @Value("${member.optimistic-retry.commutative:MERGE}") Commutative commutative) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retry = retry;
+        this.searchViewWriter = searchViewWriter;
+        this.dataVersion = dataVersion;
+        this.commutative = commutative;
+    }
+
+    // teamId 가 null 이면 팀에서 제외
+    public Member changeTeam(Long memberId, Long teamId) {
+        return retry.execute(() -> {
+            Member found = find(memberId);
+            found.changeTeam(teamId != null ? em.getReference(Team.class, teamId) : null);
+            return found;
+        });
+    }
+
+    public Member changeAge(Long memberId, int age) {
+        return retry.execute(() -> {
+            Member found = find(memberId);
+            found.setAge(age);
+            return found;
+        });
+    }
+
+    public void addAge(Long memberId, int delta) {
+        if (commutative == Commutative.RETRY) {
+            retry.run(() -> {
+                Member found = find(memberId);
+                found.setAge(found.getAge() + delta);
+            });
+            return;
+        }
+        if (addAge(List.of(memberId), delta) == 0) {
+            throw new EntityNotFoundException("회원이 없습니다. memberId=" + memberId);
+        }
+    }
+
+    /**
+     * 여러 회원의 나이를 한 번에 증감 (commutative 설정과 무관하게 MERGE 방식)
+     * @return 수정된 회원 수
+     */
+    public long addAge(Collection<Long> memberIds, int delta) {
+        if (memberIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(new TreeSet<>(memberIds)); // 같은 순서로 행 잠금 (교착 방지)
+        return transactionTemplate.execute(status -> {
+            long updated = 0;
+            for (int from = 0; from < ids.size(); from += MultiGetResult.DEFAULT_IN_LIST_SIZE) {
+                updated += queryFactory
+                        .update(member)
+                        .set(member.age, member.age.add(delta))
+                        .set(member.version, member.version.add(1L))
+                        .where(member.id.in(ids.subList(from, Math.min(from + MultiGetResult.DEFAULT_IN_LIST_SIZE, ids.size()))))
+                        .execute();
+            }
+            searchViewWriter.refresh(ids); // 벌크 update 는 엔티티 리스너를 거치지 않음
+            dataVersion.changed();
+            return updated;
+        });
+    }
+
+    private Member find(Long memberId) {
+        Member found = em.find(Member.class, memberId);
+        if (found == null) {
+            throw new EntityNotFoundException("회원이 없습니다. memberId=" + memberId);
+        }
+        return found;
+    }
+}
@@ -0,0 +1,123 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StaleObjectStateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * @Version 충돌 시 새 트랜잭션에서 다시 실행하는 executor (member.optimistic-retry.*)
+ * 1. work 를 트랜잭션 하나로 실행하고, 커밋 중 OptimisticLockingFailureException (work 안의 flush / merge 는
+ *    OptimisticLockException) 이 나면 backoff 후 처음부터 다시 실행한다. (다시 읽은 최신 값 기준으로 수정)
+ * 2. backoff 는 full jitter : 0 ~ min(max-backoff, initial-backoff * 2^(재시도 횟수 - 1)) 중 임의
+ *    (같은 행을 노리는 스레드들이 같은 간격으로 다시 부딪히지 않도록)
+ * 3. 충돌한 엔티티 종류(Member, Team) 별로 충돌 / 재시도 / 포기 횟수를 센다. (contention())
+ * 이미 시작된 트랜잭션 안에서는 다시 실행할 수 없으므로(영속성 컨텍스트가 이미 실패 상태) 트랜잭션 밖에서 호출해야 한다.
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    private final Map<String, Counters> contention = new ConcurrentHashMap<>();
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           @Value("${member.optimistic-retry.max-attempts:5}") int maxAttempts,
+                           @Value("${member.optimistic-retry.initial-backoff:5ms}") Duration initialBackoff,
+                           @Value("${member.optimistic-retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("충돌 시 재시도하려면 트랜잭션 밖에서 호출해야 합니다.");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                Counters counters = contention.computeIfAbsent(entityOf(e), entity -> new Counters());
+                counters.conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    counters.exhausted.increment();
+                    log.warn("낙관적 락 충돌로 {}회 시도 후 포기합니다. entity={}", attempt, entityOf(e));
+                    throw e;
+                }
+                counters.retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // 엔티티 이름 -> 충돌 통계 (이름순)
+    public Map<String, ContentionStats> contention() {
+        Map<String, ContentionStats> stats = new TreeMap<>();
+        contention.forEach((entity, counters) -> stats.put(entity, new ContentionStats(
+                counters.conflicts.sum(), counters.retries.sum(), counters.exhausted.sum())));
+        return stats;
+    }
+
+    public void resetContention() {
+        contention.clear();
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        if (ceiling > 0) {
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        }
+    }
+
+    private static String entityOf(RuntimeException e) {
+        String className = null;
+        if (e instanceof ObjectOptimisticLockingFailureException objectFailure) {
+            className = objectFailure.getPersistentClassName();
+        } else if (e.getCause() instanceof StaleObjectStateException stale) {
+            className = stale.getEntityName();
+        }
+        return className != null ? className.substring(className.lastIndexOf('.') + 1) : "unknown";
+    }
+
+    /**
+     * @param conflicts 충돌 횟수
+     * @param retries   충돌 후 다시 실행한 횟수
+     * @param exhausted max-attempts 를 모두 쓰고 포기한 횟수
+     */
+    public record ContentionStats(long conflicts, long retries, long exhausted) {
+    }
+
+    private static class Counters {
+        final LongAdder conflicts = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder exhausted = new LongAdder();
+    }
+}
@@ -0,0 +1,202 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionEventListener;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.ClearEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PersistContext;
+import org.hibernate.event.spi.PersistEvent;
+import org.hibernate.event.spi.PersistEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 영속성 컨텍스트(1차 캐시) 크기 감시
+ * 1. 감시 : 엔티티가 로딩(PostLoad) / persist 될 때마다 영속성 컨텍스트(세션 = 트랜잭션 / OSIV 요청) 별로 관리 엔티티 수를 확인한다.
+ *    - warnThreshold 의 배수를 지날 때마다 (이전 값 < n x warnThreshold <= 현재 값) 경고 로그
+ *    - 세션의 관리 엔티티가 budget 을 넘으면 그 세션에서 한 번 경고하고 budgetExceededCount 증가
+ *    세션별 사용량은 usage(), 전체 집계(최대치, 경고 / 예산 초과 / 정리 횟수) 는 getter 로 제공한다.
+ * 2. 정리 : 관리 엔티티가 chunkSize 이상이면 flush 후 clear 한다.
+ *    로딩 도중에 clear 하면 안 되므로 안전한 지점에서만 수행한다.
+ *    - checkpoint() : 반복 저장 / 배치 작업에서 한 건 처리할 때마다 호출
+ *    - chunked(stream) : 대용량 stream 에서 다음 행을 읽기 전에 자동으로 checkpoint
+ *    clear 이후에는 이전에 읽은 엔티티가 준영속 상태가 되므로, 변경은 다음 청크로 넘어가기 전에 끝낼 것
+ *    (member.large-result.mode=STREAM 에서는 결과를 읽는 동안 flush 할 수 없으므로 읽기 전용으로만 사용)
+ */
+@Slf4j
+@Component
+public class PersistenceContextGuard {
+
+    private final EntityManager em;
+    private final int chunkSize;
+    private final int warnThreshold;
+    private final int budget;
+
+    private final Map<SharedSessionContractImplementor, Usage> sessions = new ConcurrentHashMap<>(); // 세션이 닫히면 제거
+    private final AtomicInteger peakManagedEntities = new AtomicInteger();
+    private final LongAdder warnCount = new LongAdder();
+    private final LongAdder budgetExceededCount = new LongAdder();
+    private final LongAdder clearCount = new LongAdder();
+
+    /**
+     * 영속성 컨텍스트 하나의 사용량 (세션의 스레드에서만 갱신)
+     */
+    @Getter
+    public static class Usage {
+        private int managed; // 마지막으로 확인한 관리 엔티티 수
+        private int peak;
+        private int warnings; // warnThreshold 배수를 지난 횟수
+        private boolean budgetExceeded;
+    }
+
+    public PersistenceContextGuard(EntityManager em,
+                                   EntityManagerFactory emf,
+                                   @Value("${member.persistence-context.chunk-size:1000}") int chunkSize,
+                                   @Value("${member.persistence-context.warn-threshold:5000}") int warnThreshold,
+                                   @Value("${member.persistence-context.budget:20000}") int budget) {
+        this.em = em;
+        this.chunkSize = chunkSize;
+        this.warnThreshold = warnThreshold;
+        this.budget = budget;
+
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> observe(event.getSession()));
+        registry.appendListeners(EventType.CLEAR, (ClearEventListener) event -> cleared(event.getSession()));
+        registry.appendListeners(EventType.PERSIST, new PersistEventListener() {
+            @Override
+            public void onPersist(PersistEvent event) {
+                observe(event.getSession());
+            }
+
+            @Override
+            public void onPersist(PersistEvent event, PersistContext createdAlready) {
+                observe(event.getSession());
+            }
+        });
+    }
+
+    /**
+     * 관리 엔티티가 chunkSize 이상이면 flush + clear (쓰기 트랜잭션이 아니면 clear 만)
+     * 트랜잭션 밖에서는 아무것도 하지 않는다.
+     * @return 정리했으면 true
+     */
+    public boolean checkpoint() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.getPersistenceContextInternal().getNumberOfManagedEntities() < chunkSize) {
+            return false;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            session.flush();
+        }
+        session.clear();
+        clearCount.increment();
+        return true;
+    }
+
+    // 원소 하나를 처리하고 다음 원소를 읽기 전에 checkpoint() 를 호출하는 stream (순차 처리 전용)
+    public <T> Stream<T> chunked(Stream<T> stream) {
+        Spliterator<T> source = stream.spliterator();
+        Spliterator<T> guarded = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, source.characteristics()
+                & ~(Spliterator.SIZED | Spliterator.SUBSIZED)) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                checkpoint();
+                return source.tryAdvance(action);
+            }
+        };
+        return StreamSupport.stream(guarded, false).onClose(stream::close);
+    }
+
+    /**
+     * 현재 스레드의 영속성 컨텍스트 사용량 (트랜잭션 / OSIV 안에서 호출, 아직 엔티티가 없으면 빈 사용량)
+     */
+    public Usage usage() {
+        Usage usage = sessions.get(em.unwrap(SharedSessionContractImplementor.class));
+        return usage != null ? usage : new Usage();
+    }
+
+    public int getPeakManagedEntities() {
+        return peakManagedEntities.get();
+    }
+
+    public long getWarnCount() {
+        return warnCount.sum();
+    }
+
+    public long getBudgetExceededCount() {
+        return budgetExceededCount.sum();
+    }
+
+    public long getClearCount() {
+        return clearCount.sum();
+    }
+
+    private void observe(SharedSessionContractImplementor session) {
+        if (!(session instanceof SessionImplementor stateful)) {
+            return; // StatelessSession 은 엔티티를 쌓지 않음
+        }
+        Usage usage = sessions.computeIfAbsent(stateful, this::track);
+        int previous = usage.managed;
+        int managed = session.getPersistenceContextInternal().getNumberOfManagedEntities();
+        usage.managed = managed;
+        usage.peak = Math.max(usage.peak, managed);
+        peakManagedEntities.accumulateAndGet(managed, Math::max);
+
+        // 한 번에 여러 개가 추가되거나(cascade, 로딩) clear 후 다시 늘어나도 배수 지점을 지날 때 한 번씩 경고
+        if (managed >= warnThreshold && previous / warnThreshold < managed / warnThreshold) {
+            usage.warnings++;
+            warnCount.increment();
+            log.warn("영속성 컨텍스트의 관리 엔티티가 {}개를 넘었습니다. (warn-threshold={}) " +
+                            "PersistenceContextGuard.checkpoint() / chunked() 또는 em.clear() 사용을 검토하세요.",
+                    managed, warnThreshold);
+        }
+        if (managed > budget && !usage.budgetExceeded) {
+            usage.budgetExceeded = true;
+            budgetExceededCount.increment();
+            log.warn("영속성 컨텍스트의 관리 엔티티가 예산을 넘었습니다. managed={}, budget={} (트랜잭션 / 요청 하나에서 읽거나 저장하는 엔티티를 줄일 것)",
+                    managed, budget);
+        }
+    }
+
+    // clear 이후 다시 쌓이는 엔티티는 0 부터 센다.
+    private void cleared(SharedSessionContractImplementor session) {
+        Usage usage = sessions.get(session);
+        if (usage != null) {
+            usage.managed = 0;
+        }
+    }
+
+    // 세션이 닫힐 때 사용량을 정리한다. (세션 = 트랜잭션 또는 OSIV 요청 하나)
+    private Usage track(SharedSessionContractImplementor session) {
+        ((SessionImplementor) session).addEventListeners(new SessionEventListener() {
+            @Override
+            public void end() {
+                sessions.remove(session);
+            }
+        });
+        return new Usage();
+    }
+}
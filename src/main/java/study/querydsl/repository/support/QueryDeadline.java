@@ -0,0 +1,146 @@
+package study.querydsl.repository.support;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 현재 스레드(요청) 의 쿼리 마감 시각
+ * RequestDeadlineFilter 가 요청마다 설정하고, DeadlineDataSource 가 쿼리 실행 시 남은 시간을 읽어
+ * Statement 의 query timeout 과 마감 시각의 Statement.cancel() 을 건다.
+ * 요청 밖(배치, 스케줄러) 에서도 start / clear 로 같은 방식의 마감을 걸 수 있다.
+ * 다른 스레드에서 cancel() 하면 (클라이언트 연결 끊김, ClientDisconnectWatcher) 실행 중인 쿼리를 바로 중단하고 이후 쿼리는 실행하지 않는다.
+ */
+public final class QueryDeadline {
+
+    public static final String TIMEOUT_HINT = "jakarta.persistence.query.timeout"; // ms (JPA 표준 힌트)
+
+    private static final ThreadLocal<QueryDeadline> CURRENT = new ThreadLocal<>();
+    private static final Duration CANCEL_RETRY = Duration.ofMillis(100);
+
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+    private final Set<Statement> executing = Collections.newSetFromMap(new IdentityHashMap<>()); // 실행 중인 Statement (this 로 보호)
+
+    private QueryDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static QueryDeadline start(Duration timeout) {
+        QueryDeadline deadline = new QueryDeadline(System.nanoTime() + timeout.toNanos());
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    // 같은 마감을 다른 스레드(샤드 병렬 조회) 에서 사용 : cancel() 이 그 스레드의 쿼리도 중단한다.
+    public static void attach(QueryDeadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static Optional<QueryDeadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    // 마감이 없으면 empty, 지났거나 취소됐으면 0 이하
+    public static OptionalLong remainingNanos() {
+        QueryDeadline deadline = CURRENT.get();
+        return deadline != null ? OptionalLong.of(deadline.remaining()) : OptionalLong.empty();
+    }
+
+    public static boolean isExpired() {
+        OptionalLong remaining = remainingNanos();
+        return remaining.isPresent() && remaining.getAsLong() <= 0;
+    }
+
+    /**
+     * JPA query timeout 힌트 값 (ms) : 남은 시간을 초 단위로 올림 (Hibernate 는 초 단위로 적용, 0 은 무제한이므로 최소 1초)
+     * 정확한 중단은 DeadlineDataSource 의 cancel 이 하고, 힌트는 DeadlineDataSource 를 거치지 않는 연결에서도 남는 안전장치
+     */
+    public static OptionalLong timeoutHintMillis() {
+        OptionalLong remaining = remainingNanos();
+        if (remaining.isEmpty()) {
+            return remaining;
+        }
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(Math.max(0, remaining.getAsLong()) + 999_999_999L));
+        return OptionalLong.of(TimeUnit.SECONDS.toMillis(seconds));
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 다른 스레드에서 호출 : 실행 중인 쿼리 중단
+     * started 와 드라이버의 실제 실행 시작 사이에 도착한 Statement.cancel() 은 드라이버가 무시하므로
+     * (H2 는 실행 중인 명령이 없으면 무시, MySQL 의 KILL QUERY 도 마찬가지) 실행이 끝날 때까지 CANCEL_RETRY 마다 다시 취소한다.
+     */
+    public void cancel() {
+        synchronized (this) {
+            cancelled = true;
+        }
+        retryCancel();
+    }
+
+    private void retryCancel() {
+        if (cancelExecuting()) {
+            DeadlineDataSource.CANCELLER.schedule(this::retryCancel, CANCEL_RETRY.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // 실행 중인 Statement 가 있었으면 true
+    private boolean cancelExecuting() {
+        List<Statement> statements;
+        synchronized (this) {
+            statements = new ArrayList<>(executing);
+        }
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+            } catch (SQLException ignored) {
+                // 이미 끝났거나 닫힌 Statement
+            }
+        }
+        return !statements.isEmpty();
+    }
+
+    /**
+     * 쿼리 실행 중(JDBC 응답 대기) 일 때만 action 실행
+     * 실행하는 동안 쿼리를 마친 스레드는 다음 단계로 넘어가지 않는다. (요청 / 응답 객체를 함께 쓰지 않도록)
+     */
+    public synchronized boolean whileExecuting(Runnable action) {
+        if (executing.isEmpty() || cancelled) {
+            return false;
+        }
+        action.run();
+        return true;
+    }
+
+    long remaining() {
+        return cancelled ? 0 : deadlineNanos - System.nanoTime();
+    }
+
+    // DeadlineDataSource : 실행 시작 (이미 취소됐으면 false) / 끝
+    synchronized boolean started(Statement statement) {
+        if (cancelled) {
+            return false;
+        }
+        executing.add(statement);
+        return true;
+    }
+
+    synchronized void finished(Statement statement) {
+        executing.remove(statement);
+    }
+}
@@ -0,0 +1,13 @@
+package study.querydsl.repository.support;
+
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * 요청의 쿼리 마감 시각이 이미 지나서 쿼리를 실행하지 않았을 때
+ */
+public class QueryDeadlineExceededException extends QueryTimeoutException {
+
+    public QueryDeadlineExceededException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,12 @@
+package study.querydsl.repository.support;
+
+/**
+ * 조회 메서드 실행 엔진 (member.query-engine.* 설정으로 메서드별 선택)
+ * JPA  : Querydsl JPA -> JPQL -> SQL 변환 후 Hibernate 가 결과 처리
+ * JDBC : 미리 만들어 둔 SQL 을 JdbcTemplate 으로 실행하고 행을 바로 DTO 로 매핑
+ * SHARDED : JDBC 와 같은 SQL 을 회원 샤드(member.sharding.*) 에 실행하고 결과를 병합 (ShardedMemberRepository)
+ * VIEW : 조인 없이 비정규화 테이블 member_search_view 를 조회 (MemberSearchViewRepository)
+ */
+public enum QueryEngine {
+    JPA, JDBC, SHARDED, VIEW
+}
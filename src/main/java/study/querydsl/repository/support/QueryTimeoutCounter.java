@@ -0,0 +1,63 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.QueryTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLTimeoutException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 리포지토리 메서드별 쿼리 마감 초과(타임아웃 / 취소) 횟수
+ * 가장 바깥 리포지토리 메서드 호출을 감싸서 (RepositoryCallTracker)
+ * 1. 마감이 이미 지났으면 쿼리를 실행하지 않고 QueryDeadlineExceededException
+ * 2. 쿼리가 마감으로 중단되면 "클래스.메서드" 별로 센다.
+ */
+@Slf4j
+@Component
+public class QueryTimeoutCounter {
+
+    private final Map<String, LongAdder> timeouts = new ConcurrentHashMap<>();
+
+    Object invoke(String method, ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            if (QueryDeadline.isExpired()) {
+                throw new QueryDeadlineExceededException("query deadline exceeded before " + method);
+            }
+            return joinPoint.proceed();
+        } catch (RuntimeException e) {
+            if (isTimeout(e)) {
+                timeouts.computeIfAbsent(method, key -> new LongAdder()).increment();
+                log.warn("쿼리 마감 초과 method={}", method);
+            }
+            throw e;
+        }
+    }
+
+    public long getTimeoutCount(String method) {
+        LongAdder count = timeouts.get(method);
+        return count != null ? count.sum() : 0;
+    }
+
+    public Map<String, Long> getTimeoutCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        timeouts.forEach((method, count) -> counts.put(method, count.sum()));
+        return counts;
+    }
+
+    static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof org.springframework.dao.QueryTimeoutException
+                    || cause instanceof QueryTimeoutException
+                    || cause instanceof org.hibernate.QueryTimeoutException
+                    || cause instanceof SQLTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -10,24 +10,35 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
+import study.querydsl.dto.MemberFacetSearchDTO;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.dto.UsernameMatchType;
 import study.querydsl.entity.Member;
 import study.querydsl.repository.MemberRepositoryCustom;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.MemberPredicates.ageGoe;
+import static study.querydsl.repository.support.MemberPredicates.ageLoe;
+import static study.querydsl.repository.support.MemberPredicates.teamNameEq;
 
 public class Querydsl4RepositorySupport extends org.springframework.data.jpa.repository.support.QuerydslRepositorySupport implements MemberRepositoryCustom {
 
     private final JPAQueryFactory queryFactory;
+    private final UsernameSearch usernameSearch;
+    private final LargeResultFetch largeResultFetch;
 
-    public Querydsl4RepositorySupport(EntityManager em) {
+    public Querydsl4RepositorySupport(EntityManager em, UsernameSearch usernameSearch, LargeResultFetch largeResultFetch) {
         super(Member.class);
-        queryFactory = new JPAQueryFactory(em);
+        queryFactory = new DeadlineJPAQueryFactory(em);
+        this.usernameSearch = usernameSearch;
+        this.largeResultFetch = largeResultFetch;
     }
 
     // 페이징 쿼리 (offset(), limit() ) 추가
@@ -45,7 +56,7 @@ public class Querydsl4RepositorySupport extends org.springframework.data.jpa.rep
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
@@ -66,7 +77,7 @@ public class Querydsl4RepositorySupport extends org.springframework.data.jpa.rep
         JPQLQuery<MemberTeamDTO> jpaQuery = from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
@@ -98,7 +109,7 @@ public class Querydsl4RepositorySupport extends org.springframework.data.jpa.rep
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
@@ -110,7 +121,7 @@ public class Querydsl4RepositorySupport extends org.springframework.data.jpa.rep
                 .selectFrom(member)
                 .leftJoin(member.team, team) // 카운트 쿼리를 직접 구현할 때 커스텀 가능 (조인 제거)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
@@ -128,7 +139,7 @@ public class Querydsl4RepositorySupport extends org.springframework.data.jpa.rep
         List<MemberTeamDTO> result = from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
@@ -151,7 +162,7 @@ public class Querydsl4RepositorySupport extends org.springframework.data.jpa.rep
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameEq(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
@@ -159,23 +170,43 @@ public class Querydsl4RepositorySupport extends org.springframework.data.jpa.rep
         return result;
     }
 
-    private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
-        return ageGoe(ageLoe).and(ageGoe(ageGoe));
+    // search 의 대용량 버전
+    @Override
+    public Stream<MemberTeamDTO> searchStream(MemberSearchCondition condition) {
+        return largeResultFetch.stream(queryFactory
+                        .select(new QMemberTeamDTO(
+                                member.id.as("memberId"),
+                                member.username,
+                                member.age,
+                                team.id.as("teamId"),
+                                team.name.as("teamName")))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(
+                                usernameEq(condition.getUsername(), condition.getUsernameMatch()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())));
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.eq(ageLoe) : null;
+    // 검색 결과 페이지 + 팀별 / 나이 구간별 회원 수 (MemberFacets)
+    @Override
+    public MemberFacetSearchDTO searchFaceted(MemberSearchCondition condition, Pageable pageable) {
+        return MemberFacets.search(queryFactory, MemberPredicates.where(usernameSearch, condition), pageable);
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    @Override
+    public MultiGetResult<Member> findAllByIds(Collection<Long> ids) {
+        return MemberMultiGet.findAllByIds(queryFactory, ids);
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return teamName != null ? team.name.eq(teamName) : null;
+    private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
+        return ageGoe(ageLoe).and(ageGoe(ageGoe));
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return username != null ? member.username.eq(username) : null;
+
+    // MemberRepositoryImpl 과 같은 회원명 조건 (usernameMatch)
+    private BooleanExpression usernameEq(String username, UsernameMatchType matchType) {
+        return usernameSearch.matches(username, matchType);
     }
 }
@@ -0,0 +1,56 @@
+package study.querydsl.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 실행 중인 가장 바깥 리포지토리 메서드 (study.querydsl.repository 패키지의 public 메서드)
+ * Spring Data 리포지토리 -> 커스텀 구현(MemberRepositoryImpl) 처럼 중첩 호출되면 가장 바깥 메서드만 스레드에 보관하고
+ * 그 호출 하나를 QueryTimeoutCounter 로 감싼다. (SlowQueryLog 는 current() 로 읽는다)
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryCallTracker {
+
+    private static final ThreadLocal<Call> CURRENT = new ThreadLocal<>();
+
+    private final QueryTimeoutCounter queryTimeoutCounter;
+
+    @Around("execution(public * study.querydsl.repository.*.*(..))")
+    public Object track(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (CURRENT.get() != null) {
+            return joinPoint.proceed();
+        }
+        String condition = null;
+        for (Object arg : joinPoint.getArgs()) {
+            if (arg instanceof MemberSearchCondition searchCondition) {
+                condition = SlowQueryLog.shape(searchCondition);
+            }
+        }
+        Call call = new Call(joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName(),
+                condition);
+        CURRENT.set(call);
+        try {
+            return queryTimeoutCounter.invoke(call.method(), joinPoint);
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    // 리포지토리 밖(스케줄러, 직접 만든 JdbcTemplate 등) 에서 실행 중이면 null
+    public static Call current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @param method    "클래스.메서드"
+     * @param condition MemberSearchCondition 모양 (SlowQueryLog.shape, 인자에 없으면 null)
+     */
+    public record Call(String method, String condition) {
+    }
+}
@@ -0,0 +1,47 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 느린 쿼리 기록 한 건 (SlowQueryLog)
+ * parameters 는 가린 값 (문자열 / 날짜 등은 타입과 길이만), explain 은 비동기로 채워진다.
+ */
+@Getter
+@ToString(exclude = "explain")
+public class SlowQuery {
+
+    public enum ExplainStatus {
+        PENDING, CAPTURED, SKIPPED, FAILED
+    }
+
+    private final long id;
+    private final Instant executedAt;
+    private final long elapsedMillis;
+    private final String sql;
+    private final List<String> parameters;
+    private final String method; // 가장 바깥 리포지토리 메서드 (리포지토리 밖에서 실행되면 null)
+    private final String condition; // MemberSearchCondition 모양 (값 없이 조건 이름만)
+
+    private volatile ExplainStatus explainStatus = ExplainStatus.PENDING;
+    private volatile String explain; // CAPTURED : 실행 계획, SKIPPED / FAILED : 사유
+
+    SlowQuery(long id, Instant executedAt, long elapsedMillis, String sql, List<String> parameters,
+              String method, String condition) {
+        this.id = id;
+        this.executedAt = executedAt;
+        this.elapsedMillis = elapsedMillis;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.method = method;
+        this.condition = condition;
+    }
+
+    void explained(ExplainStatus status, String explain) {
+        this.explain = explain;
+        this.explainStatus = status;
+    }
+}
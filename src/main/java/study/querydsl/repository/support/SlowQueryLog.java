@@ -0,0 +1,202 @@
+package study.querydsl.repository.support;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 느린 쿼리 기록 (member.slow-query.*, 조회 : GET /slow-queries)
+ * 1. StatementTimingDataSource 가 threshold 이상 걸린 쿼리를 record() 로 전달
+ * 2. 실행 중인 가장 바깥 리포지토리 메서드와 MemberSearchCondition 모양(값 없이 조건 이름) 을 함께 기록
+ *    (RepositoryCallTracker.current())
+ * 3. 바인딩 값은 숫자 / boolean / null 만 남기고 나머지는 타입과 길이로 가린다.
+ * 4. select / update / delete 는 별도 스레드에서 같은 값으로 EXPLAIN 을 실행해 붙인다. (대기열이 차면 생략)
+ * 기록은 capacity 개까지만 보관하고 넘치면 오래된 것부터 버린다.
+ */
+@Slf4j
+@Component
+public class SlowQueryLog {
+
+    private final ObjectProvider<DataSource> dataSource;
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final int capacity;
+    private final boolean explain;
+
+    private final Deque<SlowQuery> queries = new ArrayDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryLog(ObjectProvider<DataSource> dataSource,
+                        @Value("${member.slow-query.enabled:true}") boolean enabled,
+                        @Value("${member.slow-query.threshold:200ms}") Duration threshold,
+                        @Value("${member.slow-query.capacity:100}") int capacity,
+                        @Value("${member.slow-query.explain:true}") boolean explain,
+                        @Value("${member.slow-query.explain-queue:32}") int explainQueue) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.thresholdNanos = threshold.toNanos();
+        this.capacity = capacity;
+        this.explain = explain;
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(explainQueue), r -> {
+            Thread thread = new Thread(r, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    // 최근 기록 (최신순)
+    public List<SlowQuery> recent(int limit) {
+        List<SlowQuery> recent = new ArrayList<>();
+        synchronized (queries) {
+            Iterator<SlowQuery> iterator = queries.descendingIterator();
+            while (iterator.hasNext() && recent.size() < limit) {
+                recent.add(iterator.next());
+            }
+        }
+        return recent;
+    }
+
+    public void clear() {
+        synchronized (queries) {
+            queries.clear();
+        }
+    }
+
+    void record(String sql, SortedMap<Integer, Object> parameters, long elapsedNanos) {
+        if (isExplain(sql)) {
+            return; // 이 클래스가 실행한 EXPLAIN
+        }
+        RepositoryCallTracker.Call call = RepositoryCallTracker.current();
+        SlowQuery query = new SlowQuery(sequence.incrementAndGet(), Instant.now(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), sql, redact(parameters),
+                call != null ? call.method() : null, call != null ? call.condition() : null);
+        synchronized (queries) {
+            if (queries.size() >= capacity) {
+                queries.removeFirst();
+            }
+            queries.addLast(query);
+        }
+        log.warn("느린 쿼리 {}ms method={} condition={} sql={}", query.getElapsedMillis(), query.getMethod(), query.getCondition(), sql);
+
+        if (!explain || !isExplainable(sql)) {
+            query.explained(SlowQuery.ExplainStatus.SKIPPED, "explain 대상 아님");
+            return;
+        }
+        try {
+            explainExecutor.execute(() -> explain(query, parameters));
+        } catch (RejectedExecutionException e) {
+            query.explained(SlowQuery.ExplainStatus.SKIPPED, "explain 대기열 가득 참");
+        }
+    }
+
+    private void explain(SlowQuery query, SortedMap<Integer, Object> parameters) {
+        try (Connection connection = dataSource.getObject().getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + query.getSql())) {
+            for (var parameter : parameters.entrySet()) {
+                statement.setObject(parameter.getKey(), parameter.getValue());
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                query.explained(SlowQuery.ExplainStatus.CAPTURED, format(rs));
+            }
+        } catch (SQLException | RuntimeException e) {
+            query.explained(SlowQuery.ExplainStatus.FAILED, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        explainExecutor.shutdownNow();
+    }
+
+    // 조건 이름만 (회원명은 일치 방식 포함) : "username(PREFIX),teamName,ageGoe"
+    static String shape(MemberSearchCondition condition) {
+        StringJoiner shape = new StringJoiner(",");
+        if (condition.getUsername() != null) {
+            shape.add("username(" + (condition.getUsernameMatch() != null ? condition.getUsernameMatch() : "EXACT") + ")");
+        }
+        if (condition.getTeamName() != null) {
+            shape.add("teamName");
+        }
+        if (condition.getAgeGoe() != null) {
+            shape.add("ageGoe");
+        }
+        if (condition.getAgeLoe() != null) {
+            shape.add("ageLoe");
+        }
+        return shape.length() > 0 ? shape.toString() : "all";
+    }
+
+    // 숫자 / boolean / null 은 그대로, 나머지는 "String(7)" 처럼 타입(과 길이) 만
+    static List<String> redact(SortedMap<Integer, Object> parameters) {
+        List<String> redacted = new ArrayList<>();
+        for (Object value : parameters.values()) {
+            if (value == null || value instanceof Number || value instanceof Boolean) {
+                redacted.add(String.valueOf(value));
+            } else if (value instanceof CharSequence text) {
+                redacted.add("String(" + text.length() + ")");
+            } else {
+                redacted.add(value.getClass().getSimpleName());
+            }
+        }
+        return redacted;
+    }
+
+    private static boolean isExplainable(String sql) {
+        String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return statement.startsWith("select") || statement.startsWith("with")
+                || statement.startsWith("update") || statement.startsWith("delete");
+    }
+
+    private static boolean isExplain(String sql) {
+        return sql.stripLeading().regionMatches(true, 0, "explain", 0, "explain".length());
+    }
+
+    // 행마다 "컬럼=값, ..." (H2 는 PLAN 컬럼 하나, MySQL 은 id / select_type / table / type / key / rows ...)
+    private static String format(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        StringJoiner rows = new StringJoiner("\n");
+        while (rs.next()) {
+            StringJoiner row = new StringJoiner(", ");
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                row.add(meta.getColumnCount() == 1 ? String.valueOf(rs.getObject(i))
+                        : meta.getColumnLabel(i) + "=" + rs.getObject(i));
+            }
+            rows.add(row.toString());
+        }
+        return rows.toString();
+    }
+}
@@ -0,0 +1,141 @@
+package study.querydsl.repository.support;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.jdbc.internal.FormatStyle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * SQL 로그 (member.sql-log.*, show-sql / org.hibernate.SQL / BasicBinder 로그 대신 사용)
+ * 1. StatementTimingDataSource 가 실행이 끝난 SQL 마다 sampled() 로 기록 여부를 묻는다.
+ *    threshold 이상 걸린 SQL 은 항상, 나머지는 sample-rate 비율로 기록
+ * 2. 요청 스레드는 SQL / 바인딩 값 / 시간만 링 버퍼에 넣고 바로 돌아간다. (버퍼가 가득 차면 버리고 dropped 증가)
+ * 3. 포맷팅(format_sql 과 같은 줄바꿈) 과 로그 출력은 sql-log 스레드 하나가 한다.
+ * 바인딩 값은 기본으로 SlowQueryLog 와 같이 가린다. (raw-parameters=true 이면 그대로)
+ */
+@Slf4j
+@Component
+public class SqlLog {
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long thresholdNanos;
+    private final boolean format;
+    private final boolean rawParameters;
+
+    private final SqlLogRingBuffer<Entry> buffer;
+    private final Consumer<String> sink;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    @Autowired
+    public SqlLog(@Value("${member.sql-log.enabled:true}") boolean enabled,
+                  @Value("${member.sql-log.sample-rate:0.01}") double sampleRate,
+                  @Value("${member.sql-log.threshold:100ms}") Duration threshold,
+                  @Value("${member.sql-log.buffer-size:4096}") int bufferSize,
+                  @Value("${member.sql-log.format:true}") boolean format,
+                  @Value("${member.sql-log.raw-parameters:false}") boolean rawParameters) {
+        this(enabled, sampleRate, threshold, bufferSize, format, rawParameters, log::info);
+    }
+
+    SqlLog(boolean enabled, double sampleRate, Duration threshold, int bufferSize, boolean format,
+           boolean rawParameters, Consumer<String> sink) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.thresholdNanos = threshold.toNanos();
+        this.format = format;
+        this.rawParameters = rawParameters;
+        this.buffer = new SqlLogRingBuffer<>(bufferSize);
+        this.sink = sink;
+        this.writer = new Thread(this::drain, "sql-log");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 버퍼가 가득 차서 버린 로그 수
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    // 실행 시간으로 기록 여부 결정 (요청 스레드)
+    boolean sampled(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos
+                || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    // 요청 스레드 : 버퍼에 넣기만 한다.
+    void offer(String sql, SortedMap<Integer, Object> parameters, long elapsedNanos) {
+        if (!buffer.offer(new Entry(sql, parameters, elapsedNanos))) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        long reportedDropped = 0;
+        while (running) {
+            Entry entry = buffer.poll();
+            if (entry == null) {
+                long droppedNow = dropped.sum();
+                if (droppedNow != reportedDropped) {
+                    log.warn("SQL 로그 버퍼가 가득 차서 {}건을 버렸습니다.", droppedNow - reportedDropped);
+                    reportedDropped = droppedNow;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+            try {
+                sink.accept(render(entry));
+            } catch (RuntimeException e) {
+                log.warn("SQL 로그 출력 실패", e);
+            }
+        }
+        for (Entry entry; (entry = buffer.poll()) != null; ) { // 종료 시 남은 로그
+            sink.accept(render(entry));
+        }
+    }
+
+    private String render(Entry entry) {
+        String sql = format ? FormatStyle.BASIC.getFormatter().format(entry.sql()) : entry.sql();
+        List<String> parameters = rawParameters ? raw(entry.parameters()) : SlowQueryLog.redact(entry.parameters());
+        return (entry.elapsedNanos() >= thresholdNanos ? "[slow] " : "")
+                + TimeUnit.NANOSECONDS.toMicros(entry.elapsedNanos()) / 1000.0 + "ms"
+                + (parameters.isEmpty() ? "" : " " + parameters)
+                + (format ? sql : " " + sql);
+    }
+
+    private static List<String> raw(SortedMap<Integer, Object> parameters) {
+        List<String> values = new ArrayList<>();
+        for (Object value : parameters.values()) {
+            values.add(String.valueOf(value));
+        }
+        return values;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(writer);
+    }
+
+    private record Entry(String sql, SortedMap<Integer, Object> parameters, long elapsedNanos) {
+    }
+}
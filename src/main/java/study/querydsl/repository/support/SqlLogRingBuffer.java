@@ -0,0 +1,69 @@
+package study.querydsl.repository.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * SqlLog 용 고정 크기 링 버퍼 (여러 요청 스레드가 넣고, 로그 스레드 하나가 꺼낸다)
+ * 칸마다 순번을 두고 CAS 로 자리를 잡으므로 락이 없다. 가득 차면 offer 가 false 를 반환한다. (기다리지 않음)
+ * 크기는 2 의 거듭제곱으로 올림
+ */
+class SqlLogRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences; // 칸 i : sequence == 위치 이면 비어 있음, 위치 + 1 이면 채워짐
+    private final AtomicLong tail = new AtomicLong(); // 다음에 넣을 위치
+    private volatile long head; // 다음에 꺼낼 위치 (소비자 스레드만 변경)
+
+    SqlLogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1); // 채움 표시 (소비자에게 보임)
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false; // 한 바퀴 전 원소를 아직 꺼내지 않음 : 가득 참
+            }
+            // sequence > position : 다른 스레드가 먼저 자리를 잡음, 다시 시도
+        }
+    }
+
+    // 소비자 스레드 하나에서만 호출
+    E poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, position + mask + 1); // 다음 바퀴의 빈 칸
+        head = position + 1;
+        return element;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
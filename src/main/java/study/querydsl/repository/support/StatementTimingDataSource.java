@@ -0,0 +1,129 @@
+package study.querydsl.repository.support;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * 쿼리 실행 시간을 재서 SlowQueryLog (임계값 이상) 와 SqlLog (샘플링) 에 전달하는 DataSource
+ * Hibernate(JPA, Querydsl) 가 만든 SQL 과 JdbcTemplate SQL 모두 JDBC Statement 에서 실행되므로 여기서 잰다.
+ * PreparedStatement 의 set*(index, value) 를 모아 두었다가 기록 / EXPLAIN 에 사용한다. (addBatch 는 마지막 행 기준)
+ * SlowQueryLog / SqlLog 는 처음 쿼리를 실행할 때 찾는다. (DataSource 생성 중 순환 참조 방지)
+ */
+public class StatementTimingDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLogProvider;
+    private final ObjectProvider<SqlLog> sqlLogProvider;
+    private volatile SlowQueryLog slowQueryLog;
+    private volatile SqlLog sqlLog;
+
+    public StatementTimingDataSource(DataSource target, ObjectProvider<SlowQueryLog> slowQueryLogProvider,
+                                     ObjectProvider<SqlLog> sqlLogProvider) {
+        super(target);
+        this.slowQueryLogProvider = slowQueryLogProvider;
+        this.sqlLogProvider = sqlLogProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private Connection connection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                        return statement(statement, method.getReturnType(), sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Object statement(Statement statement, Class<?> type, String preparedSql) {
+        SortedMap<Integer, Object> parameters = new TreeMap<>();
+        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("execute")) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                        return execute(statement, method, args, sql, parameters);
+                    }
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parameters.put(index, name.equals("setNull") ? null : args[1]);
+                    } else if (name.equals("clearParameters")) {
+                        parameters.clear();
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private Object execute(Statement statement, Method method, Object[] args, String sql,
+                           SortedMap<Integer, Object> parameters) throws Throwable {
+        SlowQueryLog slowLog = slowQueryLog();
+        SqlLog log = sqlLog();
+        boolean slowLogEnabled = slowLog != null && slowLog.isEnabled();
+        boolean sqlLogEnabled = log != null && log.isEnabled();
+        if (sql == null || (!slowLogEnabled && !sqlLogEnabled)) {
+            return invoke(statement, method, args);
+        }
+        long start = System.nanoTime();
+        try {
+            return invoke(statement, method, args);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            boolean slow = slowLogEnabled && elapsed >= slowLog.getThresholdNanos();
+            boolean sampled = sqlLogEnabled && log.sampled(elapsed);
+            if (slow || sampled) {
+                SortedMap<Integer, Object> copy = new TreeMap<>(parameters);
+                if (slow) {
+                    slowLog.record(sql, copy, elapsed);
+                }
+                if (sampled) {
+                    log.offer(sql, copy, elapsed);
+                }
+            }
+        }
+    }
+
+    private SlowQueryLog slowQueryLog() {
+        SlowQueryLog log = slowQueryLog;
+        if (log == null) {
+            log = slowQueryLogProvider.getIfAvailable();
+            slowQueryLog = log;
+        }
+        return log;
+    }
+
+    private SqlLog sqlLog() {
+        SqlLog log = sqlLog;
+        if (log == null) {
+            log = sqlLogProvider.getIfAvailable();
+            sqlLog = log;
+        }
+        return log;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
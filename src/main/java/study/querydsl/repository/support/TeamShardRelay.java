@@ -0,0 +1,162 @@
+package study.querydsl.repository.support;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Team;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기본 DB 의 팀 변경을 모든 회원 샤드에 복제 (member.sharding.relay-interval)
+ * 1. 팀 저장 / 수정 / 삭제 시 같은 트랜잭션에서 team_shard_outbox 에 변경 후 상태(이름, version) 를 쌓는다. (MemberSearchViewListener)
+ * 2. relay 가 outbox 를 순서대로 읽어 팀마다 가장 높은 version 을 모든 샤드에 보내고, 보낸 행만 지운다.
+ *    샤드는 자기보다 높은 version 만 받으므로 (update ... where version < :version) 순서가 뒤바뀌거나 두 번 보내도 최신 값이 남는다.
+ * 3. 샤드에 보내다 실패하면 outbox 에 남아 다음 relay 에서 다시 보낸다. (커밋 직후 한 번 + relay-interval 마다)
+ * 삭제된 팀은 샤드에서 지우지 않고 이름을 비운 행(tombstone) 으로 남긴다. (늦게 도착한 낮은 version 이 팀을 되살리지 않도록)
+ */
+@Slf4j
+@Component
+public class TeamShardRelay {
+
+    private static final String UPDATE_SQL = "update team set name = :name, version = :version where team_id = :team_id and version < :version";
+    private static final String INSERT_SQL = "insert into team (team_id, name, version) values (:team_id, :name, :version)";
+
+    private final MemberShards shards;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final Duration interval;
+
+    private ScheduledExecutorService scheduler;
+
+    public TeamShardRelay(MemberShards shards,
+                          JdbcTemplate jdbcTemplate,
+                          @Value("${member.sharding.relay-interval:1s}") Duration interval) {
+        this.shards = shards;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.interval = interval;
+    }
+
+    // 스키마 생성(ddl-auto) 이후 시작
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!shards.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "team-shard-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::relayQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // 팀 변경과 같은 트랜잭션에서 호출 (flush 중)
+    public void teamChanged(Team team, boolean deleted) {
+        if (!shards.isEnabled()) {
+            return;
+        }
+        jdbcTemplate.update("insert into team_shard_outbox (team_id, name, version, deleted) values (?, ?, ?, ?)",
+                team.getId(), deleted ? null : team.getName(), deleted ? team.getVersion() + 1 : team.getVersion(), deleted);
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.getSynchronizations().stream()
+                .noneMatch(synchronization -> synchronization instanceof AfterCommit afterCommit && afterCommit.owner() == this)) {
+            TransactionSynchronizationManager.registerSynchronization(new AfterCommit());
+        }
+    }
+
+    /**
+     * outbox 를 비울 때까지 샤드에 반영
+     * @return 반영한 outbox 행 수
+     */
+    public synchronized int relay() {
+        if (!shards.isEnabled()) {
+            return 0;
+        }
+        int relayed = 0;
+        while (true) {
+            List<Map<String, Object>> events = jdbcTemplate.queryForList(
+                    "select outbox_id, team_id, name, version from team_shard_outbox order by outbox_id limit ?",
+                    MultiGetResult.DEFAULT_IN_LIST_SIZE);
+            if (events.isEmpty()) {
+                return relayed;
+            }
+            Collection<Map<String, Object>> latest = latestByTeam(events);
+            shards.scatter(shards.all(), shard -> {
+                latest.forEach(event -> apply(shard, new MapSqlParameterSource(event)));
+                return null;
+            });
+            // 읽은 행만 삭제 (그 사이 커밋된 outbox_id 가 더 작은 행이 있을 수 있음)
+            namedJdbcTemplate.update("delete from team_shard_outbox where outbox_id in (:ids)",
+                    new MapSqlParameterSource("ids", events.stream().map(event -> event.get("outbox_id")).toList()));
+            relayed += events.size();
+        }
+    }
+
+    private static Collection<Map<String, Object>> latestByTeam(List<Map<String, Object>> events) {
+        Map<Long, Map<String, Object>> latest = new LinkedHashMap<>();
+        for (Map<String, Object> event : events) {
+            latest.merge(((Number) event.get("team_id")).longValue(), event,
+                    (a, b) -> ((Number) a.get("version")).longValue() >= ((Number) b.get("version")).longValue() ? a : b);
+        }
+        return latest.values();
+    }
+
+    private static void apply(NamedParameterJdbcTemplate shard, MapSqlParameterSource event) {
+        if (shard.update(UPDATE_SQL, event) > 0) {
+            return;
+        }
+        try {
+            shard.update(INSERT_SQL, event);
+        } catch (DuplicateKeyException ignored) {
+            // 같거나 더 높은 version 이 이미 있음
+        }
+    }
+
+    private void relayQuietly() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.error("팀 샤드 복제 실패 (outbox 에 남아 다시 시도)", e);
+        }
+    }
+
+    // 커밋 직후 바로 한 번 보낸다. (실패하거나 스케줄러가 없으면 relay-interval 주기에 보냄)
+    private class AfterCommit implements TransactionSynchronization {
+
+        TeamShardRelay owner() {
+            return TeamShardRelay.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            if (scheduler != null) {
+                scheduler.execute(TeamShardRelay.this::relayQuietly);
+            }
+        }
+    }
+}
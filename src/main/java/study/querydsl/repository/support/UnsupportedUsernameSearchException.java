@@ -0,0 +1,14 @@
+package study.querydsl.repository.support;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+/**
+ * 인덱스로 답할 수 없는 회원명 검색 (풀스캔 대신 거절)
+ * 예 : 3글자 미만 contains 검색어, 결과가 max-candidates 를 넘는 검색어, n-gram 인덱스 비활성
+ */
+public class UnsupportedUsernameSearchException extends InvalidDataAccessApiUsageException {
+
+    public UnsupportedUsernameSearchException(String msg) {
+        super(msg);
+    }
+}
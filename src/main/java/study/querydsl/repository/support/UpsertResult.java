@@ -0,0 +1,34 @@
+package study.querydsl.repository.support;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 일괄 upsert 결과 (레코드 단위 건수)
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class UpsertResult {
+
+    public static final UpsertResult EMPTY = new UpsertResult(0, 0, 0);
+
+    private final long inserted;
+    private final long updated;
+    private final long unchanged; // 이미 같은 값이라 쓰지 않은 레코드
+
+    public UpsertResult(long inserted, long updated, long unchanged) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+    }
+
+    public long getTotal() {
+        return inserted + updated + unchanged;
+    }
+
+    public UpsertResult plus(UpsertResult other) {
+        return new UpsertResult(inserted + other.inserted, updated + other.updated, unchanged + other.unchanged);
+    }
+}
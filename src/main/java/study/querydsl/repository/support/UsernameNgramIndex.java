@@ -0,0 +1,121 @@
+package study.querydsl.repository.support;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 회원명 contains 검색용 메모리 trigram 인덱스
+ * 정규화한 회원명의 모든 3글자 부분 문자열을 member_id 집합에 매핑한다.
+ * 검색어의 trigram 후보 중 가장 작은 집합을 기준으로 나머지 집합 / 실제 회원명을 확인한다.
+ * like '%abc%' 풀스캔 대신 찾은 id 로 pk 조회(member_id in (...)) 를 하기 위해 사용한다.
+ * 회원명 / 검색어는 이미 정규화된 값을 받는다. (UsernameSearch.normalize, username_normalized 컬럼과 같은 규칙)
+ * - 3글자 미만 검색어는 거의 모든 회원이 후보가 되므로 답하지 않는다.
+ * - 결과가 maxCandidates 를 넘으면 in 절이 커지므로 답하지 않는다.
+ * 메모리 : 회원명 길이 L 이면 trigram L - 2 개, 회원 한 명당 대략 (L - 2) x 50 바이트 + 회원명 (boxed Long + 집합 노드)
+ *          (10글자 회원명 100만 명이면 약 400MB, 1/2 글자 gram 은 저장하지 않는다.)
+ */
+public class UsernameNgramIndex {
+
+    static final int GRAM = 3;
+
+    private final Map<String, Set<Long>> grams = new ConcurrentHashMap<>();
+    private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+
+    public synchronized void put(Long memberId, String normalized) {
+        remove(memberId);
+        if (memberId == null || normalized == null) {
+            return;
+        }
+        usernames.put(memberId, normalized);
+        for (String gram : gramsOf(normalized)) {
+            grams.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(memberId);
+        }
+    }
+
+    public synchronized void remove(Long memberId) {
+        if (memberId == null) {
+            return;
+        }
+        String old = usernames.remove(memberId);
+        if (old == null) {
+            return;
+        }
+        for (String gram : gramsOf(old)) {
+            Set<Long> ids = grams.get(gram);
+            if (ids != null) {
+                ids.remove(memberId);
+                if (ids.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        grams.clear();
+        usernames.clear();
+    }
+
+    public int size() {
+        return usernames.size();
+    }
+
+    /**
+     * 검색어를 포함하는 회원 id 목록 (없으면 빈 목록)
+     * 3글자 미만 검색어이거나 결과가 maxCandidates 개를 넘으면 empty (인덱스로 답할 수 없음)
+     */
+    public Optional<List<Long>> findIdsContaining(String normalized, int maxCandidates) {
+        if (normalized == null || normalized.length() < GRAM) {
+            return Optional.empty();
+        }
+
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String gram : gramsOf(normalized)) {
+            Set<Long> ids = grams.get(gram);
+            if (ids == null) {
+                return Optional.of(List.of());
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        // 가장 작은 집합만 순회 (복사하지 않음)
+        List<Long> result = new ArrayList<>();
+        for (Long id : postings.get(0)) {
+            if (!inAll(postings, id)) {
+                continue;
+            }
+            String username = usernames.get(id);
+            if (username != null && username.contains(normalized)) {
+                if (result.size() == maxCandidates) {
+                    return Optional.empty();
+                }
+                result.add(id);
+            }
+        }
+        return Optional.of(result);
+    }
+
+    private static boolean inAll(List<Set<Long>> postings, Long id) {
+        for (int i = 1; i < postings.size(); i++) {
+            if (!postings.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> gramsOf(String normalized) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            result.add(normalized.substring(i, i + GRAM));
+        }
+        return result;
+    }
+}
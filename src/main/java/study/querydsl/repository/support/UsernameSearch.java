@@ -0,0 +1,323 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.UsernameMatchType;
+import study.querydsl.entity.Member;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * MemberSearchCondition 의 회원명 검색 조건 생성
+ * 컬럼에 함수를 씌우지 않고 (lower(username) = ? 금지) 정규화 컬럼 / n-gram 인덱스를 사용한다.
+ * 정규화 규칙은 username_normalized 컬럼의 DB lower() 하나다. (normalize, 인덱스 재구성도 컬럼 값을 읽는다)
+ * contains 검색은 n-gram 인덱스로만 실행하고, 인덱스로 답할 수 없으면 like 풀스캔 대신 UnsupportedUsernameSearchException 으로 거절한다.
+ * n-gram 인덱스는 이 프로세스의 메모리에 있다.
+ * - 엔티티 / JDBC 쓰기는 트랜잭션이 커밋된 뒤에 반영한다. (롤백된 변경은 반영하지 않음)
+ * - 현재 트랜잭션의 반영 전 변경은 검색할 때 인덱스 결과에 겹쳐서 자기 쓰기를 본다.
+ * - 샤드 쓰기(ShardedMemberRepository) 는 샤드 커밋 직후 반영하고, 샤딩 중에는 샤드의 회원으로 재구성한다.
+ * - 다른 인스턴스의 쓰기는 refresh-interval 마다 DB 기준으로 다시 만들 때 반영된다. (그 사이에는 검색되지 않을 수 있음)
+ */
+@Slf4j
+@Component
+public class UsernameSearch {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final MemberShards shards;
+    private final boolean ngramIndexEnabled; // false 이면 contains 검색을 거절
+    private final int maxCandidates;
+    private final Duration refreshInterval;
+    private final Object rebuildLock = new Object();
+
+    private volatile UsernameNgramIndex ngramIndex = new UsernameNgramIndex();
+    private List<Consumer<UsernameNgramIndex>> changesDuringRebuild; // 재구성 중 커밋된 변경 (this 로 보호)
+    private ScheduledExecutorService scheduler;
+
+    public UsernameSearch(JPAQueryFactory queryFactory,
+                          EntityManager em,
+                          JdbcTemplate jdbcTemplate,
+                          MemberShards shards,
+                          @Value("${member.search.ngram-index.enabled:true}") boolean ngramIndexEnabled,
+                          @Value("${member.search.ngram-index.max-candidates:1000}") int maxCandidates,
+                          @Value("${member.search.ngram-index.refresh-interval:0s}") Duration refreshInterval) {
+        this.queryFactory = queryFactory;
+        this.em = em;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.ngramIndexEnabled = ngramIndexEnabled;
+        this.maxCandidates = maxCandidates;
+        this.refreshInterval = refreshInterval;
+    }
+
+    public BooleanExpression matches(String username, UsernameMatchType matchType) {
+        return matches(member.username, member.usernameNormalized, member.id, username, matchType);
+    }
+
+    // 회원명 / 정규화 컬럼 / member_id 를 가진 다른 엔티티(MemberSearchView) 의 같은 조건
+    public BooleanExpression matches(StringPath usernamePath, StringPath normalizedPath, NumberPath<Long> memberIdPath,
+                                     String username, UsernameMatchType matchType) {
+        if (username == null) {
+            return null;
+        }
+        return switch (matchType != null ? matchType : UsernameMatchType.EXACT) {
+            case EXACT -> usernamePath.eq(username);
+            case IGNORE_CASE -> normalizedPath.eq(normalize(username));
+            case PREFIX -> normalizedPath.startsWith(normalize(username));
+            case CONTAINS -> contains(memberIdPath, username);
+        };
+    }
+
+    private BooleanExpression contains(NumberPath<Long> memberIdPath, String username) {
+        List<Long> ids = findIdsContaining(username);
+        return ids.isEmpty() ? memberIdPath.isNull() : memberIdPath.in(ids); // member_id 는 null 이 될 수 없으므로 결과 없음
+    }
+
+    /**
+     * contains 검색 결과 id 목록 (최대 max-candidates 개, JPA 외의 실행 엔진에서 같은 조건을 만들 때도 사용)
+     * 현재 트랜잭션의 변경은 flush 한 뒤 인덱스 결과에 겹친다. (커밋 전 자기 쓰기를 봄)
+     * @throws UnsupportedUsernameSearchException 인덱스 비활성, 3글자 미만 검색어, 결과가 max-candidates 개를 넘음
+     */
+    public List<Long> findIdsContaining(String username) {
+        if (!ngramIndexEnabled) {
+            throw new UnsupportedUsernameSearchException("contains 검색은 회원명 n-gram 인덱스가 필요합니다. (member.search.ngram-index.enabled)");
+        }
+        String keyword = normalize(username);
+        if (keyword.length() < UsernameNgramIndex.GRAM) {
+            throw new UnsupportedUsernameSearchException("contains 검색어는 " + UsernameNgramIndex.GRAM + "글자 이상이어야 합니다. username=" + username);
+        }
+        flushIfWritable(); // 엔티티 리스너가 반영 전 변경을 모으도록
+        Pending pending = pending(false);
+        Map<Long, String> changes = pending != null ? pending.changes : Map.of();
+
+        // 현재 트랜잭션에서 바뀐 회원은 인덱스 결과에서 빼고 바뀐 회원명으로 다시 확인
+        Optional<List<Long>> indexed = ngramIndex.findIdsContaining(keyword, maxCandidates + changes.size());
+        List<Long> ids = new ArrayList<>();
+        indexed.ifPresent(found -> found.stream().filter(id -> !changes.containsKey(id)).forEach(ids::add));
+        changes.forEach((id, normalized) -> {
+            if (normalized != null && normalized.contains(keyword)) {
+                ids.add(id);
+            }
+        });
+        if (indexed.isEmpty() || ids.size() > maxCandidates) {
+            throw new UnsupportedUsernameSearchException("contains 검색 결과가 " + maxCandidates + "명을 넘습니다. 검색어를 더 길게 입력하세요. username=" + username);
+        }
+        return ids;
+    }
+
+    /**
+     * username_normalized 컬럼(generated always as (lower(username))) 과 같은 규칙으로 정규화
+     * ASCII 는 DB lower() 와 결과가 같으므로 Java 로 바꾸고, 그 외 문자는 DB 의 lower() 로 바꾼다.
+     * (Java 와 DB 의 대소문자 규칙이 다른 문자가 있음 : 독일어 ß, 터키어 İ 등)
+     */
+    public String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.chars().allMatch(c -> c < 0x80)) {
+            return value.toLowerCase(Locale.ROOT);
+        }
+        return jdbcTemplate.queryForObject("select lower(?)", String.class, value);
+    }
+
+    public boolean isNgramIndexEnabled() {
+        return ngramIndexEnabled;
+    }
+
+    // 엔티티 저장/수정/삭제 시 MemberSearchIndexListener 에서 호출
+    void indexed(Member member) {
+        indexed(member.getId(), member.getUsername());
+    }
+
+    // JDBC 로 insert 한 회원 (MemberBulkUpsert, MemberWriteBehindBuffer)
+    public void indexed(Long id, String username) {
+        if (ngramIndexEnabled) {
+            changed(id, normalize(username));
+        }
+    }
+
+    void removed(Member member) {
+        if (ngramIndexEnabled) {
+            changed(member.getId(), null);
+        }
+    }
+
+    // 샤드에 커밋된 쓰기 (ShardedMemberRepository) : 기본 DB 트랜잭션과 관계없이 바로 반영, username 이 null 이면 삭제
+    public void shardCommitted(Long id, String username) {
+        if (ngramIndexEnabled) {
+            apply(id, username != null ? normalize(username) : null);
+        }
+    }
+
+    // 트랜잭션 안이면 커밋 후에 반영 (normalized 가 null 이면 삭제)
+    private void changed(Long id, String normalized) {
+        Pending pending = pending(true);
+        if (pending != null) {
+            pending.changes.put(id, normalized);
+        } else {
+            apply(id, normalized);
+        }
+    }
+
+    private synchronized void apply(Long id, String normalized) {
+        Consumer<UsernameNgramIndex> change = index -> {
+            if (normalized != null) {
+                index.put(id, normalized);
+            } else {
+                index.remove(id);
+            }
+        };
+        change.accept(ngramIndex);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    private Pending pending(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Pending pending && pending.owner() == this) {
+                return pending;
+            }
+        }
+        if (!create) {
+            return null;
+        }
+        Pending pending = new Pending();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE - 1) // 쿼리 워밍업(MemberQueryWarmup) 전에 구성
+    public void start() {
+        if (!ngramIndexEnabled) {
+            return;
+        }
+        rebuild();
+        if (refreshInterval.isZero() || refreshInterval.isNegative()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "username-ngram-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("회원명 n-gram 인덱스 재구성 실패", e);
+            }
+        }, refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * DB 기준으로 n-gram 인덱스 재구성
+     * 새 인덱스를 따로 만든 뒤 교체하므로 재구성 중에도 기존 인덱스로 검색한다. (재구성 중 커밋된 변경은 교체 전에 다시 적용)
+     * 벌크 update(queryFactory.update(member)) 는 엔티티 리스너를 거치지 않으므로 벌크 연산 후 호출할 것
+     */
+    public void rebuild() {
+        if (!ngramIndexEnabled) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                changesDuringRebuild = new ArrayList<>();
+            }
+            UsernameNgramIndex rebuilt = new UsernameNgramIndex();
+            try {
+                load(rebuilt);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    changesDuringRebuild = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+                changesDuringRebuild = null;
+                ngramIndex = rebuilt;
+            }
+        }
+    }
+
+    // 정규화 컬럼 값을 그대로 읽는다. (샤딩 중에는 회원 원본이 있는 모든 샤드에서)
+    private void load(UsernameNgramIndex target) {
+        if (shards.isEnabled()) {
+            shards.scatter(shards.all(), shard -> {
+                shard.getJdbcTemplate().query("select member_id, username_normalized from member",
+                        (RowCallbackHandler) rs -> target.put(rs.getLong(1), rs.getString(2)));
+                return null;
+            });
+            return;
+        }
+        List<Tuple> rows = queryFactory
+                .select(member.id, member.usernameNormalized)
+                .from(member)
+                .fetch();
+        for (Tuple row : rows) {
+            target.put(row.get(member.id), row.get(member.usernameNormalized));
+        }
+    }
+
+    private void flushIfWritable() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            em.flush();
+        }
+    }
+
+    // 현재 트랜잭션에서 생긴 인덱스 변경 : member_id -> 정규화한 회원명 (삭제는 null, REQUIRES_NEW 안쪽 트랜잭션은 따로 모인다.)
+    private class Pending implements TransactionSynchronization {
+
+        final Map<Long, String> changes = new LinkedHashMap<>();
+
+        UsernameSearch owner() {
+            return UsernameSearch.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            changes.forEach(UsernameSearch.this::apply);
+        }
+    }
+}
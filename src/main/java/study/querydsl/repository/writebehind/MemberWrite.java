@@ -0,0 +1,28 @@
+package study.querydsl.repository.writebehind;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * write-behind 로 접수된 회원 쓰기 한 건
+ * insert 도 접수할 때 member_id 를 발급하므로 같은 회원의 insert / update 는 memberId 로 같은 stripe 에 들어간다.
+ * (이전 형식 저널의 insert 는 memberId 가 null)
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class MemberWrite {
+
+    private final long sequence;
+    private final Long memberId;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+    private final boolean insert;
+
+    // 같은 회원에 대한 쓰기는 항상 같은 stripe 에서 순서대로 반영
+    Object orderingKey() {
+        return memberId != null ? memberId : username;
+    }
+}
@@ -0,0 +1,367 @@
+package study.querydsl.repository.writebehind;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.MemberWriteCheckpoint;
+import study.querydsl.repository.support.MemberDataVersion;
+import study.querydsl.repository.support.MemberSearchViewWriter;
+import study.querydsl.repository.support.MemberShards;
+import study.querydsl.repository.support.UsernameSearch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 회원 insert / update 를 write-behind 로 처리하는 버퍼 (member.write-behind.enabled=true 일 때만 등록)
+ * 1. submit() : 로컬 저널에 기록(fsync) 후 바로 반환 -> 요청 스레드는 DB 커밋을 기다리지 않음
+ *    fsync 는 저널의 sync 스레드가 동시에 들어온 submit 을 모아 한 번에 한다. (전역 잠금은 파일 쓰기 동안만)
+ *    stripe 큐에는 fsync 가 성공한 뒤에 저널 순서대로 넣는다. (fsync 가 실패해 예외를 받은 쓰기는 반영되지 않음)
+ * 2. 신규 회원도 submit 할 때 member_id 를 발급(member 에 설정) 하므로, 같은 회원의 insert / update 는 memberId 로 같은 stripe 큐에 들어가 순서대로 반영
+ * 3. stripe 마다 하나의 워커가 큐를 batchSize 만큼 모아 JDBC 배치로 반영하고,
+ *    같은 트랜잭션에서 member_write_checkpoint 를 갱신한다. (재시작 시 중복 반영 없음)
+ * 4. 버퍼에 capacity 이상 쌓이면 RejectedExecutionException 으로 즉시 거절 (호출 측에서 동기 저장 등으로 대체)
+ * 5. 기동 시 저널에서 checkpoint 이후의 쓰기를 다시 큐에 넣어 복구한다.
+ * 6. 배치가 max-attempts 번 실패하면 한 건씩 반영해 보고, 그래도 실패한 쓰기는 dead-letter 저널에 옮기고 checkpoint 를 넘긴다.
+ *    잠금 대기 초과 / 데드락 / 연결 실패 같은 일시적 오류는 시도 횟수에 세지 않고 dead-letter 로 옮기지도 않는다. (backoff 후 재시도)
+ *    (dead-letter 저널의 쓰기는 자동으로 다시 반영하지 않는다. 원인 확인 후 수동 처리)
+ * stripe 수를 바꾸려면 저널이 모두 반영된(비워진) 상태에서 바꿀 것
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "member.write-behind.enabled", havingValue = "true")
+public class MemberWriteBehindBuffer {
+
+    private static final String INSERT_SQL = "insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "update member set username = ?, age = ?, team_id = ?, version = version + 1 where member_id = ?";
+
+    private final EntityManager em;
+    private final SessionFactoryImplementor sessionFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberWriteJournal journal;
+    private final MemberWriteJournal deadLetter;
+    private final MemberSearchViewWriter searchViewWriter;
+    private final UsernameSearch usernameSearch;
+    private final MemberShards shards;
+    private final MemberDataVersion dataVersion;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final long truncateThresholdBytes;
+    private final int maxAttempts;
+
+    private final List<Queue<MemberWrite>> stripes = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger buffered = new AtomicInteger(); // 접수됐지만 아직 커밋되지 않은 쓰기 수
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean running;
+
+    public MemberWriteBehindBuffer(EntityManager em,
+                                   EntityManagerFactory emf,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MemberSearchViewWriter searchViewWriter,
+                                   UsernameSearch usernameSearch,
+                                   MemberShards shards,
+                                   MemberDataVersion dataVersion,
+                                   @Value("${member.write-behind.journal-path:data/member-write-behind.journal}") Path journalPath,
+                                   @Value("${member.write-behind.stripes:4}") int stripeCount,
+                                   @Value("${member.write-behind.capacity:10000}") int capacity,
+                                   @Value("${member.write-behind.batch-size:100}") int batchSize,
+                                   @Value("${member.write-behind.flush-interval:50ms}") Duration flushInterval,
+                                   @Value("${member.write-behind.truncate-threshold-bytes:4194304}") long truncateThresholdBytes,
+                                   @Value("${member.write-behind.dead-letter-path:data/member-write-behind.dead}") Path deadLetterPath,
+                                   @Value("${member.write-behind.max-attempts:10}") int maxAttempts) {
+        this.em = em;
+        this.sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = new MemberWriteJournal(journalPath);
+        this.deadLetter = new MemberWriteJournal(deadLetterPath);
+        this.searchViewWriter = searchViewWriter;
+        this.usernameSearch = usernameSearch;
+        this.shards = shards;
+        this.dataVersion = dataVersion;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.truncateThresholdBytes = truncateThresholdBytes;
+        this.maxAttempts = maxAttempts;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * 회원 쓰기 접수 (id 가 없으면 insert, 있으면 update)
+     * insert 는 member_id 를 발급해서 member 에 설정한다. (같은 객체를 다시 submit 하면 update)
+     * 저널에 안전하게 기록된 뒤 반환되며, DB 반영은 비동기로 이루어진다.
+     */
+    public void submit(Member member) {
+        shards.checkPrimaryMemberWrite();
+        if (!running) {
+            throw new IllegalStateException("write-behind 버퍼가 실행 중이 아닙니다.");
+        }
+        if (buffered.incrementAndGet() > capacity) {
+            buffered.decrementAndGet();
+            throw new RejectedExecutionException("write-behind 버퍼가 가득 찼습니다. capacity=" + capacity);
+        }
+
+        CompletableFuture<Void> synced;
+        try {
+            boolean insert = member.getId() == null;
+            if (insert) {
+                member.setId(nextId());
+            }
+            // sequence 순서 = 저널 순서 = stripe 큐 순서 (큐 삽입은 fsync 성공 후 sync 스레드가 저널 순서대로)
+            synchronized (journal) {
+                MemberWrite write = new MemberWrite(sequence.incrementAndGet(), member.getId(),
+                        member.getUsername(), member.getAge(),
+                        member.getTeam() != null ? member.getTeam().getId() : null, insert);
+                int stripe = stripeOf(write);
+                synced = journal.append(write, () -> {
+                    stripes.get(stripe).offer(write);
+                    LockSupport.unpark(workers.get(stripe));
+                });
+            }
+        } catch (RuntimeException e) {
+            buffered.decrementAndGet();
+            throw e;
+        }
+        try {
+            synced.join(); // group commit 대기
+        } catch (CompletionException e) {
+            buffered.decrementAndGet(); // 저널에서 잘라냈으므로 반영되지 않음
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    public int getBuffered() {
+        return buffered.get();
+    }
+
+    @PostConstruct
+    public void start() {
+        recover();
+        running = true;
+        for (int i = 0; i < stripes.size(); i++) {
+            int stripe = i;
+            Thread worker = new Thread(() -> runWorker(stripe), "member-write-behind-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            LockSupport.unpark(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        journal.close();
+        deadLetter.close();
+    }
+
+    // 저널에서 아직 DB 에 반영되지 않은 쓰기를 큐로 복구
+    private void recover() {
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("select c from MemberWriteCheckpoint c", MemberWriteCheckpoint.class)
+                        .getResultList()
+                        .forEach(c -> checkpoints.put(c.getStripe(), c.getLastSequence())));
+
+        long lastSequence = checkpoints.values().stream().mapToLong(Long::longValue).max().orElse(0L);
+        int recovered = 0;
+        for (MemberWrite write : journal.readAll()) {
+            lastSequence = Math.max(lastSequence, write.getSequence());
+            int stripe = stripeOf(write);
+            if (write.getSequence() > checkpoints.getOrDefault(stripe, 0L)) {
+                stripes.get(stripe).offer(write);
+                buffered.incrementAndGet();
+                recovered++;
+            }
+        }
+        sequence.set(lastSequence);
+        if (recovered > 0) {
+            log.info("write-behind 저널에서 미반영 쓰기 {}건을 복구했습니다.", recovered);
+        }
+    }
+
+    private void runWorker(int stripe) {
+        Queue<MemberWrite> queue = stripes.get(stripe);
+        List<MemberWrite> batch = new ArrayList<>(batchSize);
+        long backoffNanos = flushInterval.toNanos();
+        int attempts = 0; // 일시적 오류가 아닌 연속 실패 횟수
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            MemberWrite write;
+            while (batch.size() < batchSize && (write = queue.poll()) != null) {
+                batch.add(write);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, flushInterval.toNanos());
+                continue;
+            }
+            try {
+                if (attempts < maxAttempts - 1) {
+                    flush(stripe, batch);
+                } else {
+                    flushEach(stripe, batch);
+                }
+                buffered.addAndGet(-batch.size());
+                batch.clear();
+                attempts = 0;
+                backoffNanos = flushInterval.toNanos();
+                truncateJournalIfDrained();
+            } catch (RuntimeException e) {
+                // 실패한 배치는 버리지 않고 재시도 (종료 중이면 저널에 남겨 다음 기동 때 복구)
+                if (!isTransient(e)) {
+                    attempts++;
+                }
+                log.warn("write-behind 반영 실패. stripe={}, size={}, attempts={}", stripe, batch.size(), attempts, e);
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(this, backoffNanos);
+                backoffNanos = Math.min(backoffNanos * 2, TimeUnit.SECONDS.toNanos(5));
+            }
+        }
+    }
+
+    /**
+     * 재시도를 다 쓴 배치 : 한 건씩 반영하고, 실패한 쓰기는 dead-letter 저널에 옮긴 뒤 checkpoint 를 넘긴다.
+     * 일시적 오류는 dead-letter 로 옮기지 않고 예외 -> 남은 쓰기를 backoff 후 다시 시도
+     * (checkpoint 갱신 / dead-letter 기록이 실패하면 예외 -> 배치 전체를 다시 시도, 이미 반영된 쓰기는 checkpoint 로 건너뜀)
+     */
+    private void flushEach(int stripe, List<MemberWrite> batch) {
+        while (!batch.isEmpty()) {
+            MemberWrite write = batch.get(0);
+            try {
+                flush(stripe, List.of(write));
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    throw e;
+                }
+                log.error("write-behind 쓰기를 dead-letter 로 옮깁니다. stripe={}, sequence={}, memberId={}",
+                        stripe, write.getSequence(), write.getMemberId(), e);
+                deadLetter.append(write).join();
+                transactionTemplate.executeWithoutResult(status -> checkpoint(stripe, write.getSequence()));
+            }
+            // 처리한 쓰기는 배치에서 빼서 다음 재시도에 포함하지 않는다.
+            batch.remove(0);
+            buffered.decrementAndGet();
+        }
+    }
+
+    private void flush(int stripe, List<MemberWrite> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> inserts = new ArrayList<>();
+            List<Object[]> updates = new ArrayList<>();
+            List<Long> written = new ArrayList<>();
+            for (MemberWrite write : batch) {
+                if (write.isInsert()) {
+                    Long id = write.getMemberId() != null ? write.getMemberId() : nextId(); // 이전 형식 저널의 insert 는 id 가 없음
+                    inserts.add(new Object[]{id, write.getUsername(), write.getAge(), write.getTeamId()});
+                    usernameSearch.indexed(id, write.getUsername());
+                    written.add(id);
+                } else {
+                    updates.add(new Object[]{write.getUsername(), write.getAge(), write.getTeamId(), write.getMemberId()});
+                    written.add(write.getMemberId());
+                }
+            }
+            // 같은 회원의 update 는 항상 insert 뒤 (insert 는 회원의 첫 쓰기)
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+            }
+            // JDBC 로 쓴 행은 엔티티 리스너를 거치지 않으므로 n-gram 인덱스 / 검색 뷰 / 데이터 버전을 직접 갱신
+            searchViewWriter.refresh(written);
+            dataVersion.changed();
+
+            checkpoint(stripe, batch.get(batch.size() - 1).getSequence());
+        });
+    }
+
+    private void checkpoint(int stripe, long lastSequence) {
+        MemberWriteCheckpoint checkpoint = em.find(MemberWriteCheckpoint.class, stripe);
+        if (checkpoint == null) {
+            em.persist(new MemberWriteCheckpoint(stripe, lastSequence));
+        } else {
+            checkpoint.setLastSequence(lastSequence);
+        }
+    }
+
+    // 모든 쓰기가 반영된 상태에서 저널이 커졌으면 비운다.
+    private void truncateJournalIfDrained() {
+        synchronized (journal) {
+            if (buffered.get() == 0 && journal.size() >= truncateThresholdBytes) {
+                journal.truncate();
+            }
+        }
+    }
+
+    private int stripeOf(MemberWrite write) {
+        return Math.floorMod(write.orderingKey().hashCode(), stripes.size());
+    }
+
+    // member_seq 에서 id 발급 (트랜잭션 없이, 블록을 다 쓴 경우에만 DB 접근)
+    private Long nextId() {
+        IdentifierGenerator generator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Member.class).getGenerator();
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return (Long) generator.generate((SharedSessionContractImplementor) session, null);
+        }
+    }
+
+    // 잠금 대기 초과 / 데드락 / 연결 실패 등 다시 하면 성공할 수 있는 오류
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,313 @@
+package study.querydsl.repository.writebehind;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * write-behind 로컬 저널 (append only 파일)
+ * 레코드 : [length int][crc32 int][payload]
+ * payload : sequence, memberId, username, age, teamId, insert
+ * append() 는 파일에 쓰기만 하고, 동기화(force) 는 sync 스레드가 그동안 쌓인 append 를 모아 한 번에 한다. (group commit)
+ * append() 가 반환한 future 가 완료된 뒤의 쓰기는 프로세스가 죽어도 복구된다.
+ * 동기화가 실패하면 동기화되지 않은 레코드를 파일에서 잘라내고 모두 실패로 완료한다. (실패를 받은 쓰기가 재시작 후 복구되지 않도록)
+ * 파일 쓰기가 실패했거나 잘라내지도 못하면 이후 append 를 거절한다.
+ * 읽을 때 crc 가 맞지 않는 레코드는 다음 정상 레코드까지 건너뛰고, 쓰기 도중 죽어서 잘린 마지막 레코드만 잘라낸다.
+ */
+@Slf4j
+public class MemberWriteJournal implements Closeable {
+
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final int MAX_PAYLOAD_SIZE = 1 << 20; // 이보다 긴 length 는 손상된 헤더로 본다.
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Thread syncer;
+
+    private List<Unsynced> unsynced = new ArrayList<>(); // 파일에 썼지만 동기화 전 (this 로 보호)
+    private long syncedSize; // 동기화가 끝난 파일 길이 (this 로 보호)
+    private volatile boolean closed;
+    private volatile boolean failed; // 동기화 실패 후 잘라내지도 못함
+
+    public MemberWriteJournal(Path path) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.path = path;
+            this.channel = FileChannel.open(path, CREATE, READ, WRITE);
+            channel.position(channel.size());
+            syncedSize = channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("write-behind 저널을 열 수 없습니다. path=" + path, e);
+        }
+        syncer = new Thread(this::runSyncer, "member-write-journal-sync");
+        syncer.setDaemon(true);
+        syncer.start();
+    }
+
+    public CompletableFuture<Void> append(MemberWrite write) {
+        return append(write, () -> {
+        });
+    }
+
+    /**
+     * 레코드를 파일 끝에 쓴다. (호출 순서 = 저널 순서)
+     * @param onSynced 동기화가 성공하면 sync 스레드에서 append 순서대로 실행 (future 완료 전, 실패하면 실행하지 않음)
+     * @return 디스크 동기화가 끝나면 완료되는 future (실패 시 UncheckedIOException)
+     */
+    public CompletableFuture<Void> append(MemberWrite write, Runnable onSynced) {
+        byte[] payload = encode(write);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        CompletableFuture<Void> synced = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed || failed) {
+                throw new IllegalStateException("write-behind 저널이 닫혔습니다. path=" + path + ", failed=" + failed);
+            }
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                failed = true; // 일부만 쓴 레코드 뒤에 더 쓰지 않는다. (앞서 쓴 레코드는 계속 동기화, 읽을 때 잘린 꼬리로 처리)
+                throw new UncheckedIOException("write-behind 저널 기록 실패. path=" + path, e);
+            }
+            unsynced.add(new Unsynced(synced, onSynced));
+        }
+        LockSupport.unpark(syncer);
+        return synced;
+    }
+
+    // 모인 append 를 force 한 번으로 동기화 (force 중에 들어온 append 는 다음 force 에 포함)
+    private void runSyncer() {
+        while (true) {
+            List<Unsynced> batch;
+            long end;
+            synchronized (this) {
+                batch = unsynced;
+                unsynced = new ArrayList<>();
+                end = position();
+            }
+            if (batch.isEmpty()) {
+                if (closed) {
+                    return;
+                }
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                UncheckedIOException failure = new UncheckedIOException("write-behind 저널 동기화 실패. path=" + path, e);
+                synchronized (this) {
+                    batch.addAll(unsynced); // force 중에 쓴 레코드도 함께 잘라내므로 실패
+                    unsynced = new ArrayList<>();
+                    discardUnsynced();
+                }
+                batch.forEach(write -> write.synced().completeExceptionally(failure));
+                continue;
+            }
+            synchronized (this) {
+                syncedSize = Math.max(syncedSize, end);
+            }
+            for (Unsynced write : batch) {
+                try {
+                    write.onSynced().run();
+                } catch (RuntimeException e) {
+                    log.error("write-behind 저널 동기화 후 처리 실패. path={}", path, e);
+                }
+                write.synced().complete(null);
+            }
+        }
+    }
+
+    // 동기화되지 않은 꼬리를 잘라낸다. (this 로 보호된 상태에서 호출)
+    private void discardUnsynced() {
+        try {
+            channel.truncate(syncedSize);
+            channel.position(syncedSize);
+        } catch (IOException e) {
+            failed = true;
+            log.error("write-behind 저널의 동기화되지 않은 레코드를 잘라내지 못해 저널을 닫습니다. path={}, offset={}", path, syncedSize, e);
+        }
+    }
+
+    private long position() {
+        try {
+            return channel.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 저널 전체를 읽어서 반환
+     * 중간의 손상된 레코드는 다음 정상 레코드(길이 / crc 가 맞는 위치) 까지 건너뛰고, 뒤에 정상 레코드가 없는 꼬리만 잘라낸다.
+     */
+    public synchronized List<MemberWrite> readAll() {
+        List<MemberWrite> writes = new ArrayList<>();
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("write-behind 저널이 너무 큽니다. path=" + path + ", size=" + size);
+            }
+            ByteBuffer data = ByteBuffer.allocate((int) size);
+            while (data.hasRemaining() && channel.read(data, data.position()) >= 0) {
+                // 끝까지 읽기
+            }
+            data.flip();
+
+            int position = 0;
+            int end = 0; // 마지막 정상 레코드의 끝
+            while (position + HEADER_SIZE <= size) {
+                int length = recordLength(data, position);
+                if (length > 0) {
+                    writes.add(decode(data.slice(position + HEADER_SIZE, length)));
+                    position += HEADER_SIZE + length;
+                    end = position;
+                    continue;
+                }
+                int next = position + 1;
+                while (next + HEADER_SIZE <= size && recordLength(data, next) < 0) {
+                    next++;
+                }
+                if (next + HEADER_SIZE > size) {
+                    break;
+                }
+                log.error("write-behind 저널의 손상된 레코드를 건너뜁니다. path={}, offset={} ~ {}", path, position, next);
+                position = next;
+            }
+            if (end < size) {
+                log.warn("write-behind 저널의 손상된 꼬리 레코드를 잘라냅니다. path={}, offset={}", path, end);
+                channel.truncate(end);
+            }
+            channel.position(end);
+            syncedSize = end;
+        } catch (IOException e) {
+            throw new UncheckedIOException("write-behind 저널 읽기 실패. path=" + path, e);
+        }
+        return writes;
+    }
+
+    // position 에서 시작하는 레코드의 payload 길이 (길이가 범위를 벗어나거나 crc 가 다르면 -1)
+    private static int recordLength(ByteBuffer data, int position) {
+        int length = data.getInt(position);
+        int checksum = data.getInt(position + Integer.BYTES);
+        if (length <= 0 || length > MAX_PAYLOAD_SIZE || (long) position + HEADER_SIZE + length > data.limit()) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data.slice(position + HEADER_SIZE, length));
+        return (int) crc.getValue() == checksum ? length : -1;
+    }
+
+    // 모든 레코드가 DB 에 반영된 뒤 저널 비우기
+    public synchronized void truncate() {
+        try {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+            syncedSize = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("write-behind 저널 정리 실패. path=" + path, e);
+        }
+    }
+
+    public synchronized long size() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+        }
+        LockSupport.unpark(syncer);
+        try {
+            syncer.join(); // 남은 append 동기화
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            channel.close();
+        }
+    }
+
+    private static byte[] encode(MemberWrite write) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(write.getSequence());
+            writeNullableLong(out, write.getMemberId());
+            if (write.getUsername() == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] username = write.getUsername().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(username.length);
+                out.write(username);
+            }
+            out.writeInt(write.getAge());
+            writeNullableLong(out, write.getTeamId());
+            out.writeBoolean(write.isInsert());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MemberWrite decode(ByteBuffer payload) {
+        long sequence = payload.getLong();
+        Long memberId = readNullableLong(payload);
+        int usernameLength = payload.getInt();
+        String username = null;
+        if (usernameLength >= 0) {
+            byte[] bytes = new byte[usernameLength];
+            payload.get(bytes);
+            username = new String(bytes, StandardCharsets.UTF_8);
+        }
+        int age = payload.getInt();
+        Long teamId = readNullableLong(payload);
+        boolean insert = payload.hasRemaining() ? payload.get() != 0 : memberId == null; // 이전 형식 : memberId 가 null 이면 insert
+        return new MemberWrite(sequence, memberId, username, age, teamId, insert);
+    }
+
+    private static void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        out.writeLong(value != null ? value : 0L);
+    }
+
+    private static Long readNullableLong(ByteBuffer payload) {
+        boolean present = payload.get() != 0;
+        long value = payload.getLong();
+        return present ? value : null;
+    }
+
+    private record Unsynced(CompletableFuture<Void> synced, Runnable onSynced) {
+    }
+}
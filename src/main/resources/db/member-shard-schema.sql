@@ -0,0 +1,22 @@
+-- 회원 샤드 스키마 (MemberShards, member.sharding.init-schema=true 일 때 실행)
+-- 컬럼은 Member, Team 엔티티 매핑과 같다. member 는 샤드가 원본 (ShardedMemberRepository), team 은 기본 DB 의 값을 version 순서로 복제 (TeamShardRelay)
+-- 샤드 테이블은 외래키 없이 인덱스만 둔다.
+create table if not exists team (
+    team_id bigint not null,
+    name varchar(255),
+    version bigint default 0 not null,
+    primary key (team_id)
+);
+
+create table if not exists member (
+    member_id bigint not null,
+    username varchar(255),
+    username_normalized varchar(255) generated always as (lower(username)),
+    age integer not null,
+    team_id bigint,
+    version bigint default 0 not null,
+    primary key (member_id),
+    index idx_member_team (team_id),
+    index idx_member_username (username),
+    index idx_member_username_normalized (username_normalized)
+);
@@ -0,0 +1,136 @@
+package study.querydsl.controller.support;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    // 한도 2, 비싼 요청은 1 까지
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(true, 2, 1, 10,
+            100.0, 100, 0.5, 0.5, 1000, 100, 1024, Duration.ofMinutes(1));
+
+    @Test
+    public void rejectAndServeStaleTest() throws Exception {
+        // 캐시에 남을 정상 응답
+        MockHttpServletResponse first = get("/v3/members", "teamName=teamA", okChain("cached"));
+        assertThat(first.getStatus()).isEqualTo(200);
+
+        // 두 요청이 처리 중인 상태로 한도를 채운다.
+        CountDownLatch entered = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        CompletableFuture<MockHttpServletResponse> slow1 = CompletableFuture.supplyAsync(() -> get("/v3/members", "username=a", blocking));
+        CompletableFuture<MockHttpServletResponse> slow2 = CompletableFuture.supplyAsync(() -> get("/v3/members", "username=b", blocking));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 캐시가 없으면 503, 있으면 stale 응답
+        MockHttpServletResponse rejected = get("/v3/members", "username=c", okChain("never"));
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+
+        MockHttpServletResponse stale = get("/v3/members", "teamName=teamA", okChain("never"));
+        assertThat(stale.getStatus()).isEqualTo(200);
+        assertThat(stale.getContentAsString()).isEqualTo("cached");
+        assertThat(stale.getHeader("Warning")).contains("Stale");
+
+        // 다른 엔드포인트는 별도 한도
+        assertThat(get("/v2/members", "username=c", okChain("ok")).getStatus()).isEqualTo(200);
+
+        release.countDown();
+        slow1.get(5, TimeUnit.SECONDS);
+        slow2.get(5, TimeUnit.SECONDS);
+        assertThat(filter.getRejectedCount()).isEqualTo(1);
+        assertThat(filter.getStaleServedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void cacheOnlySmallOkResponsesTest() throws Exception {
+        // 본문은 모으지 않고 바로 응답으로 나가고, max-body-bytes(1024) 를 넘거나 200 이 아니면 캐시하지 않는다.
+        String large = "x".repeat(2048);
+        assertThat(get("/v3/members", "username=large", okChain(large)).getContentAsString()).isEqualTo(large);
+        FilterChain notFound = (request, response) -> {
+            ((HttpServletResponse) response).setStatus(404);
+            response.getOutputStream().write("missing".getBytes(StandardCharsets.UTF_8));
+        };
+        assertThat(get("/v3/members", "username=missing", notFound).getStatus()).isEqualTo(404);
+        get("/v3/members", "username=small", okChain("small"));
+
+        StaleResponseCache staleCache = (StaleResponseCache) ReflectionTestUtils.getField(filter, "staleCache");
+        assertThat(staleCache.get("/v3/members?username=large")).isNull();
+        assertThat(staleCache.get("/v3/members?username=missing")).isNull();
+        assertThat(staleCache.get("/v3/members?username=small").body()).isEqualTo("small".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shedExpensiveFirstTest() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        CompletableFuture<MockHttpServletResponse> slow = CompletableFuture.supplyAsync(() -> get("/v1/members", "ageGoe=10", blocking));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 한도 2 중 1 개 사용 중 : 비싼 요청(조건 없는 v1, 깊은 페이지) 은 429, 일반 요청은 통과
+        assertThat(get("/v1/members", "", okChain("ok")).getStatus()).isEqualTo(429);
+        assertThat(get("/v1/members", "username=member1", okChain("ok")).getStatus()).isEqualTo(200);
+
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+        assertThat(filter.isExpensive(request("/v3/members", "page=100&size=10"))).isTrue();
+        assertThat(filter.isExpensive(request("/v3/members", "page=1&size=10"))).isFalse();
+    }
+
+    private MockHttpServletResponse get(String uri, String query, FilterChain chain) {
+        try {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request(uri, query), response, chain);
+            return response;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MockHttpServletRequest request(String uri, String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (!query.isEmpty()) {
+            request.setQueryString(query);
+            for (String pair : query.split("&")) {
+                String[] nameValue = pair.split("=");
+                request.addParameter(nameValue[0], nameValue[1]);
+            }
+        }
+        return request;
+    }
+
+    private static FilterChain okChain(String body) {
+        return (request, response) -> {
+            response.setContentType("application/json");
+            response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+}
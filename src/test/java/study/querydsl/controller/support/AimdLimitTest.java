@@ -0,0 +1,85 @@
+package study.querydsl.controller.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdLimitTest {
+
+    private static final long BASELINE = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    public void rejectOverLimitTest() {
+        AimdLimit limit = new AimdLimit(4, 1, 100, 2.0, 100, 0.5);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(limit.tryAcquire(1.0)).isTrue();
+        }
+        assertThat(limit.tryAcquire(1.0)).isFalse();
+
+        // 비싼 요청은 한도의 절반까지만
+        AimdLimit expensive = new AimdLimit(4, 1, 100, 2.0, 100, 0.5);
+        assertThat(expensive.tryAcquire(0.5)).isTrue();
+        assertThat(expensive.tryAcquire(0.5)).isTrue();
+        assertThat(expensive.tryAcquire(0.5)).isFalse();
+        assertThat(expensive.tryAcquire(1.0)).isTrue();
+    }
+
+    @Test
+    public void additiveIncreaseMultiplicativeDecreaseTest() {
+        AimdLimit limit = new AimdLimit(10, 2, 100, 2.0, 100, 0.5);
+
+        // 한도를 충분히 쓰면서 평소 응답 시간으로 응답하면 한도만큼 처리할 때마다 +1
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 10; i++) {
+                limit.tryAcquire(1.0);
+            }
+            for (int i = 0; i < 10; i++) {
+                limit.release(BASELINE, false);
+            }
+        }
+        assertThat(limit.getLimit()).isGreaterThan(10);
+
+        // 평소(baseline) 의 2배를 넘는 느린 응답 / 실패는 한도를 최대 절반으로
+        int before = limit.getLimit();
+        limit.tryAcquire(1.0);
+        limit.release(BASELINE * 8, false);
+        assertThat(limit.getLimit()).isLessThanOrEqualTo(before / 2 + 1);
+
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire(1.0);
+            limit.release(0, true);
+        }
+        assertThat(limit.getLimit()).isEqualTo(2); // min-limit
+    }
+
+    @Test
+    public void perEndpointBaselineTest() {
+        // 평소 500ms 인 엔드포인트는 500ms 응답으로 한도가 줄지 않는다. (고정 목표 시간이 아님)
+        AimdLimit slowEndpoint = new AimdLimit(10, 2, 100, 2.0, 100, 0.5);
+        long normal = TimeUnit.MILLISECONDS.toNanos(500);
+        for (int i = 0; i < 50; i++) {
+            slowEndpoint.tryAcquire(1.0);
+            slowEndpoint.release(normal, false);
+        }
+        assertThat(slowEndpoint.getLimit()).isEqualTo(10);
+        assertThat(slowEndpoint.getBaselineNanos()).isEqualTo(normal);
+
+        // 기준의 3배 : gradient 2/3 만큼 감소
+        slowEndpoint.tryAcquire(1.0);
+        slowEndpoint.release(normal * 3, false);
+        assertThat(slowEndpoint.getLimit()).isEqualTo(6);
+    }
+
+    @Test
+    public void idleDoesNotIncreaseTest() {
+        AimdLimit limit = new AimdLimit(10, 2, 100, 2.0, 100, 0.5);
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire(1.0);
+            limit.release(0, false); // 동시 처리 1개 : 한도를 늘릴 근거가 없음
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+}
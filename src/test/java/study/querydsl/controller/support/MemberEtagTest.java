@@ -0,0 +1,237 @@
+package study.querydsl.controller.support;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+import study.querydsl.controller.MemberController;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.UsernameMatchType;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberDataVersion;
+import study.querydsl.repository.support.SlowQuery;
+import study.querydsl.repository.support.SlowQueryLog;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 버전은 쓰기 트랜잭션의 커밋과 함께 오르므로 트랜잭션 없이 실행하고 정리한다. (threshold 0 : 실행된 SQL 을 SlowQueryLog 로 확인)
+@SpringBootTest(properties = "member.slow-query.threshold=0ms")
+class MemberEtagTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberController memberController;
+
+    @Autowired
+    MemberDataVersion dataVersion;
+
+    @Autowired
+    SlowQueryLog slowQueryLog;
+
+    Long member1Id;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            Team teamC = new Team("teamC");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(teamC);
+            Member member1 = new Member("member1", 10, teamA);
+            em.persist(member1);
+            em.persist(new Member("member2", 20, teamB));
+            member1Id = member1.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        jdbcTemplate.update("delete from member_search_view");
+        jdbcTemplate.update("delete from member");
+        jdbcTemplate.update("delete from team");
+    }
+
+    @Test
+    public void notModifiedTest() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        List<MemberTeamDTO> result = memberController.searchMemberV1(condition(null), request(null, first));
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(result).hasSize(2);
+        assertThat(etag).isNotBlank();
+
+        slowQueryLog.clear();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertThat(memberController.searchMemberV1(condition(null), request(etag, second))).isNull();
+        assertThat(second.getStatus()).isEqualTo(304);
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(slowQueryLog.recent(10)).extracting(SlowQuery::getSql) // 버전 조회만, 검색 쿼리 없음
+                .allMatch(sql -> sql.contains("member_data_version"));
+
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, member1Id).setAge(11));
+
+        MockHttpServletResponse third = new MockHttpServletResponse();
+        assertThat(memberController.searchMemberV1(condition(null), request(etag, third)))
+                .extracting(MemberTeamDTO::getAge).contains(11);
+        assertThat(third.getStatus()).isEqualTo(200);
+        assertThat(third.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    @Test
+    public void pageTest() {
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("age"));
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        memberController.searchMemberV2(condition("teamA"), pageable, request(null, first));
+
+        MockHttpServletResponse sameRequest = new MockHttpServletResponse();
+        assertThat(memberController.searchMemberV2(condition("teamA"), pageable, request(first.getHeader(HttpHeaders.ETAG), sameRequest)))
+                .isNull();
+        assertThat(sameRequest.getStatus()).isEqualTo(304);
+
+        // 다른 페이지는 다른 ETag
+        MockHttpServletResponse otherPage = new MockHttpServletResponse();
+        memberController.searchMemberV2(condition("teamA"), PageRequest.of(1, 10, Sort.by("age")),
+                request(first.getHeader(HttpHeaders.ETAG), otherPage));
+        assertThat(otherPage.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void facetTeamVersionTest() {
+        // v4 의 팀별 / 나이 구간별 회원 수도 팀 조건 안에서 집계하므로 다른 팀의 변경은 ETag 를 바꾸지 않는다.
+        PageRequest pageable = PageRequest.of(0, 10);
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        memberController.searchMemberFaceted(condition("teamA"), pageable, request(null, first));
+        String etag = first.getHeader(HttpHeaders.ETAG);
+
+        transactionTemplate.executeWithoutResult(status -> em.createQuery(
+                        "select m from Member m join fetch m.team where m.username = 'member2'", Member.class)
+                .getSingleResult().setAge(21));
+
+        MockHttpServletResponse teamBChanged = new MockHttpServletResponse();
+        assertThat(memberController.searchMemberFaceted(condition("teamA"), pageable, request(etag, teamBChanged))).isNull();
+        assertThat(teamBChanged.getStatus()).isEqualTo(304);
+
+        transactionTemplate.executeWithoutResult(status -> fetchWithTeam(member1Id).setAge(11));
+
+        MockHttpServletResponse teamAChanged = new MockHttpServletResponse();
+        assertThat(memberController.searchMemberFaceted(condition("teamA"), pageable, request(etag, teamAChanged))).isNotNull();
+        assertThat(teamAChanged.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void teamVersionTest() {
+        String all = dataVersion.version(condition(null));
+        String teamA = dataVersion.version(condition("teamA"));
+        String teamB = dataVersion.version(condition("teamB"));
+        String teamC = dataVersion.version(condition("teamC"));
+
+        // teamA 회원 수정 (팀을 함께 읽었으므로 어느 팀인지 안다)
+        transactionTemplate.executeWithoutResult(status -> fetchWithTeam(member1Id).setAge(11));
+        assertThat(dataVersion.version(condition(null))).isNotEqualTo(all);
+        assertThat(dataVersion.version(condition("teamA"))).isNotEqualTo(teamA);
+        assertThat(dataVersion.version(condition("TEAMA"))).isEqualTo(dataVersion.version(condition("teamA")));
+        assertThat(dataVersion.version(condition("teamB"))).isEqualTo(teamB);
+
+        // teamA -> teamB 이동 : 두 팀 모두 변경, teamC 는 그대로
+        teamA = dataVersion.version(condition("teamA"));
+        transactionTemplate.executeWithoutResult(status -> {
+            Team target = em.createQuery("select t from Team t where t.name = 'teamB'", Team.class).getSingleResult();
+            fetchWithTeam(member1Id).changeTeam(target);
+        });
+        assertThat(dataVersion.version(condition("teamA"))).isNotEqualTo(teamA);
+        assertThat(dataVersion.version(condition("teamB"))).isNotEqualTo(teamB);
+        assertThat(dataVersion.version(condition("teamC"))).isEqualTo(teamC);
+    }
+
+    @Test
+    public void rollbackAndBulkTest() {
+        String all = dataVersion.version(condition(null));
+        String teamC = dataVersion.version(condition("teamC"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            em.find(Member.class, member1Id).setAge(99);
+            em.flush();
+            status.setRollbackOnly();
+        });
+        assertThat(dataVersion.version(condition(null))).isEqualTo(all); // 롤백은 버전을 올리지 않음
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("update member set age = age + 1");
+            dataVersion.changed();
+            assertThat(dataVersion.version(condition(null))).isEqualTo(all); // 커밋 전
+        });
+        assertThat(dataVersion.version(condition(null))).isNotEqualTo(all);
+        assertThat(dataVersion.version(condition("teamC"))).isNotEqualTo(teamC); // 어느 팀인지 모르는 쓰기
+    }
+
+    @Test
+    public void sharedVersionTest() {
+        String all = dataVersion.version(condition(null));
+
+        // 다른 인스턴스의 쓰기 : 카운터가 DB 에 있으므로 이 인스턴스의 ETag 도 바뀐다.
+        jdbcTemplate.update("update member_data_version set version = version + 1 where scope = '*' and stripe = 0");
+        assertThat(dataVersion.version(condition(null))).isNotEqualTo(all);
+    }
+
+    @Test
+    public void normalizeTest() {
+        MemberSearchCondition exact = condition(null);
+        exact.setUsername("member1");
+        exact.setUsernameMatch(UsernameMatchType.EXACT);
+        MemberSearchCondition defaultMatch = condition(null);
+        defaultMatch.setUsername("member1");
+        MemberSearchCondition prefix = condition(null);
+        prefix.setUsername("member1");
+        prefix.setUsernameMatch(UsernameMatchType.PREFIX);
+
+        assertThat(MemberEtag.of("v1", exact, null, "1.1")).isEqualTo(MemberEtag.of("v1", defaultMatch, null, "1.1"));
+        assertThat(MemberEtag.of("v1", exact, null, "1.1")).isNotEqualTo(MemberEtag.of("v1", prefix, null, "1.1"));
+        assertThat(MemberEtag.of("v1", exact, null, "1.1")).isNotEqualTo(MemberEtag.of("v3", exact, null, "1.1"));
+        assertThat(MemberEtag.of("v1", exact, null, "1.1")).isNotEqualTo(MemberEtag.of("v1", exact, null, "1.2"));
+        assertThat(MemberEtag.of("v3", exact, PageRequest.of(0, 10, Sort.by("age")), "1.1"))
+                .isNotEqualTo(MemberEtag.of("v3", exact, PageRequest.of(0, 10, Sort.by(Sort.Order.desc("age"))), "1.1"));
+    }
+
+    private Member fetchWithTeam(Long memberId) {
+        return em.createQuery("select m from Member m join fetch m.team where m.id = :id", Member.class)
+                .setParameter("id", memberId)
+                .getSingleResult();
+    }
+
+    private static MemberSearchCondition condition(String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        return condition;
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/members");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+}
@@ -0,0 +1,38 @@
+package study.querydsl.controller.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import study.querydsl.repository.support.QueryDeadline;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestDeadlineFilterTest {
+
+    RequestDeadlineFilter filter = new RequestDeadlineFilter(true, Duration.ofSeconds(5));
+
+    @Test
+    public void timeoutTest() {
+        assertThat(filter.timeout(null)).isEqualTo(Duration.ofSeconds(5));
+        assertThat(filter.timeout("300")).isEqualTo(Duration.ofMillis(300));
+        assertThat(filter.timeout("60000")).isEqualTo(Duration.ofSeconds(5));
+        assertThat(filter.timeout("abc")).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void deadlineScopeTest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v3/members");
+        request.addHeader(RequestDeadlineFilter.TIMEOUT_HEADER, "300");
+        AtomicReference<OptionalLong> remaining = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> remaining.set(QueryDeadline.remainingNanos()));
+
+        assertThat(remaining.get()).isPresent();
+        assertThat(remaining.get().getAsLong()).isBetween(1L, Duration.ofMillis(300).toNanos());
+        assertThat(QueryDeadline.remainingNanos()).isEmpty();
+    }
+}
@@ -0,0 +1,176 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.proxy.HibernateProxy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 빌드 시 바이트코드 향상(build.gradle 의 hibernate.enhancement) 확인
+ * 벤치마크는 SQL 로그를 끄고 실행한다. (flush 시간에 바인딩 로그가 섞이지 않도록)
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=info",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=info"
+})
+@Transactional
+class MemberEnhancementTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void enhancedEntityTest() {
+        Member member = new Member("member1", 10);
+        assertThat(member).isInstanceOf(ManagedEntity.class).isInstanceOf(SelfDirtinessTracker.class);
+
+        em.persist(member);
+        em.flush();
+        member.setAge(11);
+
+        assertThat(((SelfDirtinessTracker) member).$$_hibernate_getDirtyAttributes()).containsExactly("age");
+    }
+
+    @Test
+    public void associationManagementTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Member member = new Member("member1", 10, teamA);
+
+        assertThat(teamA.getMembers()).containsExactly(member);
+
+        member.changeTeam(teamB);
+
+        // 향상된 setter 가 이전 팀의 컬렉션에서도 제거한다.
+        assertThat(teamA.getMembers()).isEmpty();
+        assertThat(teamB.getMembers()).containsExactly(member);
+    }
+
+    @Test
+    public void lazyToOneWithoutProxyTest() {
+        Team team = new Team("teamA");
+        em.persist(team);
+        em.persist(new Member("member1", 10, team));
+        em.flush();
+        em.clear();
+
+        Member member = em.createQuery("select m from Member m where m.username = :username", Member.class)
+                .setParameter("username", "member1")
+                .getSingleResult();
+
+        // 프록시 서브클래스가 아닌 Team 인스턴스, 식별자 외 속성 접근 시 초기화
+        assertThat(member.getTeam()).isNotInstanceOf(HibernateProxy.class).isExactlyInstanceOf(Team.class);
+        assertThat(Hibernate.isInitialized(member.getTeam())).isFalse();
+        assertThat(member.getTeam().getId()).isEqualTo(team.getId());
+        assertThat(member.getTeam().getName()).isEqualTo("teamA");
+        assertThat(Hibernate.isInitialized(member.getTeam())).isTrue();
+    }
+
+    /**
+     * 관리 중인 회원 rows 건의 flush 비용 (변경 없음 / 1% 변경)
+     * 향상 전에는 flush 마다 모든 엔티티를 스냅샷과 속성 단위로 비교하고, 향상 후에는 dirty 추적 정보만 확인한다.
+     * 실행 : ./gradlew benchmark -Dbenchmark.rows=100000 --tests '*MemberEnhancementTest*'
+     */
+    @Test
+    @Tag("benchmark")
+    public void flushCostBenchmark() {
+        int rows = Integer.getInteger("benchmark.rows", 100_000);
+        persistMembers(rows, 100);
+
+        List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+        assertThat(members).hasSize(rows);
+
+        long cleanNanos = median(() -> em.flush());
+        long dirtyNanos = median(() -> {
+            for (int i = 0; i < members.size(); i += 100) {
+                Member member = members.get(i);
+                member.setAge(member.getAge() + 1);
+            }
+            em.flush();
+        });
+
+        System.out.println("managed members       = " + rows + " (enhanced = " + (members.get(0) instanceof ManagedEntity) + ")");
+        System.out.println("flush (no changes)    = " + cleanNanos / 1_000_000 + "ms");
+        System.out.println("flush (1% changed)    = " + dirtyNanos / 1_000_000 + "ms");
+    }
+
+    /**
+     * 회원 rows 건 조회 후 모든 회원의 팀 이름 접근 (팀 100 개)
+     * 향상 전에는 팀이 HibernateProxy 서브클래스 인스턴스, 향상 후에는 Team 인스턴스 자체가 지연 로딩된다.
+     */
+    @Test
+    @Tag("benchmark")
+    public void lazyToOneBenchmark() {
+        int rows = Integer.getInteger("benchmark.rows", 100_000);
+        persistMembers(rows, 100);
+
+        long loadNanos = 0;
+        long accessNanos = 0;
+        Class<?> teamClass = null;
+        for (int i = 0; i < 6; i++) {
+            em.clear();
+            long start = System.nanoTime();
+            List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+            long loaded = System.nanoTime();
+            long length = 0;
+            for (Member member : members) {
+                length += member.getTeam().getName().length();
+            }
+            long accessed = System.nanoTime();
+            assertThat(length).isPositive();
+            if (i > 0) { // 첫 회는 워밍업
+                loadNanos += loaded - start;
+                accessNanos += accessed - loaded;
+            }
+            teamClass = members.get(0).getTeam().getClass();
+        }
+
+        System.out.println("members               = " + rows + " (team class = " + teamClass.getName() + ")");
+        System.out.println("load (avg)            = " + loadNanos / 5 / 1_000_000 + "ms");
+        System.out.println("team access (avg)     = " + accessNanos / 5 / 1_000_000 + "ms");
+    }
+
+    private void persistMembers(int rows, int teamCount) {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < teamCount; i++) {
+            Team team = new Team("benchTeam" + i);
+            em.persist(team);
+            teams.add(team);
+        }
+        em.flush();
+        List<Long> teamIds = teams.stream().map(Team::getId).toList();
+        em.clear();
+        for (int i = 0; i < rows; i++) {
+            em.persist(new Member("bench" + i, i % 100, em.getReference(Team.class, teamIds.get(i % teamCount))));
+            if (i % 1_000 == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private long median(Runnable flush) {
+        flush.run(); // warm up
+        List<Long> nanos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            flush.run();
+            nanos.add(System.nanoTime() - start);
+        }
+        return nanos.stream().sorted().toList().get(2);
+    }
+}
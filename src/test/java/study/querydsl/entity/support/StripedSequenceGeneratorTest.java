@@ -0,0 +1,107 @@
+package study.querydsl.entity.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 여러 스레드가 각자의 트랜잭션에서 insert 하므로 커밋 후 정리한다.
+@SpringBootTest
+class StripedSequenceGeneratorTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void uniqueIdsUnderConcurrentInserts() throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        runWriters(8, 250, ids);
+
+        assertThat(ids).hasSize(8 * 250);
+        assertThat(memberRepository.count()).isEqualTo(8 * 250);
+    }
+
+    @Test
+    public void idsIncreaseWithinThread() throws Exception {
+        List<Member> members = transactionTemplate.execute(status -> {
+            List<Member> saved = new ArrayList<>();
+            for (int i = 0; i < 1_500; i++) { // blockSize(1000) 를 넘겨 다음 블록까지 사용
+                saved.add(memberRepository.save(new Member("member" + i, i)));
+            }
+            return saved;
+        });
+
+        for (int i = 1; i < members.size(); i++) {
+            assertThat(members.get(i).getId()).isGreaterThan(members.get(i - 1).getId());
+        }
+    }
+
+    /**
+     * 동시 writer 수를 늘려가며 insert 처리량 측정
+     * 실행 : ./gradlew benchmark -Dbenchmark.rows=200000
+     */
+    @Test
+    @Tag("benchmark")
+    public void concurrentInsertBenchmark() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 50_000);
+        for (int writers : new int[]{1, 4, 16, 64}) {
+            long start = System.nanoTime();
+            runWriters(writers, rows / writers, null);
+            long elapsed = System.nanoTime() - start;
+            System.out.println("writers = " + writers + ", rows = " + rows
+                    + ", inserts/s = " + (long) (rows / (elapsed / 1_000_000_000.0)));
+            memberRepository.deleteAllInBatch();
+        }
+    }
+
+    private void runWriters(int writers, int rowsPerWriter, Set<Long> ids) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    for (int from = 0; from < rowsPerWriter; from += 100) {
+                        int to = Math.min(from + 100, rowsPerWriter);
+                        int batchFrom = from;
+                        transactionTemplate.executeWithoutResult(status -> {
+                            for (int i = batchFrom; i < to; i++) {
+                                Member member = memberRepository.save(new Member("writer" + writer + "_" + i, i));
+                                if (ids != null) {
+                                    ids.add(member.getId());
+                                }
+                            }
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.UserDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class MemberAggregateRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberAggregateRepository memberAggregateRepository;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+    }
+
+    private void initMembers() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+    }
+
+    @Test
+    public void findOldestMembers() throws Exception {
+        initMembers();
+
+        List<Member> result = memberAggregateRepository.findOldestMembers();
+        assertThat(result).extracting("age").containsExactly(40);
+    }
+
+    @Test
+    public void findMembersAgeGoeAvg() throws Exception {
+        initMembers();
+
+        List<Member> result = memberAggregateRepository.findMembersAgeGoeAvg();
+        assertThat(result).extracting("age").containsExactlyInAnyOrder(30, 40);
+    }
+
+    @Test
+    public void findUserDtoWithMaxAge() throws Exception {
+        initMembers();
+
+        List<UserDTO> result = memberAggregateRepository.findUserDtoWithMaxAge();
+        assertThat(result).extracting("name")
+                .containsExactlyInAnyOrder("member1", "member2", "member3", "member4");
+        assertThat(result).extracting("age").containsOnly(40);
+    }
+
+    @Test
+    public void findUserDtoWithTeamMaxAge() throws Exception {
+        initMembers();
+        em.flush();
+
+        List<UserDTO> result = memberAggregateRepository.findUserDtoWithTeamMaxAge();
+        assertThat(result).extracting("name").containsExactly("member1", "member2", "member3", "member4");
+        assertThat(result).extracting("age").containsExactly(20, 20, 40, 40);
+    }
+
+    @Test
+    public void findUserDtoWithTeamMaxAgeWithoutTeam() throws Exception {
+        initMembers();
+        em.persist(new Member("noTeam1", 15));
+        em.persist(new Member("noTeam2", 50));
+        em.flush();
+
+        // 팀 없는 회원끼리 묶지 않는다.
+        List<UserDTO> result = memberAggregateRepository.findUserDtoWithTeamMaxAge();
+        assertThat(result).extracting("name").containsExactly("member1", "member2", "member3", "member4", "noTeam1", "noTeam2");
+        assertThat(result).extracting("age").containsExactly(20, 20, 40, 40, 15, 50);
+    }
+
+    /**
+     * 상관 서브쿼리 vs 파생 테이블 조인 성능 비교
+     * 실행 : ./gradlew benchmark -Dbenchmark.rows=100000
+     */
+    @Test
+    @Tag("benchmark")
+    public void subqueryVsDerivedJoinBenchmark() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 20_000);
+        Team team = new Team("benchTeam");
+        em.persist(team);
+        for (int i = 0; i < rows; i++) {
+            em.persist(new Member("bench" + i, i % 100, team));
+            if (i % 1_000 == 0) {
+                em.flush();
+                em.clear();
+                team = em.find(Team.class, team.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        QMember memberSub = new QMember("memberSub");
+        long subqueryNanos = measure(() -> queryFactory
+                .selectFrom(member)
+                .where(member.age.goe(JPAExpressions.select(memberSub.age.avg()).from(memberSub)))
+                .fetch()
+                .size());
+        long subqueryDtoNanos = measure(() -> queryFactory
+                .select(member.username, ExpressionUtils.as(JPAExpressions
+                        .select(memberSub.age.max()).from(memberSub), "age"))
+                .from(member)
+                .fetch()
+                .size());
+        long teamSubqueryNanos = measure(() -> queryFactory
+                .select(member.username, ExpressionUtils.as(JPAExpressions
+                        .select(memberSub.age.max()).from(memberSub).where(memberSub.team.eq(member.team)), "age"))
+                .from(member)
+                .fetch()
+                .size());
+        long joinNanos = measure(() -> memberAggregateRepository.findMembersAgeGoeAvg().size());
+        long joinDtoNanos = measure(() -> memberAggregateRepository.findUserDtoWithMaxAge().size());
+        long windowNanos = measure(() -> memberAggregateRepository.findUserDtoWithTeamMaxAge().size());
+
+        System.out.println("rows = " + rows);
+        System.out.println("subQuery2 (avg)            = " + subqueryNanos / 1_000_000 + "ms");
+        System.out.println("derived join (avg)         = " + joinNanos / 1_000_000 + "ms");
+        System.out.println("select subQuery (max)      = " + subqueryDtoNanos / 1_000_000 + "ms");
+        System.out.println("derived join (max)         = " + joinDtoNanos / 1_000_000 + "ms");
+        System.out.println("select subQuery (team max) = " + teamSubqueryNanos / 1_000_000 + "ms");
+        System.out.println("window function (team max) = " + windowNanos / 1_000_000 + "ms");
+    }
+
+    private long measure(Runnable query) {
+        query.run(); // warm up
+        em.clear();
+        long start = System.nanoTime();
+        query.run();
+        long elapsed = System.nanoTime() - start;
+        em.clear();
+        return elapsed;
+    }
+}
@@ -1,5 +1,6 @@
 package study.querydsl.repository;
 
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.assertj.core.api.Assertions;
@@ -15,6 +16,7 @@ import study.querydsl.entity.Team;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -86,4 +88,38 @@ class MemberJpaRepositoryTest {
         List<Member> result2 = memberJpaRepository.findByUsernameQD("member1");
         assertThat(result2).containsExactly(member);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void largeResultTest() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 250; i++) {
+            em.persist(new Member("member" + i, i % 50, i % 2 == 0 ? teamA : null));
+        }
+        em.flush();
+        em.clear();
+
+        try (Stream<Member> stream = memberJpaRepository.streamAll()) {
+            assertThat(stream.count()).isEqualTo(250);
+        }
+
+        int count = 0;
+        try (CloseableIterator<Member> iterator = memberJpaRepository.iterateAll()) {
+            while (iterator.hasNext()) {
+                assertThat(iterator.next().getUsername()).startsWith("member");
+                count++;
+            }
+        }
+        assertThat(count).isEqualTo(250);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(40);
+        try (Stream<MemberTeamDTO> stream = memberJpaRepository.searchStream(condition)) {
+            assertThat(stream.map(MemberTeamDTO::getUsername).toList())
+                    .containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(condition).stream()
+                            .map(MemberTeamDTO::getUsername).toList())
+                    .hasSize(25);
+        }
+    }
+}
@@ -7,15 +7,22 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.AgeBucket;
+import study.querydsl.dto.MemberFacetSearchDTO;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.UsernameMatchType;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MultiGetResult;
+import study.querydsl.repository.support.UsernameSearch;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static study.querydsl.entity.QMember.*;
 
 @SpringBootTest
@@ -28,6 +35,9 @@ class MemberRepositoryTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    UsernameSearch usernameSearch;
+
     @Test
     public void basicTest() throws Exception {
 
@@ -69,6 +79,47 @@ class MemberRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
     }
 
+    @Test
+    public void searchStreamTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setTeamName("teamB");
+
+        try (Stream<MemberTeamDTO> stream = memberRepository.searchStream(condition)) {
+            assertThat(stream.map(MemberTeamDTO::getUsername).toList())
+                    .containsExactlyInAnyOrder("member3", "member4");
+        }
+    }
+
+    @Test
+    public void ageRangeTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+        em.persist(new Member("member4", 40, teamA));
+
+        // ageLoe 는 상한 (나이 <= ageLoe)
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(35);
+
+        assertThat(memberRepository.search(condition)).extracting("username")
+                .containsExactlyInAnyOrder("member2", "member3");
+    }
+
     @Test
     public void searchPageSimple() throws Exception {
 
@@ -121,4 +172,90 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void searchUsernameMatchTest() throws Exception {
+        usernameSearch.rebuild(); // 같은 컨텍스트를 쓰는 다른 테스트가 JDBC 로 지운 회원 제거
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("Member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("userMEMber3", 30, teamA));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        // EXACT 의 대소문자 구분은 컬럼 collation 을 따른다. (MySQL 기본 collation 은 구분하지 않음)
+        condition.setUsername("Member1");
+        condition.setUsernameMatch(UsernameMatchType.EXACT);
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("Member1");
+
+        condition.setUsername("member1");
+
+        condition.setUsernameMatch(UsernameMatchType.IGNORE_CASE);
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("Member1");
+
+        condition.setUsername("MEM");
+        condition.setUsernameMatch(UsernameMatchType.PREFIX);
+        assertThat(memberRepository.search(condition)).extracting("username")
+                .containsExactlyInAnyOrder("Member1", "member2");
+
+        condition.setUsername("member");
+        condition.setUsernameMatch(UsernameMatchType.CONTAINS);
+        assertThat(memberRepository.search(condition)).extracting("username")
+                .containsExactlyInAnyOrder("Member1", "member2", "userMEMber3");
+
+        condition.setUsername("ber3");
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("userMEMber3");
+
+        condition.setUsername("nothing");
+        assertThat(memberRepository.search(condition)).isEmpty();
+    }
+
+    @Test
+    public void findAllByIdsTest() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.flush();
+        em.clear();
+
+        Long missingId = -1L;
+        MultiGetResult<Member> result = memberRepository.findAllByIds(
+                List.of(member3.getId(), missingId, member1.getId(), member3.getId()));
+
+        assertThat(result.getResults()).extracting("username").containsExactly("member3", "member1");
+        assertThat(result.getMissingIds()).containsExactly(missingId);
+        assertThat(result.hasMissing()).isTrue();
+    }
+
+    @Test
+    public void searchFacetedTest() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 25, teamB));
+        em.persist(new Member("member6", 50));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        MemberFacetSearchDTO result = memberRepository.searchFaceted(condition, PageRequest.of(0, 2));
+
+        assertThat(result.getPage().getContent()).hasSize(2);
+        assertThat(result.getPage().getTotalElements()).isEqualTo(5);
+        assertThat(result.getTeams()).extracting("teamName", "count")
+                .containsExactly(tuple("teamB", 3L), tuple("teamA", 1L), tuple(null, 1L));
+        assertThat(result.getAgeBuckets()).extracting("bucket", "count")
+                .containsExactly(tuple(AgeBucket.AGE_0_20, 1L), tuple(AgeBucket.AGE_21_30, 2L), tuple(AgeBucket.ETC, 2L));
+    }
+
 }
\ No newline at end of file
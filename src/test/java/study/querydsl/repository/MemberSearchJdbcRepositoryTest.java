@@ -0,0 +1,196 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.UsernameMatchType;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.UsernameSearch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * JDBC 실행 엔진(MemberSearchJdbcRepository) 과 JPA 실행 엔진(MemberRepository, 기본값 JPA) 의 결과 비교
+ */
+@SpringBootTest
+@Transactional
+class MemberSearchJdbcRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberSearchJdbcRepository memberSearchJdbcRepository;
+
+    @Autowired
+    UsernameSearch usernameSearch;
+
+    @BeforeEach
+    public void before() {
+        usernameSearch.rebuild(); // 같은 컨텍스트를 쓰는 다른 테스트가 JDBC 로 지운 회원 제거
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("Member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("MEMBER4", 40, teamB));
+        em.persist(new Member("mem_50%", 50, teamB));
+        em.persist(new Member("memberX", 35)); // 팀 없음
+        em.flush(); // n-gram 인덱스 반영 (PostPersist)
+    }
+
+    @Test
+    public void searchParityTest() {
+        for (MemberSearchCondition condition : conditions()) {
+            List<MemberTeamDTO> jpa = sorted(memberRepository.search(condition));
+            List<MemberTeamDTO> jdbc = sorted(memberSearchJdbcRepository.search(condition));
+
+            assertThat(jdbc).as(condition.toString()).isEqualTo(jpa);
+        }
+    }
+
+    @Test
+    public void searchPageParityTest() {
+        for (MemberSearchCondition condition : conditions()) {
+            List<MemberTeamDTO> jpa = new ArrayList<>();
+            List<MemberTeamDTO> jdbc = new ArrayList<>();
+            for (int page = 0; page < 4; page++) {
+                PageRequest pageRequest = PageRequest.of(page, 2);
+                Page<MemberTeamDTO> jpaPage = memberRepository.searchPageComplex(condition, pageRequest);
+                Page<MemberTeamDTO> jdbcPage = memberSearchJdbcRepository.searchPage(condition, pageRequest);
+
+                assertThat(jdbcPage.getTotalElements()).as(condition.toString()).isEqualTo(jpaPage.getTotalElements());
+                assertThat(jdbcPage.getNumberOfElements()).as(condition.toString()).isEqualTo(jpaPage.getNumberOfElements());
+                jpa.addAll(jpaPage.getContent());
+                jdbc.addAll(jdbcPage.getContent());
+            }
+            // order by 가 없으므로 페이지 단위가 아닌 전체 결과로 비교
+            assertThat(sorted(jdbc)).as(condition.toString()).isEqualTo(sorted(jpa));
+        }
+    }
+
+    @Test
+    public void searchSeesUnflushedChangesTest() {
+        em.persist(new Member("member5", 55));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member5");
+
+        assertThat(memberSearchJdbcRepository.search(condition))
+                .extracting("username", "teamId")
+                .containsExactly(tuple("member5", null));
+    }
+
+    /**
+     * JPA vs JDBC 검색 처리량 비교
+     * 두 경로 모두 같은 DataSource 래퍼(StatementTimingDataSource -> SqlLog) 로 SQL 을 기록하고, Hibernate 자체 SQL 로그(show-sql) 는 꺼져 있다.
+     * 실행 : ./gradlew benchmark -Dbenchmark.rows=100000
+     */
+    @Test
+    @Tag("benchmark")
+    public void jpaVsJdbcSearchBenchmark() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 20_000);
+        Team team = new Team("benchTeam");
+        em.persist(team);
+        for (int i = 0; i < rows; i++) {
+            em.persist(new Member("bench" + i, i % 100, team));
+            if (i % 1_000 == 0) {
+                em.flush();
+                em.clear();
+                team = em.find(Team.class, team.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition wide = new MemberSearchCondition(); // 전체의 약 10%
+        wide.setTeamName("benchTeam");
+        wide.setAgeGoe(90);
+        MemberSearchCondition narrow = new MemberSearchCondition(); // 1건
+        narrow.setUsername("bench" + (rows / 2));
+
+        System.out.println("rows = " + rows);
+        System.out.println("wide   JPA  = " + throughput(() -> memberRepository.search(wide)) + " ops/s");
+        System.out.println("wide   JDBC = " + throughput(() -> memberSearchJdbcRepository.search(wide)) + " ops/s");
+        System.out.println("narrow JPA  = " + throughput(() -> memberRepository.search(narrow)) + " ops/s");
+        System.out.println("narrow JDBC = " + throughput(() -> memberSearchJdbcRepository.search(narrow)) + " ops/s");
+    }
+
+    // 1초 warm up 후 2초 동안 실행한 횟수
+    private long throughput(Supplier<List<MemberTeamDTO>> query) {
+        run(query, 1_000_000_000L);
+        long count = run(query, 2_000_000_000L);
+        return count / 2;
+    }
+
+    private long run(Supplier<List<MemberTeamDTO>> query, long nanos) {
+        long count = 0;
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            query.get();
+            em.clear();
+            count++;
+        }
+        return count;
+    }
+
+    private static List<MemberSearchCondition> conditions() {
+        List<MemberSearchCondition> conditions = new ArrayList<>();
+        conditions.add(new MemberSearchCondition());
+        for (UsernameMatchType matchType : UsernameMatchType.values()) {
+            for (String username : List.of("member1", "MEMBER", "mem_", "50%", "x", "없음")) {
+                if (matchType == UsernameMatchType.CONTAINS && username.length() < 3) {
+                    continue; // 3글자 미만 contains 검색은 두 엔진 모두 거절 (UsernameSearchTest)
+                }
+                MemberSearchCondition condition = new MemberSearchCondition();
+                condition.setUsername(username);
+                condition.setUsernameMatch(matchType);
+                conditions.add(condition);
+            }
+        }
+        MemberSearchCondition team = new MemberSearchCondition();
+        team.setTeamName("teamB");
+        conditions.add(team);
+
+        MemberSearchCondition age = new MemberSearchCondition();
+        age.setAgeGoe(20);
+        age.setAgeLoe(35);
+        conditions.add(age);
+
+        MemberSearchCondition all = new MemberSearchCondition();
+        all.setUsername("mem");
+        all.setUsernameMatch(UsernameMatchType.PREFIX);
+        all.setTeamName("teamB");
+        all.setAgeGoe(30);
+        all.setAgeLoe(50);
+        conditions.add(all);
+        return conditions;
+    }
+
+    private static List<MemberTeamDTO> sorted(List<MemberTeamDTO> result) {
+        List<MemberTeamDTO> sorted = new ArrayList<>(result);
+        sorted.sort(Comparator.comparing(MemberTeamDTO::getMemberId));
+        return sorted;
+    }
+}
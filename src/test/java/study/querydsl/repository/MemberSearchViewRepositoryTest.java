@@ -0,0 +1,163 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSyncDTO;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.UsernameMatchType;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberSearchViewWriter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest(properties = {
+        "member.query-engine.search=VIEW",
+        "member.query-engine.search-page-simple=VIEW",
+        "member.query-engine.search-page-complex=VIEW"
+})
+@Transactional
+class MemberSearchViewRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberSearchJdbcRepository jdbcSearch; // member / team 조인 결과 (기대값)
+
+    @Autowired
+    MemberSearchViewWriter searchViewWriter;
+
+    Team teamA;
+    Team teamB;
+    List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        teamA = new Team("teamA");
+        teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 20; i++) {
+            Member member = new Member("Member" + i, i * 3, i % 5 == 4 ? null : (i % 2 == 0 ? teamA : teamB));
+            em.persist(member);
+            members.add(member);
+        }
+    }
+
+    @Test
+    public void searchTest() {
+        assertSameAsJoin(condition(null, null, "teamA", 10, 40));
+        assertSameAsJoin(condition("member1", UsernameMatchType.PREFIX, null, null, null));
+        assertSameAsJoin(condition("EMBER1", UsernameMatchType.CONTAINS, null, null, null));
+        assertSameAsJoin(condition("Member3", null, null, null, null));
+    }
+
+    @Test
+    public void searchPageTest() {
+        MemberSearchCondition condition = condition(null, null, null, 10, null);
+        List<MemberTeamDTO> expected = expected(condition).stream()
+                .sorted(Comparator.comparing(MemberTeamDTO::getAge).reversed().thenComparing(MemberTeamDTO::getMemberId))
+                .toList();
+
+        List<MemberTeamDTO> pages = new ArrayList<>();
+        for (int page = 0; page * 4 < expected.size(); page++) {
+            Page<MemberTeamDTO> result = memberRepository.searchPageComplex(condition, PageRequest.of(page, 4, Sort.by(Sort.Order.desc("age"))));
+            assertThat(result.getTotalElements()).isEqualTo(expected.size());
+            pages.addAll(result.getContent());
+        }
+        assertThat(pages).isEqualTo(expected);
+    }
+
+    @Test
+    public void entityChangeTest() {
+        em.flush();
+        Member changed = members.get(0);
+        changed.setAge(99);
+        changed.changeTeam(teamB);
+        em.remove(members.get(1));
+        teamA.setName("teamRenamed");
+
+        assertSameAsJoin(new MemberSearchCondition());
+        assertThat(memberRepository.search(condition(null, null, "teamRenamed", null, null)))
+                .hasSize(expected(condition(null, null, "teamRenamed", null, null)).size())
+                .isNotEmpty();
+        assertThat(memberRepository.search(condition(null, null, "teamA", null, null))).isEmpty();
+    }
+
+    @Test
+    public void bulkUpdateRefreshTest() {
+        em.flush();
+        queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .where(member.age.lt(30))
+                .execute();
+        List<Long> ids = queryFactory.select(member.id).from(member).where(member.age.lt(31)).fetch();
+        searchViewWriter.refresh(ids);
+
+        assertSameAsJoin(new MemberSearchCondition());
+    }
+
+    @Test
+    public void upsertAllTest() {
+        memberRepository.upsertAll(Stream.of(
+                new MemberSyncDTO("Member0", 77, "teamB"),
+                new MemberSyncDTO("newMember", 5, "teamNew")));
+
+        assertSameAsJoin(new MemberSearchCondition());
+        assertThat(memberRepository.search(condition(null, null, "teamNew", null, null)))
+                .extracting(MemberTeamDTO::getUsername).containsExactly("newMember");
+    }
+
+    @Test
+    public void rebuildTest() {
+        em.flush();
+        em.createNativeQuery("delete from member_search_view").executeUpdate();
+        searchViewWriter.rebuild();
+
+        assertSameAsJoin(new MemberSearchCondition());
+    }
+
+    private void assertSameAsJoin(MemberSearchCondition condition) {
+        Comparator<MemberTeamDTO> byId = Comparator.comparing(MemberTeamDTO::getMemberId);
+        assertThat(memberRepository.search(condition).stream().sorted(byId).toList())
+                .isEqualTo(expected(condition));
+    }
+
+    private List<MemberTeamDTO> expected(MemberSearchCondition condition) {
+        return jdbcSearch.search(condition).stream().sorted(Comparator.comparing(MemberTeamDTO::getMemberId)).toList();
+    }
+
+    private static MemberSearchCondition condition(String username, UsernameMatchType match, String teamName,
+                                                   Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setUsernameMatch(match);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
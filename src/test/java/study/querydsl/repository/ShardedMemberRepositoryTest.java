@@ -0,0 +1,256 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.UsernameMatchType;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.ShardedMemberRepository.ShardedMember;
+import study.querydsl.repository.support.MemberShards;
+import study.querydsl.repository.support.TeamShardRelay;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 내장 H2 3개를 샤드로 사용
+ * 샤드 쓰기는 기본 DB 트랜잭션과 별개이므로 트랜잭션 없이 실행하고, 기본 DB 에 만든 팀은 직접 지운다.
+ */
+@SpringBootTest(properties = {
+        "member.sharding.urls=jdbc:h2:mem:shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:shard2;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "member.sharding.username=sa",
+        "member.sharding.password=",
+        "member.sharding.init-schema=true",
+        "member.query-engine.search-page-complex=SHARDED"
+})
+class ShardedMemberRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberShards shards;
+
+    @Autowired
+    ShardedMemberRepository shardedMemberRepository;
+
+    @Autowired
+    TeamShardRelay teamShardRelay;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    List<Team> teams = new ArrayList<>();
+    List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        for (NamedParameterJdbcTemplate shard : shards.all()) {
+            shard.getJdbcTemplate().update("delete from member");
+            shard.getJdbcTemplate().update("delete from team");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 6; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+        });
+        teamShardRelay.relay();
+        for (int i = 0; i < 60; i++) {
+            members.add(new Member("member" + i, i % 17, i % 10 == 9 ? null : teams.get(i % teams.size())));
+        }
+        shardedMemberRepository.saveAll(members);
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Team team : teams) {
+                jdbcTemplate.update("delete from team where team_id = ?", team.getId());
+            }
+        });
+        jdbcTemplate.update("delete from team_shard_outbox");
+    }
+
+    @Test
+    public void routingTest() {
+        for (Member member : members) {
+            Long teamId = member.getTeam() != null ? member.getTeam().getId() : null;
+            NamedParameterJdbcTemplate shard = shards.shard(shards.shardOf(teamId));
+            assertThat(shard.queryForObject("select count(*) from member where member_id = :id",
+                    new MapSqlParameterSource("id", member.getId()), Long.class)).isEqualTo(1L);
+        }
+        long total = shards.all().stream()
+                .mapToLong(shard -> shard.getJdbcTemplate().queryForObject("select count(*) from member", Long.class))
+                .sum();
+        assertThat(total).isEqualTo(members.size());
+    }
+
+    @Test
+    public void searchTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(5);
+        condition.setAgeLoe(12);
+
+        assertThat(shardedMemberRepository.search(condition)).isEqualTo(expected(condition, Sort.unsorted()));
+    }
+
+    @Test
+    public void teamNameSingleShardTest() {
+        Team team = teams.get(1);
+        int home = shards.shardOf(team.getId());
+        // 다른 샤드에 잘못 들어간 행 : 팀 샤드로만 조회하면 보이지 않아야 한다.
+        shards.shard((home + 1) % shards.size()).getJdbcTemplate().update(
+                "insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", 999_999L, "stray", 1, team.getId());
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(team.getName());
+
+        assertThat(shardedMemberRepository.search(condition))
+                .extracting(MemberTeamDTO::getMemberId)
+                .doesNotContain(999_999L)
+                .containsExactlyElementsOf(expected(condition, Sort.unsorted()).stream().map(MemberTeamDTO::getMemberId).toList());
+    }
+
+    @Test
+    public void scatterGatherPageTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("MEMBER1");
+        condition.setUsernameMatch(UsernameMatchType.PREFIX);
+        Sort sort = Sort.by(Sort.Order.desc("age"), Sort.Order.asc("teamName"));
+        List<MemberTeamDTO> expected = expected(condition, sort);
+
+        List<MemberTeamDTO> pages = new ArrayList<>();
+        for (int page = 0; page * 4 < expected.size(); page++) {
+            Page<MemberTeamDTO> result = memberRepository.searchPageComplex(condition, PageRequest.of(page, 4, sort));
+            assertThat(result.getTotalElements()).isEqualTo(expected.size());
+            pages.addAll(result.getContent());
+        }
+        assertThat(pages).isEqualTo(expected);
+    }
+
+    @Test
+    public void primaryHasNoMembersTest() {
+        assertThat(members).allSatisfy(member -> assertThat(member.getId()).isNotNull());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member", Long.class)).isZero();
+
+        // 샤딩 중에는 기본 DB 에 회원을 저장할 수 없다.
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> em.persist(new Member("primary", 1))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void updateTest() {
+        Member member = members.get(0);
+        ShardedMember current = shardedMemberRepository.findById(member.getId()).orElseThrow();
+
+        // 같은 샤드 안의 수정
+        ShardedMember updated = shardedMemberRepository.update(current, "renamed", 99, current.teamId());
+        assertThat(shardedMemberRepository.findById(member.getId())).contains(updated);
+        assertThat(updated.version()).isEqualTo(current.version() + 1);
+
+        // 이미 바뀐 version 으로는 수정 / 삭제 불가
+        assertThatThrownBy(() -> shardedMemberRepository.update(current, "stale", 1, current.teamId()))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThatThrownBy(() -> shardedMemberRepository.delete(current))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        shardedMemberRepository.delete(updated);
+        assertThat(shardedMemberRepository.findById(member.getId())).isEmpty();
+    }
+
+    @Test
+    public void moveTest() {
+        Member member = members.get(0);
+        ShardedMember current = shardedMemberRepository.findById(member.getId()).orElseThrow();
+        Team target = teams.stream()
+                .filter(team -> shards.shardOf(team.getId()) != shards.shardOf(current.teamId()))
+                .findFirst().orElseThrow();
+
+        ShardedMember moved = shardedMemberRepository.update(current, current.username(), current.age(), target.getId());
+
+        assertThat(shardsHaving(member.getId())).containsExactly(shards.shardOf(target.getId()));
+        assertThat(shardedMemberRepository.findById(member.getId())).contains(moved);
+        assertThatThrownBy(() -> shardedMemberRepository.update(current, "stale", 1, current.teamId()))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(target.getName());
+        assertThat(shardedMemberRepository.search(condition)).extracting(MemberTeamDTO::getMemberId).contains(member.getId());
+    }
+
+    @Test
+    public void moveDuplicateTest() {
+        // 이동 중(새 샤드 커밋 후, 원래 샤드 커밋 전) 상태 : 검색에는 한 번만, findById 는 높은 version
+        Member member = members.get(0);
+        ShardedMember current = shardedMemberRepository.findById(member.getId()).orElseThrow();
+        Team target = teams.stream()
+                .filter(team -> shards.shardOf(team.getId()) != shards.shardOf(current.teamId()))
+                .findFirst().orElseThrow();
+        shards.shard(shards.shardOf(target.getId())).getJdbcTemplate().update(
+                "insert into member (member_id, username, age, team_id, version) values (?, ?, ?, ?, ?)",
+                current.id(), current.username(), current.age(), target.getId(), current.version() + 1);
+
+        assertThat(shardedMemberRepository.findById(member.getId())).get()
+                .extracting(ShardedMember::teamId).isEqualTo(target.getId());
+        assertThat(shardedMemberRepository.search(new MemberSearchCondition()))
+                .extracting(MemberTeamDTO::getMemberId)
+                .containsOnlyOnce(member.getId());
+    }
+
+    private List<Integer> shardsHaving(Long memberId) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            if (shards.shard(i).queryForObject("select count(*) from member where member_id = :id",
+                    new MapSqlParameterSource("id", memberId), Long.class) > 0) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    private List<MemberTeamDTO> expected(MemberSearchCondition condition, Sort sort) {
+        Comparator<MemberTeamDTO> teamName = Comparator.comparing(MemberTeamDTO::getTeamName, Comparator.nullsFirst(Comparator.naturalOrder()));
+        Comparator<MemberTeamDTO> order = sort.isSorted()
+                ? Comparator.comparingInt(MemberTeamDTO::getAge).reversed().thenComparing(teamName)
+                : (a, b) -> 0;
+        return members.stream()
+                .filter(member -> condition.getUsername() == null || member.getUsername().startsWith(condition.getUsername().toLowerCase()))
+                .filter(member -> condition.getTeamName() == null
+                        || (member.getTeam() != null && member.getTeam().getName().equals(condition.getTeamName())))
+                .filter(member -> condition.getAgeGoe() == null || member.getAge() >= condition.getAgeGoe())
+                .filter(member -> condition.getAgeLoe() == null || member.getAge() <= condition.getAgeLoe())
+                .map(member -> new MemberTeamDTO(member.getId(), member.getUsername(), member.getAge(),
+                        member.getTeam() != null ? member.getTeam().getId() : null,
+                        member.getTeam() != null ? member.getTeam().getName() : null))
+                .sorted(order.thenComparing(MemberTeamDTO::getMemberId))
+                .toList();
+    }
+}
@@ -0,0 +1,69 @@
+package study.querydsl.repository.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import study.querydsl.dto.MemberTeamDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberExportWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void encodeAcrossBufferBoundary() throws Exception {
+        Path path = dir.resolve("export.csv");
+        StringBuilder expected = new StringBuilder();
+        try (MemberExportWriter writer = new MemberExportWriter(path, 0, 16)) { // 버퍼보다 긴 행, 버퍼 경계에 걸친 멀티바이트 문자
+            for (int i = 0; i < 20; i++) {
+                String line = "회원" + i + ",한글 이름 😀\n";
+                writer.write(line);
+                expected.append(line);
+            }
+            writer.flush();
+            assertThat(writer.position()).isEqualTo(expected.toString().getBytes(StandardCharsets.UTF_8).length);
+        }
+        assertThat(Files.readString(path)).isEqualTo(expected.toString());
+    }
+
+    @Test
+    public void truncateToCheckpoint() throws Exception {
+        Path path = dir.resolve("export.csv");
+        long checkpoint;
+        try (MemberExportWriter writer = new MemberExportWriter(path, 0, 1024)) {
+            writer.write("1,a\n");
+            writer.flush();
+            checkpoint = writer.position();
+            writer.write("2,b\n");
+            writer.flush();
+            writer.write("3,c\n"); // flush 하지 않고 닫으면 버려짐
+        }
+        assertThat(Files.readString(path)).isEqualTo("1,a\n2,b\n");
+
+        try (MemberExportWriter writer = new MemberExportWriter(path, checkpoint, 1024)) {
+            assertThat(writer.position()).isEqualTo(checkpoint);
+            writer.write("2,B\n");
+            writer.flush();
+        }
+        assertThat(Files.readString(path)).isEqualTo("1,a\n2,B\n");
+    }
+
+    @Test
+    public void formatRow() {
+        MemberTeamDTO dto = new MemberTeamDTO(1L, "kim, \"jr\"\n", 10, null, null);
+
+        StringBuilder csv = new StringBuilder();
+        MemberExportFormat.CSV.row(dto, csv);
+        assertThat(csv.toString()).isEqualTo("1,\"kim, \"\"jr\"\"\n\",10,,\n");
+
+        StringBuilder json = new StringBuilder();
+        MemberExportFormat.NDJSON.row(dto, json);
+        assertThat(json.toString())
+                .isEqualTo("{\"memberId\":1,\"username\":\"kim, \\\"jr\\\"\\n\",\"age\":10,\"teamId\":null,\"teamName\":null}\n");
+    }
+}
@@ -0,0 +1,220 @@
+package study.querydsl.repository.export;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.LargeResultFetch;
+import study.querydsl.repository.support.UsernameSearch;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 내보내기는 워커 스레드의 별도 트랜잭션에서 읽으므로 커밋 후 정리한다.
+@SpringBootTest
+class MemberExporterTest {
+
+    private static final int CHUNK_SIZE = 7;
+
+    @TempDir
+    Path dir;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    LargeResultFetch largeResultFetch;
+
+    @Autowired
+    UsernameSearch usernameSearch;
+
+    List<Long> memberIds = new ArrayList<>();
+    List<Long> teamAIds = new ArrayList<>();
+    List<MemberExporter> exporters = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < 50; i++) {
+                Member member = new Member(i == 0 ? "kim, \"jr\"" : "member" + i, i, i % 2 == 0 ? teamA : teamB);
+                em.persist(member);
+                memberIds.add(member.getId());
+                if (i % 2 == 0) {
+                    teamAIds.add(member.getId());
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        for (MemberExporter exporter : exporters) {
+            exporter.stop();
+        }
+        jdbcTemplate.update("delete from member_search_view");
+        jdbcTemplate.update("delete from member");
+        jdbcTemplate.update("delete from team");
+    }
+
+    @Test
+    public void csvExportTest() throws Exception {
+        MemberExporter exporter = exporter(1, 4, job -> {
+        });
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        MemberExportJob job = exporter.submit(condition, MemberExportFormat.CSV);
+        await(job);
+
+        assertThat(job.getStatus()).isEqualTo(MemberExportJob.Status.COMPLETED);
+        assertThat(job.getTotalRows()).isEqualTo(25);
+        assertThat(job.getExportedRows()).isEqualTo(25);
+        assertThat(job.getCheckpointBytes()).isEqualTo(Files.size(job.getPath()));
+        assertThat(Files.exists(job.getPartPath())).isFalse();
+
+        List<String> lines = Files.readAllLines(job.getPath());
+        assertThat(lines.get(0)).isEqualTo("member_id,username,age,team_id,team_name");
+        assertThat(lines.get(1)).startsWith(teamAIds.get(0) + ",\"kim, \"\"jr\"\"\",0,").endsWith(",teamA");
+        assertThat(ids(lines.subList(1, lines.size()))).isEqualTo(teamAIds);
+    }
+
+    @Test
+    public void cancelAndResumeTest() throws Exception {
+        AtomicBoolean first = new AtomicBoolean(true);
+        MemberExporter exporter = exporter(1, 4, job -> {
+            if (first.getAndSet(false)) {
+                job.cancel(); // 첫 청크를 쓴 뒤 취소
+            }
+        });
+
+        MemberExportJob job = exporter.submit(new MemberSearchCondition(), MemberExportFormat.NDJSON);
+        await(job);
+
+        assertThat(job.getStatus()).isEqualTo(MemberExportJob.Status.CANCELLED);
+        assertThat(job.getCheckpointRows()).isEqualTo(CHUNK_SIZE);
+        assertThat(job.getCheckpointMemberId()).isEqualTo(memberIds.get(CHUNK_SIZE - 1));
+        assertThat(Files.readAllLines(job.getPartPath())).hasSize(CHUNK_SIZE);
+        assertThat(Files.exists(job.getPath())).isFalse();
+        assertThat(exporter.cancel(job)).isFalse();
+
+        assertThat(exporter.resume(job)).isTrue();
+        await(job);
+
+        assertThat(job.getStatus()).isEqualTo(MemberExportJob.Status.COMPLETED);
+        assertThat(job.getExportedRows()).isEqualTo(50);
+        List<String> lines = Files.readAllLines(job.getPath());
+        assertThat(lines.get(0)).startsWith("{\"memberId\":" + memberIds.get(0) + ",\"username\":\"kim, \\\"jr\\\"\"");
+        assertThat(lines).allMatch(line -> line.startsWith("{\"memberId\":"));
+        assertThat(lines.stream().map(line -> Long.valueOf(line.substring(12, line.indexOf(','))))).containsExactlyElementsOf(memberIds);
+        assertThat(exporter.resume(job)).isFalse();
+    }
+
+    @Test
+    public void failAndResumeTest() throws Exception {
+        AtomicBoolean fail = new AtomicBoolean(true);
+        MemberExporter exporter = exporter(1, 4, job -> {
+            if (job.getCheckpointRows() == CHUNK_SIZE * 2 && fail.getAndSet(false)) {
+                throw new IllegalStateException("connection lost");
+            }
+        });
+
+        MemberExportJob job = exporter.submit(new MemberSearchCondition(), MemberExportFormat.CSV);
+        await(job);
+        assertThat(job.getStatus()).isEqualTo(MemberExportJob.Status.FAILED);
+        assertThat(job.getError()).contains("connection lost");
+        assertThat(job.getCheckpointMemberId()).isEqualTo(memberIds.get(CHUNK_SIZE * 2 - 1));
+
+        exporter.resume(job);
+        await(job);
+
+        assertThat(job.getStatus()).isEqualTo(MemberExportJob.Status.COMPLETED);
+        List<String> lines = Files.readAllLines(job.getPath());
+        assertThat(ids(lines.subList(1, lines.size()))).isEqualTo(memberIds); // 중복 / 누락 없음
+        assertThat(exporter.remove(job)).isTrue();
+        assertThat(Files.exists(job.getPath())).isFalse();
+        assertThat(exporter.find(job.getId())).isEmpty();
+    }
+
+    @Test
+    public void boundedQueueTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MemberExporter exporter = exporter(1, 1, job -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        MemberExportJob running = exporter.submit(new MemberSearchCondition(), MemberExportFormat.CSV); // 워커
+        MemberExportJob queued = exporter.submit(new MemberSearchCondition(), MemberExportFormat.CSV); // 대기열
+        assertThatThrownBy(() -> exporter.submit(new MemberSearchCondition(), MemberExportFormat.CSV))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(exporter.remove(queued)).isFalse();
+
+        assertThat(exporter.cancel(queued)).isTrue();
+        assertThat(queued.getStatus()).isEqualTo(MemberExportJob.Status.CANCELLED); // 대기 중 취소는 바로 반영
+        release.countDown();
+        await(running);
+
+        assertThat(running.getStatus()).isEqualTo(MemberExportJob.Status.COMPLETED);
+        assertThat(queued.getStatus()).isEqualTo(MemberExportJob.Status.CANCELLED);
+        assertThat(queued.getExportedRows()).isZero();
+    }
+
+    private MemberExporter exporter(int workers, int queueCapacity, Consumer<MemberExportJob> chunkListener) {
+        MemberExporter exporter = new MemberExporter(queryFactory, transactionManager, largeResultFetch, usernameSearch,
+                dir, workers, queueCapacity, CHUNK_SIZE, 64, Duration.ofHours(1), chunkListener);
+        exporters.add(exporter);
+        return exporter;
+    }
+
+    private static List<Long> ids(List<String> csvLines) {
+        return csvLines.stream().map(line -> Long.valueOf(line.substring(0, line.indexOf(',')))).toList();
+    }
+
+    private static void await(MemberExportJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (job.isActive() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(job.isActive()).isFalse();
+    }
+}
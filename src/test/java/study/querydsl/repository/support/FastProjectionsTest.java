@@ -0,0 +1,110 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberDTO;
+import study.querydsl.dto.UserDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class FastProjectionsTest {
+
+    @Autowired
+    EntityManager em;
+
+    JPAQueryFactory queryFactory;
+
+    record MemberRecord(String username, int age) {
+    }
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        em.persist(new Member("member1", 10));
+        em.persist(new Member("member2", 20));
+    }
+
+    @Test
+    public void bean() throws Exception {
+        List<MemberDTO> result = queryFactory
+                .select(FastProjections.bean(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).containsExactly(new MemberDTO("member1", 10), new MemberDTO("member2", 20));
+    }
+
+    @Test
+    public void fields() throws Exception {
+        List<MemberDTO> result = queryFactory
+                .select(FastProjections.fields(MemberDTO.class, member.age, member.username))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).containsExactly(new MemberDTO("member1", 10), new MemberDTO("member2", 20));
+    }
+
+    @Test
+    public void constructor() throws Exception {
+        List<MemberDTO> result = queryFactory
+                .select(FastProjections.constructor(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).containsExactly(new MemberDTO("member1", 10), new MemberDTO("member2", 20));
+    }
+
+    // UserDTO 는 기본 생성자가 없으므로 alias 이름과 같은 생성자 파라미터로 주입
+    @Test
+    public void fieldsWithoutNoArgsConstructor() throws Exception {
+        QMember memberSub = new QMember("memberSub");
+        List<UserDTO> result = queryFactory
+                .select(FastProjections.fields(UserDTO.class,
+                        member.username.as("name"),
+                        ExpressionUtils.as(JPAExpressions.select(memberSub.age.max()).from(memberSub), "age")))
+                .from(member)
+                .orderBy(member.username.asc())
+                .fetch();
+
+        assertThat(result).containsExactly(new UserDTO("member1", 20), new UserDTO("member2", 20));
+    }
+
+    @Test
+    public void record() throws Exception {
+        List<MemberRecord> result = queryFactory
+                .select(FastProjections.bean(MemberRecord.class, member.age, member.username))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).containsExactly(new MemberRecord("member1", 10), new MemberRecord("member2", 20));
+    }
+
+    @Test
+    public void equalsAndHashCode() throws Exception {
+        CompiledProjection<MemberDTO> projection = FastProjections.bean(MemberDTO.class, member.username, member.age);
+        CompiledProjection<MemberDTO> same = FastProjections.fields(MemberDTO.class, member.username, member.age);
+
+        assertThat(projection).isEqualTo(same);
+        assertThat(projection.hashCode()).isEqualTo(same.hashCode());
+        assertThat(projection).isNotEqualTo(FastProjections.bean(MemberDTO.class, member.age, member.username));
+        assertThat(projection).isNotEqualTo(FastProjections.constructor(UserDTO.class, member.username, member.age));
+    }
+}
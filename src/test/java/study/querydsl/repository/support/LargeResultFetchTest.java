@@ -0,0 +1,42 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.QMemberTeamDTO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+class LargeResultFetchTest {
+
+    @Autowired
+    LargeResultFetch largeResultFetch;
+
+    @Test
+    public void adaptiveFetchSizeTest() {
+        long available = 100L * 1024 * 1024; // 100MB, 1% = 1MB
+
+        // 행이 넓을수록 fetch size 가 작아진다.
+        assertThat(LargeResultFetch.adaptiveFetchSize(200, available, 0.01, 100, 10_000)).isEqualTo(5242);
+        assertThat(LargeResultFetch.adaptiveFetchSize(2_000, available, 0.01, 100, 10_000)).isEqualTo(524);
+
+        // [min, max] 범위로 제한
+        assertThat(LargeResultFetch.adaptiveFetchSize(10, available, 0.01, 100, 10_000)).isEqualTo(10_000);
+        assertThat(LargeResultFetch.adaptiveFetchSize(1_000_000, available, 0.01, 100, 10_000)).isEqualTo(100);
+    }
+
+    @Test
+    public void estimateRowBytesTest() {
+        long dtoBytes = largeResultFetch.estimateRowBytes(new QMemberTeamDTO(
+                member.id.as("memberId"), member.username, member.age, team.id.as("teamId"), team.name.as("teamName")));
+        long usernameBytes = largeResultFetch.estimateRowBytes(member.username);
+        long entityBytes = largeResultFetch.estimateRowBytes(member);
+
+        assertThat(dtoBytes).isGreaterThan(usernameBytes);
+        assertThat(entityBytes).isGreaterThan(usernameBytes);
+        assertThat(largeResultFetch.fetchSize(member)).isBetween(100, 10_000); // 기본 모드 CURSOR
+    }
+}
@@ -0,0 +1,113 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 배치 로더는 별도 트랜잭션에서 조회하므로 테스트 데이터를 커밋한 뒤 검증한다.
+@SpringBootTest
+class MemberBatchLoaderTest {
+
+    @Autowired
+    MemberBatchLoader memberBatchLoader;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAllInBatch();
+        jdbcTemplate.update("delete from team");
+    }
+
+    @Test
+    public void loadConcurrently() throws Exception {
+        List<Member> members = transactionTemplate.execute(status -> {
+            List<Member> saved = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                saved.add(memberRepository.save(new Member("member" + i, i)));
+            }
+            return saved;
+        });
+
+        List<CompletableFuture<Optional<Member>>> futures = new ArrayList<>();
+        for (Member member : members) {
+            futures.add(memberBatchLoader.load(member.getId()));
+            futures.add(memberBatchLoader.load(member.getId())); // 중복 요청
+        }
+        futures.add(memberBatchLoader.load(-1L));
+
+        for (int i = 0; i < members.size(); i++) {
+            assertThat(futures.get(i * 2).join()).get().extracting("username").isEqualTo("member" + i);
+            assertThat(futures.get(i * 2 + 1).join()).get().extracting("username").isEqualTo("member" + i);
+        }
+        assertThat(futures.get(futures.size() - 1).join()).isEmpty();
+    }
+
+    @Test
+    public void findByIdRouting() throws Exception {
+        Long id = transactionTemplate.execute(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            return memberRepository.save(new Member("member1", 10, team)).getId();
+        });
+
+        // EntityManager 가 없음 : 배치 로더 (team fetch join)
+        Member loaded = memberRepository.findByIdBatched(id).orElseThrow();
+        assertThat(Hibernate.isInitialized(loaded.getTeam())).isTrue();
+        assertThat(memberJpaRepository.findByIdBatched(id)).get().extracting(member -> Hibernate.isInitialized(member.getTeam())).isEqualTo(true);
+
+        // 트랜잭션 안 : 영속성 컨텍스트의 같은 인스턴스
+        transactionTemplate.executeWithoutResult(status -> {
+            Member managed = em.find(Member.class, id);
+            assertThat(memberRepository.findByIdBatched(id)).containsSame(managed);
+            assertThat(memberJpaRepository.findByIdBatched(id)).containsSame(managed);
+        });
+
+        // OSIV (트랜잭션 없이 EntityManager 만 열림) : 영속성 컨텍스트에서 조회, 지연 로딩 가능
+        EntityManager osiv = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(osiv));
+        try {
+            Member managed = memberRepository.findByIdBatched(id).orElseThrow();
+            assertThat(osiv.contains(managed)).isTrue();
+            assertThat(managed.getTeam().getMembers()).extracting("username").containsExactly("member1");
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            osiv.close();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSyncDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SpringBootTest
+@Transactional
+class MemberBulkUpsertTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    UsernameSearch usernameSearch;
+
+    @Autowired
+    MemberSearchViewWriter searchViewWriter;
+
+    @Autowired
+    MemberShards shards;
+
+    @Autowired
+    MemberDataVersion dataVersion;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void upsertAllTest() {
+        UpsertResult result = memberRepository.upsertAll(records());
+
+        assertUpserted(result);
+    }
+
+    @Test
+    public void onDuplicateKeyTest() {
+        // 행 별칭(as new) 은 MySQL 8.0.20+ 문법 (H2 MySQL 모드는 지원하지 않음)
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        assumeTrue("MySQL".equals(product));
+        UpsertResult result = bulkUpsert(2, MemberBulkUpsert.Sql.ON_DUPLICATE_KEY).upsertAll(records());
+
+        assertUpserted(result);
+    }
+
+    @Test
+    public void portableChunkTest() {
+        UpsertResult result = bulkUpsert(2, MemberBulkUpsert.Sql.PORTABLE).upsertAll(records());
+
+        assertUpserted(result);
+    }
+
+    @Test
+    public void lastRecordWinsTest() {
+        UpsertResult result = memberRepository.upsertAll(Stream.of(
+                new MemberSyncDTO("member4", 40, null),
+                new MemberSyncDTO("member4", 41, "teamA")));
+
+        assertThat(result).isEqualTo(new UpsertResult(1, 0, 0));
+        Member member4 = memberRepository.findByUsername("member4").get(0);
+        assertThat(member4.getAge()).isEqualTo(41);
+        assertThat(member4.getTeam().getName()).isEqualTo("teamA");
+    }
+
+    @Test
+    public void duplicateUsernameUpdatesLowestIdTest() {
+        em.persist(new Member("member1", 99));
+        em.flush();
+
+        memberRepository.upsertAll(Stream.of(new MemberSyncDTO("member1", 11, "teamA")));
+        em.clear();
+
+        List<Member> members = memberRepository.findByUsername("member1").stream()
+                .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                .toList();
+        assertThat(members).extracting(Member::getAge).containsExactly(11, 99);
+    }
+
+    @Test
+    public void callerEntitiesStayManagedTest() {
+        // 호출 측 트랜잭션에 참여하면 호출 측이 읽은 엔티티를 준영속으로 만들지 않는다.
+        Member member1 = memberRepository.findByUsername("member1").get(0);
+        Member member3 = memberRepository.findByUsername("member3").get(0);
+
+        memberRepository.upsertAll(Stream.of(new MemberSyncDTO("member1", 11, "teamA")));
+
+        assertThat(em.contains(member1)).isTrue();
+        assertThat(em.contains(member3)).isTrue();
+        assertThat(member1.getAge()).isEqualTo(11); // JDBC 로 바뀐 회원은 다시 읽음
+    }
+
+    /**
+     * 회원 rows 건 동기화 (절반 기존 회원의 나이 변경, 절반 신규)
+     * findByUsername 후 한 건씩 수정 / persist 하는 기존 방식과 upsertAll 비교
+     * 실행 : ./gradlew benchmark -Dbenchmark.rows=100000 --tests '*MemberBulkUpsertTest*'
+     */
+    @Test
+    @Tag("benchmark")
+    public void rowByRowVsBulkUpsertBenchmark() {
+        int rows = Integer.getInteger("benchmark.rows", 20_000);
+        Team team = new Team("benchTeam");
+        em.persist(team);
+        for (int i = 0; i < rows; i += 2) {
+            em.persist(new Member("rowSync" + i, 1, team));
+            em.persist(new Member("bulkSync" + i, 1, team));
+            if (i % 1_000 == 0) {
+                em.flush();
+                em.clear();
+                team = em.find(Team.class, team.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        long start = System.nanoTime();
+        syncRecords("rowSync", rows).forEach(record -> {
+            List<Member> found = memberRepository.findByUsername(record.getUsername());
+            Team recordTeam = em.createQuery("select t from Team t where t.name = :name", Team.class)
+                    .setParameter("name", record.getTeamName())
+                    .getSingleResult();
+            if (found.isEmpty()) {
+                em.persist(new Member(record.getUsername(), record.getAge(), recordTeam));
+            } else {
+                found.get(0).setAge(record.getAge());
+            }
+        });
+        em.flush();
+        long rowByRowNanos = System.nanoTime() - start;
+        em.clear();
+
+        start = System.nanoTime();
+        UpsertResult result = memberRepository.upsertAll(syncRecords("bulkSync", rows));
+        long bulkNanos = System.nanoTime() - start;
+
+        System.out.println("records               = " + rows + " " + result);
+        System.out.println("row by row            = " + rowByRowNanos / 1_000_000 + "ms");
+        System.out.println("upsertAll             = " + bulkNanos / 1_000_000 + "ms");
+    }
+
+    // 짝수 : 기존 회원 나이 변경, 홀수 : 신규
+    private Stream<MemberSyncDTO> syncRecords(String prefix, int rows) {
+        return IntStream.range(0, rows).mapToObj(i -> new MemberSyncDTO(prefix + i, 2, "benchTeam"));
+    }
+
+    /**
+     * member1 : 같은 값 (unchanged)
+     * member2 : 나이 변경 (updated)
+     * member3 : 팀 배정, 새 팀 (updated)
+     * member4, member5 : 신규 (inserted)
+     */
+    private Stream<MemberSyncDTO> records() {
+        return Stream.of(
+                new MemberSyncDTO("member1", 10, "teamA"),
+                new MemberSyncDTO("member2", 21, "teamA"),
+                new MemberSyncDTO("member3", 30, "teamB"),
+                new MemberSyncDTO("member4", 40, "teamB"),
+                new MemberSyncDTO("member5", 50, null));
+    }
+
+    private void assertUpserted(UpsertResult result) {
+        assertThat(result).isEqualTo(new UpsertResult(2, 2, 1));
+        assertThat(result.getTotal()).isEqualTo(5);
+
+        List<Member> members = em.createQuery(
+                        "select m from Member m left join fetch m.team order by m.username", Member.class)
+                .getResultList();
+        assertThat(members).extracting(Member::getUsername)
+                .containsExactly("member1", "member2", "member3", "member4", "member5");
+        assertThat(members).extracting(Member::getAge).containsExactly(10, 21, 30, 40, 50);
+        assertThat(members).extracting(m -> m.getTeam() != null ? m.getTeam().getName() : null)
+                .containsExactly("teamA", "teamA", "teamB", "teamB", null);
+        assertThat(em.createQuery("select count(t) from Team t where t.name = 'teamB'", Long.class)
+                .getSingleResult()).isEqualTo(1L);
+
+        // 새 회원은 n-gram 인덱스에도 반영
+        Long member5 = members.get(4).getId();
+        assertThat(usernameSearch.findIdsContaining("ember5")).contains(member5);
+    }
+
+    private MemberBulkUpsert bulkUpsert(int batchSize, MemberBulkUpsert.Sql sql) {
+        return new MemberBulkUpsert(em, queryFactory, jdbcTemplate, transactionManager, usernameSearch, searchViewWriter,
+                shards, dataVersion, batchSize, sql);
+    }
+}
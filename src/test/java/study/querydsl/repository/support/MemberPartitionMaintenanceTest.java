@@ -0,0 +1,73 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.repository.support.MemberPartitionMaintenance.Partition;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SpringBootTest(properties = "member.partitioning.range-size=100")
+class MemberPartitionMaintenanceTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MemberPartitionMaintenance partitionMaintenance;
+
+    @Test
+    public void migrationPlanTest() {
+        assertThat(MemberPartitionMaintenance.migrationPlan(250, 100, 1)).isEqualTo("alter table member partition by range (member_id) ("
+                + "partition p100 values less than (100), partition p200 values less than (200), "
+                + "partition p300 values less than (300), partition p400 values less than (400), "
+                + "partition pmax values less than maxvalue)");
+    }
+
+    @Test
+    public void addPlanTest() {
+        List<Partition> partitions = List.of(new Partition("p100", "100"), new Partition("p200", "200"),
+                new Partition("pmax", "MAXVALUE"));
+
+        assertThat(MemberPartitionMaintenance.plan(partitions, 50, 100, 1, 0)).isEmpty();
+        assertThat(MemberPartitionMaintenance.plan(partitions, 150, 100, 1, 0))
+                .containsExactly("alter table member reorganize partition pmax into ("
+                        + "partition p300 values less than (300), partition pmax values less than maxvalue)");
+    }
+
+    @Test
+    public void dropPlanTest() {
+        List<Partition> partitions = List.of(new Partition("p100", "100"), new Partition("p200", "200"),
+                new Partition("p300", "300"), new Partition("p400", "400"), new Partition("pmax", "MAXVALUE"));
+
+        // 최대 id 250 -> p300 이 최신 파티션, 2개(p200, p300) 만 유지
+        assertThat(MemberPartitionMaintenance.plan(partitions, 250, 100, 1, 2))
+                .containsExactly("alter table member drop partition p100");
+    }
+
+    @Test
+    public void explainPruningTest() {
+        assumeTrue(partitionMaintenance.isMySql(), "MySQL 전용");
+        jdbcTemplate.update("delete from member");
+        for (long id = 1; id <= 350; id += 7) {
+            jdbcTemplate.update("insert into member (member_id, username, age) values (?, ?, ?)", id, "member" + id, 20);
+        }
+        assertThat(partitionMaintenance.maintain()).isEmpty(); // 주기 작업은 파티셔닝하지 않음
+        assertThat(partitionMaintenance.migrate()).last().asString().startsWith("alter table member partition by range");
+        assertThat(partitionMaintenance.migrate()).isEmpty();
+
+        assertThat(explainPartitions("select * from member where member_id between 110 and 190")).isEqualTo("p200");
+        assertThat(explainPartitions("select * from member where member_id in (15, 315)")).isEqualTo("p100,p400");
+        assertThat(explainPartitions("select * from member where age = 20")).contains("p100", "p200", "p300", "p400");
+    }
+
+    private String explainPartitions(String sql) {
+        Map<String, Object> plan = jdbcTemplate.queryForMap("explain " + sql);
+        return (String) plan.get("partitions");
+    }
+}
@@ -0,0 +1,72 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.UsernameMatchType;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"member.warmup.enabled=true", "member.warmup.max-rounds=5"})
+class MemberQueryWarmupTest {
+
+    @Autowired
+    MemberQueryWarmup memberQueryWarmup;
+
+    @Autowired
+    ApplicationAvailability availability;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void parseTest() {
+        MemberSearchCondition condition = MemberQueryWarmup.parse("username=member;usernameMatch=PREFIX;ageGoe=10");
+        assertThat(condition.getUsername()).isEqualTo("member");
+        assertThat(condition.getUsernameMatch()).isEqualTo(UsernameMatchType.PREFIX);
+        assertThat(condition.getAgeGoe()).isEqualTo(10);
+        assertThat(condition.getTeamName()).isNull();
+
+        assertThat(MemberQueryWarmup.parse("all")).isEqualTo(new MemberSearchCondition());
+        assertThat(MemberQueryWarmup.isSelective(MemberQueryWarmup.parse("all"))).isFalse();
+        assertThat(MemberQueryWarmup.isSelective(MemberQueryWarmup.parse("ageGoe=10;ageLoe=40"))).isFalse();
+        assertThat(MemberQueryWarmup.isSelective(MemberQueryWarmup.parse("teamName=teamA;ageGoe=10"))).isTrue();
+        assertThatThrownBy(() -> MemberQueryWarmup.parse("username")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void warmupTest() {
+        // 기동 시 워밍업이 끝난 뒤에 트래픽을 받는다.
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(memberQueryWarmup.getRoundMillis()).isNotEmpty();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            for (int i = 0; i < 50; i++) {
+                em.persist(new Member("member" + i, i, team));
+            }
+        });
+        memberQueryWarmup.warmup();
+
+        assertThat(memberQueryWarmup.getRoundMillis()).hasSizeBetween(1, 5);
+        // 읽기 전용 : 워밍업은 데이터를 바꾸지 않는다.
+        assertThat(em.createQuery("select count(m) from Member m", Long.class).getSingleResult()).isEqualTo(50L);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+}
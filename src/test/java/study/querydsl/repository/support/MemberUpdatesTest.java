@@ -0,0 +1,274 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 여러 트랜잭션에서 같은 회원을 수정하므로 커밋 후 정리한다.
+@SpringBootTest
+class MemberUpdatesTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    OptimisticRetry retry;
+
+    @Autowired
+    MemberUpdates memberUpdates;
+
+    Long teamAId;
+    Long teamBId;
+    Long memberId;
+
+    @BeforeEach
+    public void before() {
+        retry.resetContention();
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member = new Member("member1", 10, teamA);
+            em.persist(member);
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            memberId = member.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        jdbcTemplate.update("delete from member_search_view");
+        jdbcTemplate.update("delete from member");
+        jdbcTemplate.update("delete from team");
+    }
+
+    @Test
+    public void staleUpdateTest() {
+        Member stale = transactionTemplate.execute(status -> em.find(Member.class, memberId));
+        assertThat(stale.getVersion()).isZero();
+
+        memberUpdates.changeAge(memberId, 20);
+
+        stale.setAge(30);
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> em.merge(stale)))
+                .isInstanceOf(OptimisticLockException.class);
+        assertThat(load().getAge()).isEqualTo(20);
+        assertThat(load().getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    public void retryOnConflictTest() {
+        AtomicBoolean first = new AtomicBoolean(true);
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        retry.run(() -> {
+            Member member = em.find(Member.class, memberId);
+            if (first.getAndSet(false)) { // 읽은 뒤 다른 트랜잭션이 먼저 수정
+                other.executeWithoutResult(status -> jdbcTemplate.update(
+                        "update member set age = age + 5, version = version + 1 where member_id = ?", memberId));
+            }
+            member.setAge(member.getAge() + 1);
+        });
+
+        assertThat(load().getAge()).isEqualTo(16); // 5 증가를 잃지 않음
+        assertThat(retry.contention()).containsEntry("Member", new OptimisticRetry.ContentionStats(1, 1, 0));
+    }
+
+    @Test
+    public void exhaustedTest() {
+        OptimisticRetry twice = new OptimisticRetry(transactionManager, 2, Duration.ZERO, Duration.ZERO);
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        assertThatThrownBy(() -> twice.run(() -> {
+            Member member = em.find(Member.class, memberId);
+            other.executeWithoutResult(status -> jdbcTemplate.update(
+                    "update member set version = version + 1 where member_id = ?", memberId));
+            member.setAge(99);
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(twice.contention()).containsEntry("Member", new OptimisticRetry.ContentionStats(2, 1, 1));
+        assertThat(load().getAge()).isEqualTo(10);
+    }
+
+    @Test
+    public void insideTransactionTest() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> memberUpdates.changeAge(memberId, 20)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void concurrentChangeTeamTest() throws Exception {
+        List<Long> memberIds = transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Member member = new Member("mover" + i, i, em.getReference(Team.class, teamAId));
+                em.persist(member);
+                ids.add(member.getId());
+            }
+            return ids;
+        });
+        long teamVersion = jdbcTemplate.queryForObject("select version from team where team_id = ?", Long.class, teamBId);
+
+        runConcurrently(memberIds.size(), i -> memberUpdates.changeTeam(memberIds.get(i), teamBId));
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member where team_id = ?", Long.class, teamBId))
+                .isEqualTo(memberIds.size());
+        // 팀 이동으로는 팀 version 이 바뀌지 않음 (서로 다른 회원을 같은 팀으로 옮겨도 충돌 없음)
+        assertThat(jdbcTemplate.queryForObject("select version from team where team_id = ?", Long.class, teamBId))
+                .isEqualTo(teamVersion);
+        assertThat(retry.contention()).doesNotContainKey("Team");
+    }
+
+    @Test
+    public void concurrentAddAgeRetryTest() throws Exception {
+        MemberUpdates retryUpdates = new MemberUpdates(em, null, transactionManager,
+                new OptimisticRetry(transactionManager, 100, Duration.ofMillis(1), Duration.ofMillis(20)),
+                null, null, MemberUpdates.Commutative.RETRY);
+
+        runConcurrently(4, i -> {
+            for (int n = 0; n < 10; n++) {
+                retryUpdates.addAge(memberId, 1);
+            }
+        });
+
+        assertThat(load().getAge()).isEqualTo(10 + 40);
+        assertThat(load().getVersion()).isEqualTo(40);
+    }
+
+    @Test
+    public void concurrentAddAgeMergeTest() throws Exception {
+        runConcurrently(4, i -> {
+            for (int n = 0; n < 25; n++) {
+                memberUpdates.addAge(memberId, 1);
+            }
+        });
+
+        assertThat(load().getAge()).isEqualTo(10 + 100);
+        assertThat(load().getVersion()).isEqualTo(100);
+        assertThat(retry.contention()).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("select age from member_search_view where member_id = ?", Integer.class, memberId))
+                .isEqualTo(110);
+    }
+
+    @Test
+    public void mergeDetectedByReaderTest() {
+        Member stale = transactionTemplate.execute(status -> em.find(Member.class, memberId));
+        memberUpdates.addAge(memberId, 1);
+
+        stale.setUsername("renamed"); // 증감 전 값을 읽은 수정은 충돌
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> em.merge(stale)))
+                .isInstanceOf(OptimisticLockException.class);
+    }
+
+    @Test
+    public void retryMergeConflictTest() {
+        Member stale = transactionTemplate.execute(status -> em.find(Member.class, memberId));
+        memberUpdates.addAge(memberId, 1);
+
+        AtomicBoolean first = new AtomicBoolean(true);
+
+        retry.run(() -> { // 첫 시도는 오래된 version 으로 merge -> 충돌, 다시 읽어서 수정
+            Member current = first.getAndSet(false) ? stale : em.find(Member.class, memberId);
+            current.setUsername("renamed");
+            em.merge(current);
+        });
+
+        assertThat(load().getUsername()).isEqualTo("renamed");
+        assertThat(load().getAge()).isEqualTo(11);
+        assertThat(retry.contention()).containsEntry("Member", new OptimisticRetry.ContentionStats(1, 1, 0));
+    }
+
+    /**
+     * 한 회원(hot row) 에 threads 개 스레드가 나이 +1 : RETRY(읽고 수정 + 재시도) vs MERGE(update age = age + 1)
+     * 실행 : ./gradlew benchmark -Dbenchmark.rows=20000
+     */
+    @Test
+    @Tag("benchmark")
+    public void hotRowBenchmark() throws Exception {
+        int updates = Integer.getInteger("benchmark.rows", 4_000);
+        for (MemberUpdates.Commutative mode : MemberUpdates.Commutative.values()) {
+            for (int threads : new int[]{1, 4, 16}) {
+                OptimisticRetry modeRetry = new OptimisticRetry(transactionManager, 1_000, Duration.ofMillis(1), Duration.ofMillis(50));
+                MemberUpdates updater = new MemberUpdates(em, null, transactionManager, modeRetry, null, null, mode);
+                MemberUpdates merge = memberUpdates;
+                long start = System.nanoTime();
+                runConcurrently(threads, i -> {
+                    for (int n = 0; n < updates / threads; n++) {
+                        if (mode == MemberUpdates.Commutative.MERGE) {
+                            merge.addAge(memberId, 1);
+                        } else {
+                            updater.addAge(memberId, 1);
+                        }
+                    }
+                });
+                long elapsed = System.nanoTime() - start;
+                System.out.println("mode = " + mode + ", threads = " + threads
+                        + ", updates/s = " + (long) (updates / (elapsed / 1_000_000_000.0))
+                        + ", contention = " + modeRetry.contention());
+            }
+        }
+    }
+
+    private Member load() {
+        return transactionTemplate.execute(status -> em.find(Member.class, memberId));
+    }
+
+    private interface Task {
+        void run(int index) throws Exception;
+    }
+
+    private static void runConcurrently(int threads, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    task.run(index);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
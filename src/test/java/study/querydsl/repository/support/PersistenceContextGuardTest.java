@@ -0,0 +1,113 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "member.persistence-context.chunk-size=100",
+        "member.persistence-context.warn-threshold=300",
+        "member.persistence-context.budget=650"
+})
+@Transactional
+class PersistenceContextGuardTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PersistenceContextGuard persistenceContextGuard;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Test
+    public void checkpointTest() {
+        Team team = new Team("teamA");
+        em.persist(team);
+        for (int i = 0; i < 1_000; i++) {
+            em.persist(new Member("member" + i, i % 50, team));
+            persistenceContextGuard.checkpoint();
+            assertThat(managedEntities()).isLessThanOrEqualTo(100);
+        }
+        em.flush();
+        em.clear();
+
+        // flush 후 clear 했으므로 저장된 회원은 모두 DB 에 반영됨
+        assertThat(memberJpaRepository.findAll()).hasSize(1_000);
+    }
+
+    @Test
+    public void streamTest() {
+        for (int i = 0; i < 1_000; i++) {
+            em.persist(new Member("member" + i, i % 50));
+        }
+        em.flush();
+        em.clear();
+
+        long before = persistenceContextGuard.getClearCount();
+        int maxManaged = 0;
+        long count = 0;
+        try (Stream<Member> stream = memberJpaRepository.streamAll()) {
+            for (Member member : (Iterable<Member>) stream::iterator) {
+                member.setAge(member.getAge() + 1); // 청크가 바뀌기 전에 flush 되어야 함
+                maxManaged = Math.max(maxManaged, managedEntities());
+                count++;
+            }
+        }
+
+        assertThat(count).isEqualTo(1_000);
+        assertThat(maxManaged).isLessThanOrEqualTo(100);
+        assertThat(persistenceContextGuard.getClearCount() - before).isGreaterThanOrEqualTo(9);
+        em.flush();
+        em.clear();
+        assertThat(memberJpaRepository.findAll()).allMatch(member -> member.getAge() >= 1);
+    }
+
+    @Test
+    public void warnThresholdTest() {
+        long budgetExceeded = persistenceContextGuard.getBudgetExceededCount();
+        for (int i = 0; i < 700; i++) {
+            em.persist(new Member("member" + i, i % 50));
+        }
+
+        // 사용량은 이 테스트의 트랜잭션(영속성 컨텍스트) 것만 본다.
+        PersistenceContextGuard.Usage usage = persistenceContextGuard.usage();
+        assertThat(usage.getPeak()).isEqualTo(700);
+        assertThat(usage.getWarnings()).isEqualTo(2); // 300, 600
+        assertThat(usage.isBudgetExceeded()).isTrue(); // 650
+        assertThat(persistenceContextGuard.getBudgetExceededCount() - budgetExceeded).isEqualTo(1);
+    }
+
+    @Test
+    public void warnOnCrossingTest() {
+        Team team = new Team("teamA");
+        em.persist(team);
+        for (int i = 0; i < 400; i++) {
+            em.persist(new Member("member" + i, i % 50, team));
+        }
+        em.flush();
+        em.clear();
+
+        // 로딩은 한 번에 여러 개가 들어오므로 개수가 배수에 정확히 맞지 않아도 지나갈 때 경고
+        assertThat(memberJpaRepository.findAll()).hasSize(400);
+        PersistenceContextGuard.Usage usage = persistenceContextGuard.usage();
+        assertThat(usage.getManaged()).isGreaterThanOrEqualTo(400);
+        assertThat(usage.getWarnings()).isEqualTo(1 + 1); // persist 중 300, 로딩 중 300
+        assertThat(usage.isBudgetExceeded()).isFalse();
+    }
+
+    private int managedEntities() {
+        return em.unwrap(SessionImplementor.class).getPersistenceContextInternal().getNumberOfManagedEntities();
+    }
+}
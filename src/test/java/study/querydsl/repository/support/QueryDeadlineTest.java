@@ -0,0 +1,137 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+class QueryDeadlineTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    QueryTimeoutCounter queryTimeoutCounter;
+
+    @AfterEach
+    void clearDeadline() {
+        QueryDeadline.clear();
+    }
+
+    @Test
+    public void cancelAtDeadlineTest() {
+        QueryDeadline.start(Duration.ofMillis(200));
+        long start = System.nanoTime();
+
+        // 수 초 이상 걸리는 쿼리 : 마감 시각에 Statement.cancel() 로 중단돼야 한다.
+        assertThatThrownBy(() -> jdbcTemplate.queryForObject(slowQuery(), Long.class))
+                .isInstanceOf(QueryTimeoutException.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    public void cancelFromOtherThreadTest() throws Exception {
+        String sql = slowQuery();
+        AtomicReference<QueryDeadline> deadline = new AtomicReference<>();
+        CompletableFuture<Long> result = CompletableFuture.supplyAsync(() -> {
+            deadline.set(QueryDeadline.start(Duration.ofSeconds(30)));
+            try {
+                return jdbcTemplate.queryForObject(sql, Long.class);
+            } finally {
+                QueryDeadline.clear();
+            }
+        });
+
+        // 쿼리 실행이 시작되면 다른 스레드(클라이언트 연결 끊김 감지) 에서 취소
+        long start = System.nanoTime();
+        while (deadline.get() == null || !deadline.get().whileExecuting(() -> { })) {
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+            Thread.sleep(10);
+        }
+        deadline.get().cancel();
+
+        assertThatThrownBy(result::join).hasCauseInstanceOf(QueryTimeoutException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(deadline.get().isCancelled()).isTrue();
+    }
+
+    @Test
+    public void timeoutHintTest() {
+        QueryDeadline.start(Duration.ofMillis(1500));
+
+        // 남은 시간을 초 단위로 올림
+        assertThat(timeoutOf(memberQuery())).isEqualTo(2);
+
+        QueryDeadline.clear();
+        assertThat(timeoutOf(memberQuery())).isNull();
+    }
+
+    private Query memberQuery() {
+        DeadlineJPAQuery<?> query = (DeadlineJPAQuery<?>) new DeadlineJPAQuery<Void>(em).select(member).from(member);
+        return query.createQuery(null, false);
+    }
+
+    private static Integer timeoutOf(Query query) {
+        return query.unwrap(org.hibernate.query.Query.class).getTimeout();
+    }
+
+    private String slowQuery() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        return "H2".equals(database)
+                ? "select count(*) from system_range(1, 100000) a, system_range(1, 100000) b where mod(a.\"X\" * b.\"X\", 7) = 3"
+                : "select benchmark(2000000000, md5('deadline'))";
+    }
+
+    @Test
+    public void noDeadlineTest() {
+        assertThat(jdbcTemplate.queryForObject("select 1", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    public void expiredDeadlineCountTest() {
+        long before = queryTimeoutCounter.getTimeoutCount("MemberJpaRepository.search");
+        QueryDeadline.start(Duration.ZERO);
+
+        assertThatThrownBy(() -> memberJpaRepository.search(new MemberSearchCondition()))
+                .isInstanceOf(QueryDeadlineExceededException.class);
+        assertThat(queryTimeoutCounter.getTimeoutCount("MemberJpaRepository.search")).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void nestedRepositoryCountedOnceTest() {
+        long before = queryTimeoutCounter.getTimeoutCount("MemberRepositoryCustom.search");
+        QueryDeadline.start(Duration.ZERO);
+
+        // MemberRepository(Spring Data) -> MemberRepositoryImpl 중첩 호출은 한 번만 센다.
+        assertThatThrownBy(() -> memberRepository.search(new MemberSearchCondition()))
+                .isInstanceOf(QueryTimeoutException.class);
+        assertThat(queryTimeoutCounter.getTimeoutCount("MemberRepositoryCustom.search")).isEqualTo(before + 1);
+    }
+}
@@ -0,0 +1,109 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.UsernameMatchType;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// threshold 0 : 모든 쿼리를 느린 쿼리로 기록
+@SpringBootTest(properties = "member.slow-query.threshold=0ms")
+@Transactional
+class SlowQueryLogTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.flush();
+        em.clear();
+        slowQueryLog.clear();
+    }
+
+    @Test
+    public void recordSearchTest() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+        condition.setUsernameMatch(UsernameMatchType.PREFIX);
+        condition.setAgeGoe(10);
+
+        memberRepository.search(condition);
+
+        List<SlowQuery> queries = slowQueryLog.recent(10);
+        assertThat(queries).hasSize(1);
+        SlowQuery query = queries.get(0);
+        assertThat(query.getSql()).startsWith("select").contains("member");
+        assertThat(query.getMethod()).isEqualTo("MemberRepositoryCustom.search");
+        assertThat(query.getCondition()).isEqualTo("username(PREFIX),ageGoe");
+        assertThat(query.getParameters()).containsExactly("String(8)", "10"); // 회원명은 가림 ("member1%")
+
+        // EXPLAIN 은 별도 스레드에서 수집
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (query.getExplainStatus() == SlowQuery.ExplainStatus.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(query.getExplainStatus()).isEqualTo(SlowQuery.ExplainStatus.CAPTURED);
+        assertThat(query.getExplain()).containsIgnoringCase("member");
+    }
+
+    @Test
+    public void ringBufferTest() {
+        SlowQueryLog log = new SlowQueryLog(null, true, Duration.ZERO, 2, true, 1);
+        for (int i = 0; i < 3; i++) {
+            log.record("insert into team (team_id, name) values (?, ?)", new TreeMap<>(), i);
+        }
+
+        assertThat(log.recent(10))
+                .extracting(SlowQuery::getElapsedMillis, SlowQuery::getExplainStatus)
+                .hasSize(2)
+                .allSatisfy(entry -> assertThat(entry.toList().get(1)).isEqualTo(SlowQuery.ExplainStatus.SKIPPED));
+        assertThat(log.recent(10)).extracting(SlowQuery::getId).containsExactly(3L, 2L);
+        log.stop();
+    }
+
+    @Test
+    public void redactTest() {
+        TreeMap<Integer, Object> parameters = new TreeMap<>();
+        parameters.put(1, "secret");
+        parameters.put(2, 42L);
+        parameters.put(3, null);
+        parameters.put(4, Boolean.TRUE);
+        parameters.put(5, java.time.LocalDate.of(2024, 1, 1));
+
+        assertThat(SlowQueryLog.redact(parameters)).containsExactly("String(6)", "42", "null", "true", "LocalDate");
+    }
+
+    @Test
+    public void shapeTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        assertThat(SlowQueryLog.shape(condition)).isEqualTo("all");
+
+        condition.setUsername("member");
+        condition.setTeamName("teamA");
+        condition.setAgeLoe(30);
+        assertThat(SlowQueryLog.shape(condition)).isEqualTo("username(EXACT),teamName,ageLoe");
+    }
+}
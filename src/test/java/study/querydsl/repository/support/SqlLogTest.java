@@ -0,0 +1,164 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.engine.jdbc.internal.FormatStyle;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlLogTest {
+
+    @Test
+    public void ringBufferTest() {
+        SqlLogRingBuffer<Integer> buffer = new SqlLogRingBuffer<>(3);
+        assertThat(buffer.capacity()).isEqualTo(4); // 2 의 거듭제곱으로 올림
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse(); // 가득 참
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue(); // 한 칸 비면 다시 넣을 수 있음
+
+        List<Integer> polled = new ArrayList<>();
+        for (Integer value; (value = buffer.poll()) != null; ) {
+            polled.add(value);
+        }
+        assertThat(polled).containsExactly(1, 2, 3, 4);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    public void ringBufferConcurrentTest() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        SqlLogRingBuffer<Integer> buffer = new SqlLogRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        Set<Integer> received = new HashSet<>();
+        while (received.size() < producers * perProducer) {
+            Integer value = buffer.poll();
+            if (value != null) {
+                assertThat(received.add(value)).isTrue(); // 중복 없음
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    public void samplingTest() {
+        SqlLog slowOnly = new SqlLog(false, 0, Duration.ofMillis(100), 16, false, false, line -> {});
+        assertThat(slowOnly.sampled(Duration.ofMillis(99).toNanos())).isFalse();
+        assertThat(slowOnly.sampled(Duration.ofMillis(100).toNanos())).isTrue();
+
+        SqlLog all = new SqlLog(false, 1, Duration.ofMillis(100), 16, false, false, line -> {});
+        assertThat(all.sampled(0)).isTrue();
+    }
+
+    @Test
+    public void offerTest() throws Exception {
+        Queue<String> lines = new ConcurrentLinkedQueue<>();
+        SqlLog sqlLog = new SqlLog(true, 1, Duration.ofMillis(100), 16, false, false, lines::add);
+
+        TreeMap<Integer, Object> parameters = new TreeMap<>();
+        parameters.put(1, "member1");
+        parameters.put(2, 10);
+        sqlLog.offer("select * from member where username = ? and age >= ?", parameters, Duration.ofMillis(150).toNanos());
+        sqlLog.offer("select count(*) from team", new TreeMap<>(), Duration.ofMillis(2).toNanos());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (lines.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        sqlLog.stop();
+
+        assertThat(lines).containsExactly(
+                "[slow] 150.0ms [String(7), 10] select * from member where username = ? and age >= ?",
+                "2.0ms select count(*) from team");
+        assertThat(sqlLog.getDropped()).isZero();
+    }
+
+    @Test
+    public void droppedTest() {
+        SqlLog sqlLog = new SqlLog(false, 1, Duration.ofMillis(100), 2, false, false, line -> {}); // 로그 스레드 없음
+        for (int i = 0; i < 6; i++) {
+            sqlLog.offer("select 1", new TreeMap<>(), 0);
+        }
+        assertThat(sqlLog.getDropped()).isEqualTo(2); // 버퍼 4칸
+    }
+
+    /**
+     * 요청 스레드가 SQL 한 건마다 쓰는 시간 : 매번 포맷팅 + 출력 (show-sql + format_sql) vs SqlLog
+     * 실행 : ./gradlew benchmark -Dbenchmark.rows=500000
+     */
+    @Test
+    @Tag("benchmark")
+    public void callerCostBenchmark() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 100_000);
+        String sql = "select m1_0.member_id,m1_0.username,m1_0.age,t1_0.team_id,t1_0.name from member m1_0 "
+                + "left join team t1_0 on t1_0.team_id=m1_0.team_id where m1_0.username like ? escape '!' and m1_0.age>=?";
+        TreeMap<Integer, Object> parameters = new TreeMap<>();
+        parameters.put(1, "member1%");
+        parameters.put(2, 10);
+        File file = File.createTempFile("sql-log", ".log");
+        file.deleteOnExit();
+
+        try (PrintStream out = new PrintStream(new FileOutputStream(file), true)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                out.println(FormatStyle.BASIC.getFormatter().format(sql));
+                out.println("binding parameter (1:VARCHAR) <- [member1%]");
+                out.println("binding parameter (2:INTEGER) <- [10]");
+            }
+            System.out.println("synchronous : " + (System.nanoTime() - start) / rows + " ns/statement");
+
+            for (double sampleRate : new double[]{1, 0.01}) {
+                SqlLog sqlLog = new SqlLog(true, sampleRate, Duration.ofMillis(100), 4096, true, false, out::println);
+                start = System.nanoTime();
+                for (int i = 0; i < rows; i++) {
+                    if (sqlLog.sampled(0)) {
+                        sqlLog.offer(sql, new TreeMap<>(parameters), 0);
+                    }
+                }
+                System.out.println("SqlLog sample-rate = " + sampleRate + " : " + (System.nanoTime() - start) / rows
+                        + " ns/statement, dropped = " + sqlLog.getDropped());
+                sqlLog.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 팀 변경 outbox 의 샤드 복제 (ShardedMemberRepositoryTest 와 같은 내장 H2 샤드 3개)
+ * 커밋된 outbox 만 보내므로 트랜잭션 없이 실행하고, 만든 팀은 직접 지운다.
+ */
+@SpringBootTest(properties = {
+        "member.sharding.urls=jdbc:h2:mem:shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:shard2;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "member.sharding.username=sa",
+        "member.sharding.password=",
+        "member.sharding.init-schema=true",
+        "member.query-engine.search-page-complex=SHARDED"
+})
+class TeamShardRelayTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberShards shards;
+
+    @Autowired
+    TeamShardRelay teamShardRelay;
+
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        for (NamedParameterJdbcTemplate shard : shards.all()) {
+            shard.getJdbcTemplate().update("delete from team");
+        }
+        teamId = transactionTemplate.execute(status -> {
+            Team team = new Team("relayTeam");
+            em.persist(team);
+            return team.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        jdbcTemplate.update("delete from team where team_id = ?", teamId);
+        jdbcTemplate.update("delete from team_shard_outbox");
+    }
+
+    @Test
+    public void relayTest() {
+        teamShardRelay.relay();
+        assertThat(teamsInShards()).allSatisfy(team -> assertThat(team).containsEntry("name", "relayTeam").containsEntry("version", 0L));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from team_shard_outbox", Long.class)).isZero();
+
+        // 이름 변경 : 롤백된 변경은 outbox 에도 남지 않는다.
+        transactionTemplate.executeWithoutResult(status -> {
+            em.find(Team.class, teamId).setName("rolledBack");
+            em.flush();
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamId).setName("renamed"));
+        teamShardRelay.relay();
+        assertThat(teamsInShards()).allSatisfy(team -> assertThat(team).containsEntry("name", "renamed").containsEntry("version", 1L));
+
+        // 삭제 : 이름을 비운 tombstone
+        transactionTemplate.executeWithoutResult(status -> em.remove(em.find(Team.class, teamId)));
+        teamShardRelay.relay();
+        assertThat(teamsInShards()).allSatisfy(team -> assertThat(team).containsEntry("name", null).containsEntry("version", 2L));
+    }
+
+    @Test
+    public void staleEventTest() {
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamId).setName("renamed"));
+        teamShardRelay.relay();
+
+        // 늦게 도착한(다시 보낸) 낮은 version 은 무시
+        jdbcTemplate.update("insert into team_shard_outbox (team_id, name, version, deleted) values (?, ?, ?, ?)",
+                teamId, "relayTeam", 0L, false);
+        assertThat(teamShardRelay.relay()).isEqualTo(1);
+        assertThat(teamsInShards()).allSatisfy(team -> assertThat(team).containsEntry("name", "renamed").containsEntry("version", 1L));
+    }
+
+    private List<Map<String, Object>> teamsInShards() {
+        List<Map<String, Object>> teams = shards.all().stream()
+                .map(shard -> shard.queryForMap("select name, version from team where team_id = :id",
+                        new MapSqlParameterSource("id", teamId)))
+                .toList();
+        assertThat(teams).hasSize(shards.size());
+        return teams;
+    }
+}
@@ -0,0 +1,51 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsernameNgramIndexTest {
+
+    @Test
+    public void findIdsContaining() throws Exception {
+        UsernameNgramIndex index = new UsernameNgramIndex();
+        index.put(1L, "member1");
+        index.put(2L, "member2");
+        index.put(3L, "teamA");
+
+        assertThat(index.findIdsContaining("mem", 10)).hasValueSatisfying(ids -> assertThat(ids).containsExactlyInAnyOrder(1L, 2L));
+        assertThat(index.findIdsContaining("ember2", 10)).hasValueSatisfying(ids -> assertThat(ids).containsExactly(2L));
+        assertThat(index.findIdsContaining("mber1x", 10)).hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+        assertThat(index.findIdsContaining("aaa", 10)).hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+    }
+
+    @Test
+    public void notSelective() throws Exception {
+        UsernameNgramIndex index = new UsernameNgramIndex();
+        index.put(1L, "member1");
+        index.put(2L, "member2");
+        index.put(3L, "member3");
+
+        // 3글자 미만 검색어, 결과가 최대 개수를 넘는 검색어는 답하지 않음
+        assertThat(index.findIdsContaining("", 10)).isEmpty();
+        assertThat(index.findIdsContaining("me", 10)).isEmpty();
+        assertThat(index.findIdsContaining("member", 2)).isEmpty();
+        assertThat(index.findIdsContaining("member", 3)).hasValueSatisfying(ids -> assertThat(ids).hasSize(3));
+        assertThat(index.findIdsContaining("member2", 2)).hasValueSatisfying(ids -> assertThat(ids).containsExactly(2L));
+    }
+
+    @Test
+    public void putReplacesOldUsername() throws Exception {
+        UsernameNgramIndex index = new UsernameNgramIndex();
+        index.put(1L, "member1");
+        index.put(1L, "renamed");
+        index.remove(2L);
+
+        assertThat(index.findIdsContaining("member", 10)).hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+        assertThat(index.findIdsContaining("name", 10)).hasValueSatisfying(ids -> assertThat(ids).containsExactly(1L));
+
+        index.remove(1L);
+        assertThat(index.size()).isZero();
+        assertThat(index.findIdsContaining("name", 10)).hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+    }
+}
@@ -0,0 +1,113 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 인덱스는 커밋 후에 반영되므로 트랜잭션 없이 실행하고 정리한다.
+@SpringBootTest
+class UsernameSearchTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    UsernameSearch usernameSearch;
+
+    @BeforeEach
+    public void before() {
+        // 같은 컨텍스트를 쓰는 다른 테스트가 JDBC 로 지운 회원 제거 (검색 뷰에 남은 행 포함)
+        jdbcTemplate.update("delete from member_search_view where member_id not in (select member_id from member)");
+        usernameSearch.rebuild();
+    }
+
+    @AfterEach
+    public void after() {
+        jdbcTemplate.update("delete from member_search_view");
+        jdbcTemplate.update("delete from member");
+        usernameSearch.rebuild();
+    }
+
+    @Test
+    public void indexAfterCommit() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member("rollbackUser", 10);
+            em.persist(member);
+            // 반영 전 변경은 인덱스 결과에 겹쳐서 검색 (자기 쓰기를 봄, flush 전이어도)
+            assertThat(usernameSearch.findIdsContaining("rollback")).containsExactly(member.getId());
+            status.setRollbackOnly();
+        });
+        assertThat(usernameSearch.findIdsContaining("rollback")).isEmpty();
+
+        Long id = transactionTemplate.execute(status -> {
+            Member member = new Member("committedUser", 10);
+            em.persist(member);
+            return member.getId();
+        });
+        assertThat(usernameSearch.findIdsContaining("committed")).containsExactly(id);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            em.find(Member.class, id).setUsername("renamedUser");
+            // 트랜잭션 안에서는 바뀐 회원명으로만 찾는다.
+            assertThat(usernameSearch.findIdsContaining("committed")).isEmpty();
+            assertThat(usernameSearch.findIdsContaining("renamed")).containsExactly(id);
+            status.setRollbackOnly();
+        });
+        assertThat(usernameSearch.findIdsContaining("committed")).containsExactly(id);
+        assertThat(usernameSearch.findIdsContaining("renamed")).isEmpty();
+    }
+
+    @Test
+    public void rejectNotSelective() throws Exception {
+        // like 풀스캔으로 바꾸지 않고 거절
+        assertThatThrownBy(() -> usernameSearch.findIdsContaining("ab"))
+                .isInstanceOf(UnsupportedUsernameSearchException.class);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i <= 1000; i++) { // member.search.ngram-index.max-candidates 기본값 1000
+                em.persist(new Member("manyUser" + i, 10));
+            }
+        });
+        assertThatThrownBy(() -> usernameSearch.findIdsContaining("manyuser"))
+                .isInstanceOf(UnsupportedUsernameSearchException.class);
+        assertThat(usernameSearch.findIdsContaining("manyuser1000")).hasSize(1);
+    }
+
+    @Test
+    public void normalizeSameAsColumn() throws Exception {
+        // 정규화 컬럼(DB lower) 과 같은 값으로 IGNORE_CASE / PREFIX / contains 를 검색
+        Long id = transactionTemplate.execute(status -> {
+            Member member = new Member("ÄRGER Élan", 10);
+            em.persist(member);
+            return member.getId();
+        });
+        String normalized = jdbcTemplate.queryForObject("select username_normalized from member where member_id = ?", String.class, id);
+        assertThat(usernameSearch.normalize("ÄRGER Élan")).isEqualTo(normalized);
+        assertThat(usernameSearch.findIdsContaining("RGER É")).containsExactly(id);
+    }
+
+    @Test
+    public void rebuildFindsOtherWriters() throws Exception {
+        // 다른 인스턴스의 쓰기 (이 프로세스의 엔티티 리스너를 거치지 않음)
+        jdbcTemplate.update("insert into member (member_id, username, age, version) values (999999999, 'otherUser', 10, 0)");
+        assertThat(usernameSearch.findIdsContaining("other")).isEmpty();
+
+        usernameSearch.rebuild();
+        assertThat(usernameSearch.findIdsContaining("other")).containsExactly(999999999L);
+    }
+}
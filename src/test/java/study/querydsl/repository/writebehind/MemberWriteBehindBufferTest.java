@@ -0,0 +1,115 @@
+package study.querydsl.repository.writebehind;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "member.write-behind.enabled=true",
+        "member.write-behind.journal-path=build/tmp/write-behind-${random.uuid}.journal",
+        "member.write-behind.flush-interval=10ms",
+        "member.write-behind.max-attempts=2",
+        "member.write-behind.dead-letter-path=" + MemberWriteBehindBufferTest.DEAD_LETTER_PATH
+})
+class MemberWriteBehindBufferTest {
+
+    static final String DEAD_LETTER_PATH = "build/tmp/write-behind-test.dead";
+
+    @Autowired
+    MemberWriteBehindBuffer memberWriteBehindBuffer;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    public void after() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void insertThenUpdateInOrder() throws Exception {
+        memberRepository.save(new Member("existing", 1));
+
+        for (int i = 0; i < 50; i++) {
+            memberWriteBehindBuffer.submit(new Member("member" + i, i));
+        }
+        awaitDrained();
+        assertThat(memberRepository.count()).isEqualTo(51);
+
+        Member existing = memberRepository.findByUsername("existing").get(0);
+        for (int age = 2; age <= 20; age++) {
+            existing.setAge(age);
+            memberWriteBehindBuffer.submit(existing);
+        }
+        awaitDrained();
+
+        List<Member> result = memberRepository.findByUsername("existing");
+        assertThat(result).extracting("age").containsExactly(20);
+    }
+
+    @Test
+    public void updateRightAfterInsert() throws Exception {
+        // insert 에서 발급한 id 로 바로 update : 같은 stripe 에서 insert 뒤에 반영
+        for (int i = 0; i < 20; i++) {
+            Member member = new Member("fresh" + i, 1);
+            memberWriteBehindBuffer.submit(member);
+            assertThat(member.getId()).isNotNull();
+            member.setAge(2);
+            memberWriteBehindBuffer.submit(member);
+        }
+        awaitDrained();
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(memberRepository.findByUsername("fresh" + i)).extracting("age").containsExactly(2);
+        }
+    }
+
+    @Test
+    public void deadLetterAfterMaxAttempts() throws Exception {
+        Member existing = memberRepository.save(new Member("existing", 1));
+        int deadLettered = deadLetters().size();
+
+        // 없는 팀 (외래키 위반) : 재시도해도 계속 실패
+        Team missingTeam = new Team("missing");
+        ReflectionTestUtils.setField(missingTeam, "id", 999_999_999L);
+        existing.setTeam(missingTeam);
+        memberWriteBehindBuffer.submit(existing);
+        awaitDrained();
+
+        List<MemberWrite> deadLetters = deadLetters();
+        assertThat(deadLetters).hasSize(deadLettered + 1);
+        assertThat(deadLetters.get(deadLetters.size() - 1).getMemberId()).isEqualTo(existing.getId());
+
+        // checkpoint 가 넘어갔으므로 다음 쓰기는 반영된다.
+        existing.setTeam(null);
+        existing.setAge(2);
+        memberWriteBehindBuffer.submit(existing);
+        awaitDrained();
+        assertThat(memberRepository.findByUsername("existing")).extracting("age").containsExactly(2);
+    }
+
+    private static List<MemberWrite> deadLetters() throws Exception {
+        try (MemberWriteJournal journal = new MemberWriteJournal(Path.of(DEAD_LETTER_PATH))) {
+            return journal.readAll();
+        }
+    }
+
+    private void awaitDrained() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (memberWriteBehindBuffer.getBuffered() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(memberWriteBehindBuffer.getBuffered()).isZero();
+    }
+}
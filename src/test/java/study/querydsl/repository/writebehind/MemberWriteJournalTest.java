@@ -0,0 +1,86 @@
+package study.querydsl.repository.writebehind;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberWriteJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void appendAndReadAll() throws Exception {
+        Path path = dir.resolve("member.journal");
+        try (MemberWriteJournal journal = new MemberWriteJournal(path)) {
+            journal.append(new MemberWrite(1L, 1L, "member1", 10, 1L, true));
+            journal.append(new MemberWrite(2L, 5L, null, 20, null, false));
+        }
+
+        try (MemberWriteJournal journal = new MemberWriteJournal(path)) {
+            List<MemberWrite> writes = journal.readAll();
+            assertThat(writes).extracting("sequence").containsExactly(1L, 2L);
+            assertThat(writes.get(0).isInsert()).isTrue();
+            assertThat(writes.get(0).getMemberId()).isEqualTo(1L);
+            assertThat(writes.get(0).getUsername()).isEqualTo("member1");
+            assertThat(writes.get(0).getTeamId()).isEqualTo(1L);
+            assertThat(writes.get(1).isInsert()).isFalse();
+            assertThat(writes.get(1).getMemberId()).isEqualTo(5L);
+            assertThat(writes.get(1).getUsername()).isNull();
+            assertThat(writes.get(1).getTeamId()).isNull();
+        }
+    }
+
+    @Test
+    public void dropTornTailRecord() throws Exception {
+        Path path = dir.resolve("member.journal");
+        try (MemberWriteJournal journal = new MemberWriteJournal(path)) {
+            journal.append(new MemberWrite(1L, 1L, "member1", 10, null, true));
+        }
+        // 기록 도중 죽은 경우처럼 불완전한 레코드를 덧붙인다.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2}));
+        }
+
+        try (MemberWriteJournal journal = new MemberWriteJournal(path)) {
+            assertThat(journal.readAll()).extracting("sequence").containsExactly(1L);
+            journal.append(new MemberWrite(2L, 2L, "member2", 20, null, true));
+            assertThat(journal.readAll()).extracting("sequence").containsExactly(1L, 2L);
+
+            journal.truncate();
+            assertThat(journal.readAll()).isEmpty();
+        }
+    }
+
+    @Test
+    public void skipCorruptRecordInTheMiddle() throws Exception {
+        Path path = dir.resolve("member.journal");
+        try (MemberWriteJournal journal = new MemberWriteJournal(path)) {
+            for (long i = 1; i <= 3; i++) {
+                journal.append(new MemberWrite(i, i, "member" + i, 10, null, true)).join();
+            }
+        }
+        // 두 번째 레코드의 payload 한 바이트를 바꾼다. (같은 길이의 레코드 3개)
+        long size = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xff}), size / 3 + 10);
+        }
+
+        try (MemberWriteJournal journal = new MemberWriteJournal(path)) {
+            // 뒤의 정상 레코드를 잃지 않고, 파일도 잘라내지 않는다.
+            assertThat(journal.readAll()).extracting("sequence").containsExactly(1L, 3L);
+            assertThat(journal.size()).isEqualTo(size);
+
+            journal.append(new MemberWrite(4L, 4L, "member4", 40, null, true)).join();
+            assertThat(journal.readAll()).extracting("sequence").containsExactly(1L, 3L, 4L);
+        }
+    }
+}